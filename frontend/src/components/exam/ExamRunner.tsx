@@ -10,7 +10,6 @@ interface ExamQuestion {
   optionB: string;
   optionC: string;
   optionD: string;
-  correctAnswer: string;
   category: string;
   difficulty: number;
 }
@@ -35,6 +34,11 @@ interface ExamRunnerProps {
   onCancel: () => void;
 }
 
+interface SubmitError {
+  message: string;
+  final: boolean; // Sitzung abgelaufen, schon abgegeben oder unbekannt: erneutes Abgeben sinnlos
+}
+
 interface ExamResult {
   totalQuestions: number;
   correctAnswers: number;
@@ -52,6 +56,9 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
   const [loading, setLoading] = useState(true);
   const [submitting, setSubmitting] = useState(false);
   const [showWarning, setShowWarning] = useState(false);
+  const [submitError, setSubmitError] = useState<SubmitError | null>(null);
+  // Kennung der serverseitigen Prüfungssitzung (Header X-Exam-Id), nur bei Anmeldung gesetzt
+  const [examSessionId, setExamSessionId] = useState<string | null>(null);
 
   // Lade Prüfungsfragen
   useEffect(() => {
@@ -87,17 +94,10 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
         }
       });
       setQuestions(response.data);
+      setExamSessionId(response.headers['x-exam-id'] ?? null);
     } catch (error) {
+      // Kein Ausweichen auf /questions/random: ohne Sitzung wäre die Abgabe nicht bewertbar
       console.error('Failed to load exam questions:', error);
-      // Fallback: Lade normale Fragen
-      try {
-        const response = await api.get('/questions/random', {
-          params: { count: exam.questions }
-        });
-        setQuestions(response.data);
-      } catch (fallbackError) {
-        console.error('Fallback also failed:', fallbackError);
-      }
     } finally {
       setLoading(false);
     }
@@ -140,19 +140,53 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
     }
 
     setSubmitting(true);
+    setSubmitError(null);
 
-    // Berechne Ergebnisse
-    const answersArray = Array.from(answers.values());
-    let correctCount = 0;
+    // Bewertung ausschließlich durch das Backend (die Prüfungsfragen enthalten keine Lösungen).
+    // Jede Frage wird mitgeschickt, unbeantwortete mit selectedAnswer: null.
+    let data: any;
+    try {
+      const response = await api.post('/exam/submit', {
+        examId: examSessionId ?? exam.id,
+        answers: questions.map(question => ({
+          questionId: question.id,
+          selectedAnswer: answers.get(question.id)?.selectedAnswer ?? null
+        })),
+        timeSpent: exam.duration * 60 - timeRemaining
+      });
+      data = response.data;
+    } catch (error: any) {
+      console.error('Failed to submit exam:', error);
+      if (!error.response) {
+        setSubmitError({
+          message: 'Keine Verbindung zum Server. Deine Antworten bleiben erhalten, bitte versuche es erneut.',
+          final: false
+        });
+        setSubmitting(false);
+        return;
+      }
+      // 400/409 liefern success: false mit state und message
+      data = error.response.data;
+    }
+
+    if (!data?.success) {
+      const state: string | undefined = data?.state;
+      setSubmitError({
+        message: data?.message ?? 'Die Prüfung konnte nicht abgegeben werden. Bitte versuche es erneut.',
+        final: state === 'EXPIRED' || state === 'SUBMITTED' || state === 'UNKNOWN'
+      });
+      setSubmitting(false);
+      return;
+    }
 
-    // Prüfe Antworten
+    const answersArray = Array.from(answers.values());
+    const graded = new Map<number, boolean>(
+      (data.answers ?? []).map((a: { questionId: number; correct: boolean }) => [a.questionId, a.correct])
+    );
     answersArray.forEach(answer => {
-      const question = questions.find(q => q.id === answer.questionId);
-      if (question) {
-        answer.isCorrect = answer.selectedAnswer === question.correctAnswer;
-        if (answer.isCorrect) correctCount++;
-      }
+      answer.isCorrect = graded.get(answer.questionId) ?? false;
     });
+    const correctCount: number = data.correctAnswers ?? 0;
 
     const result: ExamResult = {
       totalQuestions: questions.length,
@@ -163,17 +197,6 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
       answers: answersArray
     };
 
-    // Sende Ergebnis an Backend
-    try {
-      await api.post('/exam/submit', {
-        examId: exam.id,
-        answers: answersArray,
-        timeSpent: result.timeSpent
-      });
-    } catch (error) {
-      console.error('Failed to submit exam:', error);
-    }
-
     onComplete(result);
   };
 
@@ -241,6 +264,20 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
             </p>
           </div>
         )}
+
+        {submitError && (
+          <div className="mt-4 bg-red-50 border border-red-200 rounded-lg p-4 flex items-start space-x-2">
+            <AlertCircle className="w-5 h-5 text-red-600 flex-shrink-0 mt-0.5" />
+            <div className="flex-1">
+              <p className="text-red-800 text-sm">{submitError.message}</p>
+              {submitError.final && (
+                <button onClick={onCancel} className="btn-secondary mt-3">
+                  Zurück zur Übersicht
+                </button>
+              )}
+            </div>
+          </div>
+        )}
       </div>
 
       <div className="grid grid-cols-1 lg:grid-cols-4 gap-6">
@@ -302,7 +339,7 @@ export const ExamRunner: React.FC<ExamRunnerProps> = ({ exam, onComplete, onCanc
               {currentQuestionIndex === questions.length - 1 ? (
                 <button
                   onClick={handleSubmit}
-                  disabled={submitting}
+                  disabled={submitting || submitError?.final}
                   className="btn-primary"
                 >
                   {submitting ? 'Wird abgegeben...' : 'Prüfung abgeben'}
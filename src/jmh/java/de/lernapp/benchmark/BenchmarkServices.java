@@ -0,0 +1,73 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.model.Question;
+import de.lernapp.repository.CatalogVersionRepository;
+import de.lernapp.repository.LearningStrategyRepository;
+import de.lernapp.repository.QuestionRepository;
+import de.lernapp.service.QuestionService;
+import de.lernapp.service.QuestionStatsCounters;
+import de.lernapp.service.StrategyService;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Verdrahtet die Dienste ohne Spring-Kontext über einem synthetischen Katalog
+ *
+ * Repositories sind Stubs, die nur die auf den gemessenen Pfaden benötigten Methoden
+ * beantworten; alles andere wirft UnsupportedOperationException. Nicht benötigte
+ * Abhängigkeiten (Ereignisse, Lernstand, Transaktionen) bleiben null.
+ */
+final class BenchmarkServices {
+
+    final QuestionCatalogService catalogService;
+    final QuestionService questionService;
+    final StrategyService strategyService;
+
+    private BenchmarkServices(List<Question> questions) {
+        QuestionRepository questionRepository = stub(QuestionRepository.class,
+                Map.of("findByCatalogVersionIsNull", args -> questions));
+        CatalogVersionRepository versionRepository = stub(CatalogVersionRepository.class,
+                Map.of("findFirstByStatusOrderByIdDesc", args -> Optional.empty()));
+        LearningStrategyRepository strategyRepository = stub(LearningStrategyRepository.class,
+                Map.of("findFirstByUserIdOrderByIdDesc", args -> Optional.empty()));
+
+        QuestionStatsCounters questionStats = new QuestionStatsCounters(null, null,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 500);
+        catalogService = new QuestionCatalogService(questionRepository, versionRepository, questionStats);
+        catalogService.rebuild();
+
+        questionService = new QuestionService(questionRepository, catalogService, null, questionStats, null);
+        strategyService = new StrategyService(catalogService, null, null, strategyRepository, 600, 10_000);
+    }
+
+    /**
+     * Dienste über n synthetischen Fragen (IDs 1..n)
+     */
+    static BenchmarkServices withQuestions(int n) {
+        return new BenchmarkServices(SyntheticCatalog.questions(n));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(
+                        method.getName() + " wird im Benchmark nicht unterstützt");
+            };
+        });
+    }
+}
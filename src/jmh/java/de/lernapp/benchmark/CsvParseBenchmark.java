@@ -0,0 +1,59 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.model.Question;
+import de.lernapp.service.MassiveCsvImportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zerlegen von CSV-Zeilen im Importformat (16 Spalten, Texte in Anführungszeichen
+ * mit eingebetteten Kommas) mit MassiveCsvImportService.parseCsvValues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CsvParseBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(csvLine(SyntheticCatalog.question(i), i));
+        }
+    }
+
+    @Benchmark
+    public int parseCsvValues() {
+        int values = 0;
+        for (String line : lines) {
+            values += MassiveCsvImportService.parseCsvValues(line).size();
+        }
+        return values;
+    }
+
+    /**
+     * exam_year,exam_season,main_category,sub_category,topic_tags,question_text,answer_a-d,
+     * correct_answer,difficulty,points,explanation,hint,frequency
+     */
+    private static String csvLine(Question q, int i) {
+        return String.join(",",
+                String.valueOf(2020 + i % 5), i % 2 == 0 ? "Sommer" : "Winter",
+                quote(q.getCategory()), quote(q.getTopic()), quote(q.getTags().replace(';', ',')),
+                quote(q.getQuestionText() + ", mit Komma"),
+                quote(q.getOptionA()), quote(q.getOptionB()), quote(q.getOptionC()), quote(q.getOptionD()),
+                q.getCorrectAnswer(), String.valueOf(q.getDifficulty()), String.valueOf(q.getPoints()),
+                quote(q.getExplanation()), quote("Tipp zu Frage " + i), String.valueOf(i % 10));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,73 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validierte Tokens pro Sekunde und Kern: alter Pfad (Schlüssel und Parser pro Aufruf,
+ * dreifaches Parsen) gegen den vorberechneten Schlüssel mit wiederverwendetem Parser.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    
+    private static final String SECRET = "mySecretKey12345678901234567890123456789012345678901234567890";
+    
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(SECRET, 86400000);
+        userDetails = User.withUsername("benchuser")
+                .password("unused")
+                .authorities("ROLE_USER")
+                .build();
+        token = jwtService.generateToken(userDetails);
+    }
+    
+    /**
+     * Nachbildung der früheren Implementierung als Vergleichswert
+     */
+    @Benchmark
+    public boolean legacyValidateToken() {
+        String username = legacyClaims(token).getSubject();
+        Date expiration = legacyClaims(token).getExpiration();
+        return username.equals(userDetails.getUsername())
+                && legacyClaims(token).getSubject() != null
+                && !expiration.before(new Date());
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, userDetails);
+    }
+    
+    @Benchmark
+    public Optional<Claims> parseValidToken() {
+        return jwtService.parseValidToken(token);
+    }
+    
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
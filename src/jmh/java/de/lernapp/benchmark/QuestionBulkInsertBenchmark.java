@@ -0,0 +1,87 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.model.Question;
+import de.lernapp.repository.QuestionBatchWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Massenimport von Fragen in eine H2-In-Memory-Datenbank:
+ * ein INSERT pro Zeile (wie saveAll mit IDENTITY) gegen JDBC-Batches über QuestionBatchWriter.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class QuestionBulkInsertBenchmark {
+    
+    private static final int CHUNK = 5_000;
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private JdbcTemplate jdbcTemplate;
+    private QuestionBatchWriter batchWriter;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:bulkinsert;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        batchWriter = new QuestionBatchWriter(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS questions (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, question_text VARCHAR(2000) NOT NULL, " +
+                "option_a VARCHAR(500) NOT NULL, option_b VARCHAR(500) NOT NULL, " +
+                "option_c VARCHAR(500) NOT NULL, option_d VARCHAR(500) NOT NULL, " +
+                "correct_answer VARCHAR(1) NOT NULL, category VARCHAR(100) NOT NULL, " +
+                "topic VARCHAR(100), subtopic VARCHAR(100), difficulty INT NOT NULL, " +
+                "explanation VARCHAR(2000), tags VARCHAR(500), tips VARCHAR(1000), " +
+                "correction VARCHAR(1000), source VARCHAR(200), points INT NOT NULL, " +
+                "active BOOLEAN NOT NULL, times_answered INT, times_correct INT, " +
+                "created_at TIMESTAMP, updated_at TIMESTAMP, catalog_version BIGINT)");
+    }
+    
+    @Setup(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE questions");
+    }
+    
+    @Benchmark
+    public int singleRowInserts() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int written = 0;
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            for (Question question : chunk(offset)) {
+                written += jdbcTemplate.update(QuestionBatchWriter.INSERT_SQL,
+                        ps -> QuestionBatchWriter.bind(ps, question, now));
+            }
+        }
+        return written;
+    }
+    
+    @Benchmark
+    public int batchWriter() {
+        int written = 0;
+        for (int offset = 0; offset < rows; offset += CHUNK) {
+            written += batchWriter.insertAll(chunk(offset));
+        }
+        return written;
+    }
+    
+    private List<Question> chunk(int offset) {
+        int size = Math.min(CHUNK, rows - offset);
+        List<Question> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(SyntheticCatalog.question(offset + i));
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,120 @@
+package de.lernapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.lernapp.model.Question;
+import de.lernapp.service.catalog.CatalogJsonWriter;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ausgabe des kompletten Fragenkatalogs als JSON: Entities mit eingerücktem ObjectMapper
+ * (bisheriger Weg) gegen den Streaming-Generator im QuestionDTO-Format.
+ * Die Größe der Nutzlast steht als Zusatzzähler im Ergebnis (siehe Payload).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class QuestionPayloadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Question> entities;
+    private QuestionCatalog catalog;
+    private int[] allPositions;
+    private ObjectMapper legacyMapper;
+    private ObjectMapper mapper;
+
+    /**
+     * Nutzlast als Zusatzzähler (auch in results.json): Bytes je Antwort = payloadBytes / payloads.
+     * EVENTS werden über Threads und Iterationen summiert, das Verhältnis bleibt dabei exakt.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Payload {
+        public long payloadBytes;
+        public long payloads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+            payloads = 0;
+        }
+
+        long record(CountingStream out) {
+            payloadBytes += out.count;
+            payloads++;
+            return out.count;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        entities = SyntheticCatalog.questions(size);
+        LocalDateTime now = LocalDateTime.now();
+        List<CatalogQuestion> entries = new ArrayList<>(size);
+        for (Question question : entities) {
+            question.setCreatedAt(now);
+            question.setUpdatedAt(now);
+            entries.add(CatalogQuestion.fromQuestion(question));
+        }
+        catalog = QuestionCatalog.of(1, entries);
+        allPositions = catalog.indices(null, null);
+
+        legacyMapper = new ObjectMapper().findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public long legacyEntities(Payload payload) throws IOException {
+        CountingStream out = new CountingStream();
+        legacyEntities(out);
+        return payload.record(out);
+    }
+
+    @Benchmark
+    public long streamedDtos(Payload payload) throws IOException {
+        CountingStream out = new CountingStream();
+        streamedDtos(out);
+        return payload.record(out);
+    }
+
+    private void legacyEntities(OutputStream out) throws IOException {
+        legacyMapper.writeValue(out, entities);
+    }
+
+    private void streamedDtos(OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            CatalogJsonWriter.writeArray(generator, catalog, allPositions, 0, allPositions.length);
+        }
+    }
+
+    /**
+     * Verwirft die Ausgabe und zählt nur die Bytes
+     */
+    private static final class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.dto.QuestionDTO;
+import de.lernapp.model.Question;
+import de.lernapp.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auslieferung von Fragen über die echten Dienste: nächste Lernfrage (ohne und mit Filter),
+ * Strategie-Prüfung mit 40 Fragen und die DTO-Umwandlung des gesamten Katalogs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QuestionServingBenchmark {
+
+    private static final int EXAM_SIZE = 40;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private BenchmarkServices services;
+    private List<Question> questions;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        services = BenchmarkServices.withQuestions(size);
+        questions = SyntheticCatalog.questions(size);
+        // Ohne gespeicherte Strategie gilt die aktive Standardstrategie
+        user = User.builder().id(1L).username("benchuser").build();
+    }
+
+    @Benchmark
+    public Question getNextQuestion() {
+        return services.questionService.getNextQuestion(null, null, null);
+    }
+
+    @Benchmark
+    public Question getNextQuestionFiltered() {
+        return services.questionService.getNextQuestion(null, "Netzwerktechnik", 2);
+    }
+
+    @Benchmark
+    public List<Question> getStrategyQuestions() {
+        return services.strategyService.getStrategyQuestions(user, EXAM_SIZE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<QuestionDTO> fromQuestionWholeCatalog() {
+        List<QuestionDTO> dtos = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            dtos.add(QuestionDTO.fromQuestion(question));
+        }
+        return dtos;
+    }
+}
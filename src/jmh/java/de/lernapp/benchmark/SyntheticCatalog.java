@@ -0,0 +1,57 @@
+package de.lernapp.benchmark;
+
+import de.lernapp.model.Question;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Erzeugt deterministische, synthetische Fragen für Benchmarks
+ */
+public final class SyntheticCatalog {
+    
+    public static final String[] CATEGORIES = {
+        "Projektmanagement", "PowerShell", "Netzwerktechnik", "OSI-Modell",
+        "IT-Sicherheit", "Datenschutz", "Wirtschaftlichkeit", "3D-Daten",
+        "Hardware", "Kaufvertragsrecht", "Malware", "Datenbanken"
+    };
+    
+    private static final String[] ANSWERS = {"A", "B", "C", "D"};
+    
+    private SyntheticCatalog() {
+    }
+    
+    /**
+     * Frage Nummer i (ohne ID, wie sie ein Import liefern würde)
+     */
+    public static Question question(int i) {
+        Question question = new Question();
+        question.setQuestionText("Synthetische Prüfungsfrage Nr. " + i + " zu Übertragungsraten und Schnittstellen?");
+        question.setOptionA("Antwort A zu Frage " + i);
+        question.setOptionB("Antwort B zu Frage " + i);
+        question.setOptionC("Antwort C zu Frage " + i);
+        question.setOptionD("Antwort D zu Frage " + i);
+        question.setCorrectAnswer(ANSWERS[i % ANSWERS.length]);
+        question.setCategory(CATEGORIES[i % CATEGORIES.length]);
+        question.setTopic("Thema " + (i % 40));
+        question.setDifficulty(1 + (i % 3));
+        question.setExplanation("Erklärung zu Frage " + i);
+        question.setTags("tag" + (i % 25) + ";tag" + (i % 7));
+        question.setPoints(10 * (1 + (i % 3)));
+        question.setActive(true);
+        return question;
+    }
+    
+    /**
+     * Katalog mit n Fragen und fortlaufenden IDs ab 1
+     */
+    public static List<Question> questions(int n) {
+        List<Question> questions = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Question question = question(i);
+            question.setId((long) i + 1);
+            questions.add(question);
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,136 @@
+package de.lernapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.lernapp.loadtest.TrafficMix.Action;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * HTTP-Aufrufe gegen die App; jede Anfrage wird beim Endpunkt ihrer Aktion verbucht
+ *
+ * Als Fehler zählen Statuscodes ab 400 sowie Verbindungsfehler und Zeitüberschreitungen.
+ * Einige Endpunkte melden Fehler nur mit 2xx im Inhalt; sie werden zusätzlich geprüft:
+ *   POST /api/exam/submit          200 mit "success": false (Ausnahme beim Bewerten/Speichern)
+ *   GET  /api/exam/questions       200 ohne X-Exam-Id trotz Anmeldung (Ersatzauswahl nach Ausnahme)
+ *   GET  /api/learning/next-question  204 ohne Frage
+ */
+final class ApiClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Action, EndpointStats> stats = new EnumMap<>(Action.class);
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Action action : Action.values()) {
+            stats.put(action, new EndpointStats(action.endpoint));
+        }
+    }
+
+    Map<Action, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Antwort einer verbuchten Anfrage; body ist null bei leerer Antwort oder Fehler,
+     * ok entspricht der Verbuchung (Status und ggf. Inhalt)
+     */
+    record Result(int status, boolean ok, JsonNode body, HttpResponse<byte[]> response) {
+    }
+
+    Result get(Action action, String path, String token) {
+        return send(action, request(path, token).GET().build());
+    }
+
+    Result post(Action action, String path, String token, Object body) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(body);
+            return send(action, request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                    .build());
+        } catch (IOException e) {
+            throw new IllegalStateException("Anfrage konnte nicht serialisiert werden", e);
+        }
+    }
+
+    /**
+     * Unverbuchte Anfrage (Warten auf den Start der App)
+     */
+    int probe(String path) {
+        try {
+            return http.send(request(path, null).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * Fehler, die der Endpunkt mit 2xx meldet (siehe Klassenkommentar)
+     */
+    private static boolean failedInBody(Action action, int status, JsonNode body, HttpRequest request,
+                                        HttpResponse<byte[]> response) {
+        return switch (action) {
+            case EXAM_SUBMIT -> body == null || !body.path("success").asBoolean(false);
+            case EXAM_QUESTIONS -> request.headers().firstValue("Authorization").isPresent()
+                    && response.headers().firstValue("X-Exam-Id").isEmpty();
+            case NEXT_QUESTION -> status == 204;
+            default -> false;
+        };
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Result send(Action action, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            int status = response.statusCode();
+
+            JsonNode body = null;
+            byte[] bytes = response.body();
+            if (status < 400 && bytes != null && bytes.length > 0 && bytes[0] != '<') {
+                try {
+                    body = mapper.readTree(bytes);
+                } catch (IOException e) {
+                    body = null; // Kein JSON (z.B. Textantwort)
+                }
+            }
+            boolean success = status < 400 && !failedInBody(action, status, body, request, response);
+            stats.get(action).record(elapsed, success);
+            return new Result(status, success, body, response);
+        } catch (IOException e) {
+            stats.get(action).record(System.nanoTime() - start, false);
+            return new Result(-1, false, null, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(-1, false, null, null);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package de.lernapp.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startet die App als eigenen Prozess mit frischer H2-Datei und Profil "loadtest"
+ *
+ * Die Datenbank liegt in einem temporären Verzeichnis; beim Start werden wie gewohnt die
+ * Fragen importiert. Bereit ist die App, sobald eine Lernfrage ausgeliefert wird.
+ * Die Ausgabe des Prozesses landet in app.log im Berichtsverzeichnis.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Process process;
+    private final Path dataDir;
+    final String baseUrl;
+
+    private AppUnderTest(Process process, Path dataDir, String baseUrl) {
+        this.process = process;
+        this.dataDir = dataDir;
+        this.baseUrl = baseUrl;
+    }
+
+    static AppUnderTest start(LoadTestOptions options) throws IOException, InterruptedException {
+        Path dataDir = Files.createTempDirectory("lernapp-loadtest");
+        Files.createDirectories(options.reportDir());
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<String> command = new ArrayList<>(List.of(java, "-jar", options.jar().toAbsolutePath().toString(),
+                "--server.port=" + options.port(),
+                "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("lernappdb").toAbsolutePath(),
+                "--spring.profiles.active=loadtest"));
+        // Spätere Argumente überschreiben frühere (z.B. weitere Profile)
+        command.addAll(options.appArgs());
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(options.reportDir().resolve("app.log").toFile())
+                .start();
+        AppUnderTest app = new AppUnderTest(process, dataDir, "http://localhost:" + options.port());
+        try {
+            app.awaitReady();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        ApiClient probe = new ApiClient(baseUrl);
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("App beendet mit Code " + process.exitValue() + " (siehe app.log)");
+            }
+            if (probe.probe("/api/learning/next-question") == 200) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException("App nicht innerhalb von " + STARTUP_TIMEOUT.toMinutes() + " Minuten bereit");
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+        try (var files = Files.walk(dataDir)) {
+            files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Temporäre Datenbank nicht gelöscht: " + dataDir);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.lernapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latenzen (HdrHistogram, Mikrosekunden) und Fehler eines Endpunkts
+ *
+ * Aufgezeichnet wird wartefrei aus beliebig vielen virtuellen Threads; snapshot() liefert
+ * das Intervall seit dem letzten Aufruf, sodass die Aufwärmphase verworfen werden kann.
+ */
+final class EndpointStats {
+
+    /** Größter erfassbarer Wert: 60 s */
+    private static final long HIGHEST_MICROS = 60_000_000L;
+
+    final String endpoint;
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long nanos, boolean success) {
+        recorder.recordValue(Math.min(HIGHEST_MICROS, Math.max(1, nanos / 1_000)));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Abgeschlossenes Intervall: Histogramm und Fehler seit dem letzten Aufruf
+     */
+    Snapshot snapshot() {
+        return new Snapshot(endpoint, recorder.getIntervalHistogram(), errors.sumThenReset());
+    }
+
+    record Snapshot(String endpoint, Histogram histogram, long errors) {
+
+        long requests() {
+            return histogram.getTotalCount();
+        }
+
+        double errorRate() {
+            return requests() == 0 ? 0 : (double) errors / requests();
+        }
+
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1_000.0;
+        }
+
+        double maxMillis() {
+            return histogram.getMaxValue() / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package de.lernapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.lernapp.loadtest.TrafficMix.Action;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lasttest für Lern- und Prüfungsbetrieb
+ *
+ * Ablauf: App mit frischer H2-Datei starten (oder baseUrl nutzen), N Benutzer über
+ * /api/auth/register anlegen, dann je Benutzer einen virtuellen Thread mit der gewählten
+ * Mischung laufen lassen. Nach der Aufwärmphase wird gemessen; je Endpunkt werden Anfragen,
+ * Fehlerquote, Durchsatz und p50/p95/p99/max ausgegeben. Im Berichtsverzeichnis liegen
+ * zusätzlich die Perzentilverteilungen im HdrHistogram-Format (*.hgrm) und summary.json.
+ *
+ * Start über Gradle: ./gradlew loadTest -Pusers=200 -Pduration=120 -Pmix=examday
+ * Vergleich Plattform- gegen virtuelle Threads: ./gradlew loadTest -Pcompare=true (siehe ModeComparison)
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "Lasttest-2024!";
+    private static final int REGISTER_PARALLELISM = 32;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.reportDir());
+
+        if (options.compare()) {
+            ModeComparison.run(options);
+        } else if (options.baseUrl() != null) {
+            run(options, options.baseUrl());
+        } else {
+            runWithNewApp(options);
+        }
+    }
+
+    /**
+     * Startet die App für diesen Lauf und beendet sie danach wieder
+     */
+    static Map<String, Object> runWithNewApp(LoadTestOptions options) throws Exception {
+        System.out.println("Starte App " + options.jar() + " auf Port " + options.port()
+                + (options.appArgs().isEmpty() ? "" : " mit " + options.appArgs()) + " ...");
+        try (AppUnderTest app = AppUnderTest.start(options)) {
+            return run(options, app.baseUrl);
+        }
+    }
+
+    private static Map<String, Object> run(LoadTestOptions options, String baseUrl) throws Exception {
+        ApiClient client = new ApiClient(baseUrl);
+        List<String> usernames = register(client, options.users());
+        System.out.printf("%d von %d Benutzern registriert%n", usernames.size(), options.users());
+        if (usernames.isEmpty()) {
+            throw new IllegalStateException("Keine Benutzer registriert - Lasttest abgebrochen");
+        }
+        Map<Action, EndpointStats.Snapshot> setup = snapshot(client);
+
+        long start = System.nanoTime();
+        long warmupEnd = start + options.warmup().toNanos();
+        long deadline = warmupEnd + options.duration().toNanos();
+        System.out.printf("Mix %s mit %d Lernenden: %d s Aufwärmen, %d s Messung%n", options.mixName(),
+                usernames.size(), options.warmup().toSeconds(), options.duration().toSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < usernames.size(); i++) {
+                executor.submit(new VirtualLearner(client, usernames.get(i), PASSWORD, options.mix(),
+                        options.think(), deadline, i));
+            }
+            sleepUntil(warmupEnd);
+            snapshot(client); // Aufwärmphase verwerfen
+            long measureStart = System.nanoTime();
+            sleepUntil(deadline);
+            Map<Action, EndpointStats.Snapshot> measured = snapshot(client);
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+            return report(options, setup.get(Action.REGISTER), measured, seconds, usernames.size());
+        }
+    }
+
+    /**
+     * Legt die Benutzer parallel an; Namen mit Laufkennung, damit auch wiederholte Läufe
+     * gegen dieselbe Instanz funktionieren
+     */
+    private static List<String> register(ApiClient client, int users) throws InterruptedException {
+        String run = Long.toString(System.currentTimeMillis() % 2_176_782_336L, 36);
+        List<String> registered = Collections.synchronizedList(new ArrayList<>());
+        Semaphore permits = new Semaphore(REGISTER_PARALLELISM);
+        AtomicInteger failures = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                String username = "lt" + run + "_" + i;
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        Map<String, Object> body = new LinkedHashMap<>();
+                        body.put("firstName", "Last");
+                        body.put("lastName", "Test");
+                        body.put("username", username);
+                        body.put("email", username + "@lasttest.local");
+                        body.put("password", PASSWORD);
+                        body.put("confirmPassword", PASSWORD);
+                        body.put("agbAccepted", true);
+                        if (client.post(Action.REGISTER, "/api/auth/register", null, body).ok()) {
+                            registered.add(username);
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (failures.get() > 0) {
+            System.err.printf("%d Registrierungen fehlgeschlagen%n", failures.get());
+        }
+        registered.sort(null);
+        return registered;
+    }
+
+    private static Map<Action, EndpointStats.Snapshot> snapshot(ApiClient client) {
+        Map<Action, EndpointStats.Snapshot> snapshots = new LinkedHashMap<>();
+        client.stats().forEach((action, stats) -> snapshots.put(action, stats.snapshot()));
+        return snapshots;
+    }
+
+    private static Map<String, Object> report(LoadTestOptions options, EndpointStats.Snapshot register,
+                               Map<Action, EndpointStats.Snapshot> measured, double seconds,
+                               int learners) throws IOException {
+        PrintStream out = System.out;
+        String header = String.format(Locale.ROOT, "%-34s %9s %8s %7s %9s %9s %9s %9s %9s",
+                "Endpunkt", "Anfragen", "Fehler", "Fehler%", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        out.println();
+        out.println(header);
+        out.println("-".repeat(header.length()));
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (EndpointStats.Snapshot snapshot : measured.values()) {
+            if (snapshot.requests() == 0) {
+                continue;
+            }
+            totalRequests += snapshot.requests();
+            totalErrors += snapshot.errors();
+            out.println(line(snapshot, seconds));
+            endpoints.put(snapshot.endpoint(), summary(snapshot, seconds));
+            writeHistogram(options.reportDir(), snapshot);
+        }
+        out.println("-".repeat(header.length()));
+        out.printf(Locale.ROOT, "%-34s %9d %8d %6.2f%% %9.1f%n", "Gesamt", totalRequests, totalErrors,
+                totalRequests == 0 ? 0 : 100.0 * totalErrors / totalRequests, totalRequests / seconds);
+        if (register != null && register.requests() > 0) {
+            out.println();
+            out.println("Vorbereitung: " + line(register, Double.NaN).trim());
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("mix", options.mixName());
+        summary.put("learners", learners);
+        summary.put("durationSeconds", Math.round(seconds * 10) / 10.0);
+        summary.put("thinkMillis", options.think().toMillis());
+        summary.put("appArgs", options.appArgs());
+        summary.put("requests", totalRequests);
+        summary.put("errors", totalErrors);
+        summary.put("throughput", Math.round(totalRequests / seconds * 10) / 10.0);
+        summary.put("endpoints", endpoints);
+        Path file = options.reportDir().resolve("summary.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary);
+        out.println();
+        out.println("Bericht: " + options.reportDir().toAbsolutePath());
+        return summary;
+    }
+
+    private static String line(EndpointStats.Snapshot s, double seconds) {
+        return String.format(Locale.ROOT, "%-34s %9d %8d %6.2f%% %9s %9.2f %9.2f %9.2f %9.2f",
+                s.endpoint(), s.requests(), s.errors(), 100 * s.errorRate(),
+                Double.isNaN(seconds) ? "-" : String.format(Locale.ROOT, "%.1f", s.requests() / seconds),
+                s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99), s.maxMillis());
+    }
+
+    private static Map<String, Object> summary(EndpointStats.Snapshot s, double seconds) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("requests", s.requests());
+        values.put("errors", s.errors());
+        values.put("errorRate", s.errorRate());
+        values.put("throughput", s.requests() / seconds);
+        values.put("p50", s.percentileMillis(50));
+        values.put("p95", s.percentileMillis(95));
+        values.put("p99", s.percentileMillis(99));
+        values.put("max", s.maxMillis());
+        return values;
+    }
+
+    /**
+     * Perzentilverteilung in Millisekunden, lesbar mit dem HdrHistogram-Plotter
+     */
+    private static void writeHistogram(Path dir, EndpointStats.Snapshot snapshot) throws IOException {
+        String name = snapshot.endpoint().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+        try (PrintStream file = new PrintStream(dir.resolve(name + ".hgrm").toFile(), "UTF-8")) {
+            snapshot.histogram().outputPercentileDistribution(file, 1_000.0);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.lernapp.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Einstellungen eines Lasttests, übergeben als key=value-Argumente
+ *
+ * baseUrl   vorhandene Instanz testen (sonst wird jar mit frischer H2-Datei gestartet)
+ * jar       ausführbares Boot-Jar der App
+ * port      Port der gestarteten App (Standard 18081)
+ * appArgs   zusätzliche Argumente für die App, durch Leerzeichen getrennt
+ * users     Anzahl registrierter Benutzer = gleichzeitige virtuelle Lernende (Standard 100)
+ * duration  Messdauer in Sekunden (Standard 60)
+ * warmup    Aufwärmzeit in Sekunden, wird nicht gewertet (Standard 10)
+ * think     Pause zwischen zwei Aktionen eines Lernenden in ms (Standard 100)
+ * mix       learner, examday oder eigene Gewichte, z.B. login=5,next=40,answer=40,exam=10,submit=5
+ * report    Verzeichnis für Histogramme und summary.json
+ * compare   true: nacheinander mit Plattform- und virtuellen Threads messen (nur mit jar)
+ */
+record LoadTestOptions(String baseUrl, Path jar, int port, List<String> appArgs, int users,
+                       Duration duration, Duration warmup, Duration think, TrafficMix mix,
+                       String mixName, Path reportDir, boolean compare) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Argument ohne key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        String baseUrl = blankToNull(values.get("baseUrl"));
+        String jar = blankToNull(values.get("jar"));
+        if (baseUrl == null && jar == null) {
+            throw new IllegalArgumentException("Entweder baseUrl oder jar angeben");
+        }
+        String appArgs = values.getOrDefault("appArgs", "").trim();
+        String mixName = values.getOrDefault("mix", "learner");
+        boolean compare = Boolean.parseBoolean(values.getOrDefault("compare", "false"));
+        if (compare && jar == null) {
+            throw new IllegalArgumentException("compare startet die App selbst und braucht jar");
+        }
+
+        return new LoadTestOptions(
+                baseUrl,
+                jar != null ? Path.of(jar) : null,
+                Integer.parseInt(values.getOrDefault("port", "18081")),
+                appArgs.isEmpty() ? List.of() : List.of(appArgs.split("\\s+")),
+                positive("users", Integer.parseInt(values.getOrDefault("users", "100"))),
+                Duration.ofSeconds(positive("duration", Integer.parseInt(values.getOrDefault("duration", "60")))),
+                Duration.ofSeconds(Integer.parseInt(values.getOrDefault("warmup", "10"))),
+                Duration.ofMillis(Integer.parseInt(values.getOrDefault("think", "100"))),
+                TrafficMix.parse(mixName),
+                mixName,
+                Path.of(values.getOrDefault("report", "build/reports/loadtest")),
+                compare);
+    }
+
+    /**
+     * Einzellauf eines Vergleichs: eigene App-Argumente und eigenes Berichtsverzeichnis
+     */
+    LoadTestOptions forMode(String mode, List<String> modeArgs) {
+        List<String> args = new ArrayList<>(appArgs);
+        args.addAll(modeArgs);
+        return new LoadTestOptions(null, jar, port, List.copyOf(args), users, duration, warmup, think,
+                mix, mixName, reportDir.resolve(mode), false);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " muss größer als 0 sein");
+        }
+        return value;
+    }
+}
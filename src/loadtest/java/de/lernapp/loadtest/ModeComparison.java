@@ -0,0 +1,94 @@
+package de.lernapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vergleich Plattform-Threads gegen virtuelle Threads bei gleicher Last
+ *
+ * Beide Läufe starten die App neu mit frischer Datenbank, gleicher Benutzerzahl, Mischung
+ * und Dauer; nur die Threading-Art unterscheidet sich (Profil "virtual"). Der Verbindungspool
+ * ist in beiden Fällen gleich begrenzt. Ausgegeben werden Durchsatz, p99 und Fehlerquote je
+ * Endpunkt; comparison.json im Berichtsverzeichnis enthält beide Zusammenfassungen.
+ *
+ * Aussagekräftig wird der Vergleich erst, wenn die Zahl gleichzeitiger Lernender die
+ * Tomcat-Threads (server.tomcat.threads.max) übersteigt, z.B. users=1000 think=0.
+ */
+final class ModeComparison {
+
+    private static final Map<String, List<String>> MODES = new LinkedHashMap<>();
+
+    static {
+        MODES.put("platform", List.of("--spring.threads.virtual.enabled=false"));
+        MODES.put("virtual", List.of("--spring.profiles.active=loadtest,virtual"));
+    }
+
+    private ModeComparison() {
+    }
+
+    static void run(LoadTestOptions options) throws Exception {
+        Map<String, Map<String, Object>> summaries = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> mode : MODES.entrySet()) {
+            System.out.printf("%n=== Modus %s ===%n", mode.getKey());
+            summaries.put(mode.getKey(), LoadTest.runWithNewApp(options.forMode(mode.getKey(), mode.getValue())));
+        }
+        print(summaries.get("platform"), summaries.get("virtual"));
+        write(options.reportDir().resolve("comparison.json"), summaries);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> platform, Map<String, Object> virtual) {
+        Map<String, Map<String, Object>> left = (Map<String, Map<String, Object>>) platform.get("endpoints");
+        Map<String, Map<String, Object>> right = (Map<String, Map<String, Object>>) virtual.get("endpoints");
+        Set<String> endpoints = new LinkedHashSet<>(left.keySet());
+        endpoints.addAll(right.keySet());
+
+        String header = String.format(Locale.ROOT, "%-34s %11s %11s %8s %10s %10s %9s %9s",
+                "Endpunkt", "req/s Platt", "req/s virt", "Δ", "p99 Platt", "p99 virt", "Fehl% P", "Fehl% V");
+        System.out.println();
+        System.out.println("Vergleich Plattform- / virtuelle Threads");
+        System.out.println(header);
+        System.out.println("-".repeat(header.length()));
+        for (String endpoint : endpoints) {
+            Map<String, Object> p = left.getOrDefault(endpoint, Map.of());
+            Map<String, Object> v = right.getOrDefault(endpoint, Map.of());
+            double pThroughput = number(p, "throughput");
+            double vThroughput = number(v, "throughput");
+            System.out.printf(Locale.ROOT, "%-34s %11.1f %11.1f %8s %10.2f %10.2f %8.2f%% %8.2f%%%n",
+                    endpoint, pThroughput, vThroughput, change(pThroughput, vThroughput),
+                    number(p, "p99"), number(v, "p99"),
+                    100 * number(p, "errorRate"), 100 * number(v, "errorRate"));
+        }
+        System.out.println("-".repeat(header.length()));
+        double pTotal = number(platform, "throughput");
+        double vTotal = number(virtual, "throughput");
+        System.out.printf(Locale.ROOT, "%-34s %11.1f %11.1f %8s%n", "Gesamt", pTotal, vTotal, change(pTotal, vTotal));
+    }
+
+    private static double number(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value instanceof Number n ? n.doubleValue() : 0.0;
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (after - before) * 100 / before);
+    }
+
+    private static void write(Path file, Map<String, Map<String, Object>> summaries) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summaries);
+        System.out.println();
+        System.out.println("Vergleich: " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,89 @@
+package de.lernapp.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Gewichtete Verteilung der Aktionen eines virtuellen Lernenden
+ *
+ * learner: normaler Lernbetrieb (fast nur nächste Frage und Antwort)
+ * examday: Prüfungswoche (viele Prüfungen und Abgaben, häufige Anmeldungen)
+ */
+final class TrafficMix {
+
+    private final Action[] actions;
+    private final double[] cumulative;
+
+    private TrafficMix(Map<Action, Integer> weights) {
+        this.actions = weights.keySet().toArray(new Action[0]);
+        this.cumulative = new double[actions.length];
+        double total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mischung ohne Gewichte");
+        }
+        double sum = 0;
+        for (int i = 0; i < actions.length; i++) {
+            sum += weights.get(actions[i]) / total;
+            cumulative[i] = sum;
+        }
+    }
+
+    static TrafficMix parse(String spec) {
+        return switch (spec) {
+            case "learner" -> parse("login=2,next=48,answer=46,exam=2,submit=2");
+            case "examday" -> parse("login=10,next=5,answer=5,exam=45,submit=35");
+            default -> {
+                Map<Action, Integer> weights = new EnumMap<>(Action.class);
+                for (String part : spec.split(",")) {
+                    String[] kv = part.trim().split("=");
+                    if (kv.length != 2) {
+                        throw new IllegalArgumentException("Ungültiger Mischungseintrag: " + part);
+                    }
+                    weights.put(Action.byKey(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+                }
+                yield new TrafficMix(weights);
+            }
+        };
+    }
+
+    Action next(RandomGenerator random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < actions.length; i++) {
+            if (r < cumulative[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    /**
+     * Aktionen des Lasttests und die zugehörigen Endpunkte
+     */
+    enum Action {
+        REGISTER("register", "POST /api/auth/register"),
+        LOGIN("login", "POST /api/auth/login"),
+        NEXT_QUESTION("next", "GET /api/learning/next-question"),
+        ANSWER("answer", "POST /api/learning/answer"),
+        EXAM_QUESTIONS("exam", "GET /api/exam/questions"),
+        EXAM_SUBMIT("submit", "POST /api/exam/submit");
+
+        final String key;
+        final String endpoint;
+
+        Action(String key, String endpoint) {
+            this.key = key;
+            this.endpoint = endpoint;
+        }
+
+        static Action byKey(String key) {
+            for (Action action : values()) {
+                if (action.key.equals(key) && action != REGISTER) {
+                    return action;
+                }
+            }
+            throw new IllegalArgumentException("Unbekannte Aktion: " + key
+                    + " (erlaubt: login, next, answer, exam, submit)");
+        }
+    }
+}
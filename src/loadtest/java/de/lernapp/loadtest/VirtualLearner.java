@@ -0,0 +1,142 @@
+package de.lernapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.lernapp.loadtest.TrafficMix.Action;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Ein simulierter Lernender mit eigenem Konto und Sitzungszustand
+ *
+ * Aktionen mit Voraussetzung werden ersetzt: "answer" ohne offene Frage holt zuerst eine
+ * Frage, "submit" ohne laufende Prüfung startet zuerst eine.
+ */
+final class VirtualLearner implements Runnable {
+
+    private static final String[] LETTERS = {"A", "B", "C", "D"};
+    private static final int EXAM_SIZE = 40;
+
+    private final ApiClient client;
+    private final String username;
+    private final String password;
+    private final TrafficMix mix;
+    private final Duration think;
+    private final long deadlineNanos;
+    private final SplittableRandom random;
+
+    private String token;
+    private Long openQuestionId;
+    private String examId;
+    private List<Long> examQuestionIds = List.of();
+    private long examStartedNanos;
+
+    VirtualLearner(ApiClient client, String username, String password, TrafficMix mix,
+                   Duration think, long deadlineNanos, long seed) {
+        this.client = client;
+        this.username = username;
+        this.password = password;
+        this.mix = mix;
+        this.think = think;
+        this.deadlineNanos = deadlineNanos;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void run() {
+        login();
+        while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+            Action action = mix.next(random);
+            if (token == null) {
+                action = Action.LOGIN;
+            } else if (action == Action.ANSWER && openQuestionId == null) {
+                action = Action.NEXT_QUESTION;
+            } else if (action == Action.EXAM_SUBMIT && examId == null) {
+                action = Action.EXAM_QUESTIONS;
+            }
+            switch (action) {
+                case LOGIN -> login();
+                case NEXT_QUESTION -> nextQuestion();
+                case ANSWER -> answer();
+                case EXAM_QUESTIONS -> examQuestions();
+                case EXAM_SUBMIT -> submitExam();
+                default -> throw new IllegalStateException("Aktion nicht im Mix vorgesehen: " + action);
+            }
+            pause();
+        }
+    }
+
+    private void login() {
+        ApiClient.Result result = client.post(Action.LOGIN, "/api/auth/login", null,
+                Map.of("username", username, "password", password));
+        if (result.ok() && result.body() != null && result.body().hasNonNull("token")) {
+            token = result.body().get("token").asText();
+        }
+    }
+
+    private void nextQuestion() {
+        ApiClient.Result result = client.get(Action.NEXT_QUESTION, "/api/learning/next-question", token);
+        openQuestionId = result.body() != null && result.body().hasNonNull("id")
+                ? result.body().get("id").asLong() : null;
+    }
+
+    private void answer() {
+        client.post(Action.ANSWER, "/api/learning/answer", token,
+                Map.of("questionId", openQuestionId, "answer", randomLetter()));
+        openQuestionId = null;
+    }
+
+    private void examQuestions() {
+        ApiClient.Result result = client.get(Action.EXAM_QUESTIONS, "/api/exam/questions?count=" + EXAM_SIZE, token);
+        List<Long> ids = new ArrayList<>(EXAM_SIZE);
+        if (result.body() != null && result.body().isArray()) {
+            for (JsonNode question : result.body()) {
+                if (question.hasNonNull("id")) {
+                    ids.add(question.get("id").asLong());
+                }
+            }
+        }
+        examId = result.response() != null
+                ? result.response().headers().firstValue("X-Exam-Id").orElse(null) : null;
+        examQuestionIds = ids;
+        examStartedNanos = System.nanoTime();
+    }
+
+    private void submitExam() {
+        List<Map<String, Object>> answers = new ArrayList<>(examQuestionIds.size());
+        for (Long questionId : examQuestionIds) {
+            Map<String, Object> answer = new LinkedHashMap<>();
+            answer.put("questionId", questionId);
+            answer.put("selectedAnswer", randomLetter());
+            answers.add(answer);
+        }
+        Map<String, Object> submission = new LinkedHashMap<>();
+        submission.put("examId", examId);
+        submission.put("answers", answers);
+        submission.put("timeSpent", (int) ((System.nanoTime() - examStartedNanos) / 1_000_000_000L));
+        client.post(Action.EXAM_SUBMIT, "/api/exam/submit", token, submission);
+        examId = null;
+        examQuestionIds = List.of();
+    }
+
+    private String randomLetter() {
+        return LETTERS[random.nextInt(LETTERS.length)];
+    }
+
+    private void pause() {
+        if (think.isZero()) {
+            return;
+        }
+        try {
+            // Streuung ±50 %, damit die Lernenden nicht im Gleichschritt anfragen
+            long millis = think.toMillis();
+            Thread.sleep(millis / 2 + random.nextLong(millis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
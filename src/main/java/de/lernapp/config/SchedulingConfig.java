@@ -0,0 +1,16 @@
+package de.lernapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert zeitgesteuerte Aufgaben (z.B. Flush des AnswerStatsBuffer) und @Async.
+ * Beide nutzen die Executoren von Spring Boot; mit spring.threads.virtual.enabled=true
+ * (Profil "virtual", Java 21) laufen sie auf virtuellen Threads.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {
+}
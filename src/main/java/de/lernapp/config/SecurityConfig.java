@@ -65,12 +65,18 @@ public class SecurityConfig {
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        // Metriken nur ausserhalb der Produktion ohne Token (lokaler Prometheus-Scraper)
+        String[] openActuator = environment.acceptsProfiles(Profiles.of("production", "prod"))
+            ? new String[] {"/actuator/health/**"}
+            : new String[] {"/actuator/health/**", "/actuator/prometheus"};
+        
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/health/**").permitAll()
+                .requestMatchers(openActuator).permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/api/test/**").permitAll()
 		.requestMatchers("/api/questions/**").permitAll()
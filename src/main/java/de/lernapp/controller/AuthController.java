@@ -262,8 +262,7 @@ public class AuthController {
                     .body("Altes Passwort ist falsch");
             }
             
-            // TODO: Implementiere Passwort-Update in UserService
-            // userService.updatePassword(username, newPassword);
+            userService.updatePassword(username, newPassword);
             
             return ResponseEntity.ok("Passwort erfolgreich geändert");
             
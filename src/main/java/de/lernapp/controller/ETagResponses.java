@@ -0,0 +1,34 @@
+package de.lernapp.controller;
+
+import de.lernapp.service.catalog.CatalogMetadataCache;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Antworten aus vorab serialisierten Einträgen mit ETag und 304 bei If-None-Match
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class ETagResponses {
+    
+    private ETagResponses() {
+    }
+    
+    public static ResponseEntity<byte[]> of(CatalogMetadataCache.Entry entry, WebRequest request) {
+        // no-cache: Clients dürfen speichern, fragen aber jedes Mal per If-None-Match nach
+        if (request.checkNotModified(entry.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(entry.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(entry.body());
+    }
+}
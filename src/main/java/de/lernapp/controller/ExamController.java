@@ -1,10 +1,15 @@
 package de.lernapp.controller;
 
+import de.lernapp.dto.QuestionDTO;
+import de.lernapp.model.ExamResult;
 import de.lernapp.model.Question;
 import de.lernapp.model.User;
+import de.lernapp.service.ExamGradingService;
+import de.lernapp.service.ExamSessionService;
 import de.lernapp.service.QuestionService;
 import de.lernapp.service.UserService;
 import de.lernapp.service.StrategyService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,10 +19,14 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @RestController
+@Slf4j
 @RequestMapping("/api/exam")
 @CrossOrigin(origins = "*")
 public class ExamController {
 
+    /** Höchstzahl Fragen je Prüfung (eine Sitzung fasst höchstens ExamSession.MAX_QUESTIONS) */
+    static final int MAX_EXAM_QUESTIONS = 200;
+
     @Autowired
     private QuestionService questionService;
 
@@ -27,15 +36,34 @@ public class ExamController {
     @Autowired
     private StrategyService strategyService;
 
+    @Autowired
+    private ExamGradingService examGradingService;
+
+    @Autowired
+    private ExamSessionService examSessionService;
+
     @GetMapping("/questions")
-    public ResponseEntity<List<Question>> getExamQuestions(
+    public ResponseEntity<List<QuestionDTO>> getExamQuestions(
             @RequestParam(defaultValue = "40") int count,
             @RequestParam(required = false) String categories,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) Integer maxDifficulty,
             Authentication authentication) {
         
+        count = Math.max(1, Math.min(count, MAX_EXAM_QUESTIONS));
         try {
             List<Question> questions;
             
+            // Prüfung zu bestimmten Tags: Schnittmenge der Tag-Listen, ohne Auffüllen
+            // (eine einzelne Kategorie schränkt die Auswahl zusätzlich ein)
+            if ((tags != null && !tags.isEmpty()) || maxDifficulty != null) {
+                String category = categories != null && !categories.isEmpty() && !categories.contains(",")
+                    ? categories : null;
+                questions = questionService.getRandomTaggedQuestions(count, tags, category, maxDifficulty, seed);
+                return withSession(questions, authentication);
+            }
+            
             // Prüfe ob 60%-Strategie aktiv ist
             if (authentication != null) {
                 String username = authentication.getName();
@@ -47,11 +75,11 @@ public class ExamController {
                     questions = strategyService.getStrategyQuestions(user, count);
                 } else {
                     // Normale zufällige Fragen
-                    questions = questionService.getRandomQuestions(count);
+                    questions = questionService.getRandomQuestions(count, null, null, seed);
                 }
             } else {
                 // Nicht eingeloggt - normale zufällige Fragen
-                questions = questionService.getRandomQuestions(count);
+                questions = questionService.getRandomQuestions(count, null, null, seed);
             }
             
             // Filter nach Kategorien wenn angegeben
@@ -62,74 +90,189 @@ public class ExamController {
                     .limit(count)
                     .collect(Collectors.toList());
                 
-                // Falls nicht genug Fragen in den Kategorien, fülle auf
+                // Falls nicht genug Fragen in den Kategorien, fülle mit noch nicht gewählten Fragen auf
                 if (questions.size() < count) {
-                    List<Question> additionalQuestions = questionService.getRandomQuestions(count - questions.size());
+                    Set<Long> chosenIds = questions.stream().map(Question::getId).collect(Collectors.toSet());
+                    List<Question> additionalQuestions = questionService.getRandomQuestionsExcluding(
+                        count - questions.size(), chosenIds, seed);
                     questions.addAll(additionalQuestions);
                 }
             }
             
-            return ResponseEntity.ok(questions);
+            return withSession(questions, authentication);
         } catch (Exception e) {
-            System.err.println("Error loading exam questions: " + e.getMessage());
-            // Fallback: Lade normale Fragen
-            return ResponseEntity.ok(questionService.getRandomQuestions(count));
+            log.warn("Fehler beim Laden der Prüfungsfragen, verwende Zufallsauswahl: {}", e.getMessage());
+            // Fallback: normale Fragen, für angemeldete Benutzer ebenfalls mit Sitzung (sonst scheitert /submit)
+            return withSession(questionService.getRandomQuestions(count, null, null, seed), authentication);
+        }
+    }
+
+    /**
+     * Startet für angemeldete Benutzer eine Prüfungssitzung; die Kennung kommt im Header X-Exam-Id.
+     * Ausgeliefert wird nur die QuestionDTO-Form - bewertet wird serverseitig bei der Abgabe.
+     */
+    private ResponseEntity<List<QuestionDTO>> withSession(List<Question> questions, Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.ok(toDtos(questions));
         }
+        long[] ids = questions.stream().mapToLong(Question::getId).toArray();
+        ExamSessionService.LiveSession session = examSessionService.start(authentication.getName(), ids);
+        return ResponseEntity.ok()
+            .header("X-Exam-Id", session.getId())
+            .header("Access-Control-Expose-Headers", "X-Exam-Id")
+            .body(toDtos(questions));
+    }
+    
+    private static List<QuestionDTO> toDtos(List<Question> questions) {
+        return questions.stream().map(QuestionDTO::fromQuestion).collect(Collectors.toList());
+    }
+
+    /**
+     * Stand einer laufenden Prüfung (zum Fortsetzen nach Reload oder Verbindungsabbruch)
+     */
+    @GetMapping("/sessions/{examId}")
+    public ResponseEntity<Map<String, Object>> getSession(
+            @PathVariable String examId,
+            Authentication authentication) {
+        
+        if (authentication == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return examSessionService.find(examId, authentication.getName())
+            .map(session -> {
+                Map<String, Object> state = new HashMap<>();
+                state.put("examId", session.getId());
+                state.put("questions", toDtos(questionService.getQuestionsByIds(session.getQuestionIds())));
+                state.put("answers", session.getAnswerLetters());
+                state.put("startedAt", session.getStartedAt());
+                state.put("elapsedSeconds", session.getElapsedSeconds());
+                state.put("remainingSeconds", session.getRemainingSeconds());
+                return ResponseEntity.ok(state);
+            })
+            .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Zwischenstand einer Antwort speichern
+     */
+    @PutMapping("/sessions/{examId}/answers")
+    public ResponseEntity<Void> saveAnswer(
+            @PathVariable String examId,
+            @RequestBody ExamAnswer answer,
+            Authentication authentication) {
+        
+        if (authentication == null || answer.getQuestionId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean saved = examSessionService.answer(
+            examId, authentication.getName(), answer.getQuestionId(), answer.getSelectedAnswer());
+        return saved ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Prüfung abgeben: Bewertung erfolgt serverseitig gegen den Antwortschlüssel des Katalogs.
+     * Angemeldete Benutzer brauchen eine laufende Sitzung (examId aus X-Exam-Id); bewertet werden
+     * alle Fragen der Sitzung, fehlende Antworten zählen als unbeantwortet. Ohne Anmeldung wird
+     * nur die übermittelte Auswahl bewertet und weder gespeichert noch mit XP verbucht.
+     */
     @PostMapping("/submit")
     public ResponseEntity<Map<String, Object>> submitExam(
             @RequestBody ExamSubmission submission,
             Authentication authentication) {
         
         Map<String, Object> response = new HashMap<>();
+        boolean recorded = false;
+        boolean authenticated = authentication != null && authentication.isAuthenticated();
+        Optional<ExamSessionService.LiveSession> session = Optional.empty();
+        if (authenticated) {
+            // Abgelaufene oder schon abgegebene Sitzungen werden abgewiesen, nicht ohne Sitzung bewertet
+            ExamSessionService.SessionLookup lookup =
+                examSessionService.claimForSubmit(submission.getExamId(), authentication.getName());
+            if (lookup.state() != ExamSessionService.SessionState.ACTIVE) {
+                response.put("success", false);
+                response.put("state", lookup.state().name());
+                switch (lookup.state()) {
+                    case EXPIRED -> response.put("message", "Die Bearbeitungszeit dieser Prüfung ist abgelaufen");
+                    case SUBMITTED -> response.put("message", "Diese Prüfung wurde bereits abgegeben");
+                    default -> response.put("message", "Keine laufende Prüfungssitzung zu dieser examId");
+                }
+                return lookup.state() == ExamSessionService.SessionState.UNKNOWN
+                    ? ResponseEntity.badRequest().body(response)
+                    : ResponseEntity.status(409).body(response);
+            }
+            session = Optional.of(lookup.session());
+        }
         
         try {
-            // Update user statistics if authenticated
-            if (authentication != null) {
+            List<ExamAnswer> answers = submission.getAnswers() != null ? submission.getAnswers() : List.of();
+            
+            List<ExamGradingService.SubmittedAnswer> submitted;
+            int timeSpent = submission.getTimeSpent();
+            if (session.isPresent()) {
+                // Letzte Antworten des Clients übernehmen, bewertet werden alle Fragen der Sitzung
+                ExamSessionService.LiveSession live = session.get();
+                examSessionService.applyAnswers(live,
+                    answers.stream().map(ExamAnswer::getQuestionId).collect(Collectors.toList()),
+                    answers.stream().map(ExamAnswer::getSelectedAnswer).collect(Collectors.toList()));
+                long[] ids = live.getQuestionIds();
+                List<String> letters = live.getAnswerLetters();
+                submitted = new ArrayList<>(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    submitted.add(new ExamGradingService.SubmittedAnswer(ids[i], letters.get(i)));
+                }
+                timeSpent = (int) Math.min(live.getElapsedSeconds(), live.getTimeLimitSeconds());
+            } else {
+                submitted = answers.stream()
+                    .map(a -> new ExamGradingService.SubmittedAnswer(a.getQuestionId(), a.getSelectedAnswer()))
+                    .collect(Collectors.toList());
+            }
+            
+            ExamGradingService.ExamGrade grade = examGradingService.grade(submitted);
+            
+            // Ergebnis speichern und Statistiken verbuchen - nur für bewertete Sitzungen
+            if (session.isPresent()) {
                 String username = authentication.getName();
-                Optional<User> userOpt = userService.findByUsername(username);
+                ExamSessionService.LiveSession live = session.get();
+                ExamResult result = examGradingService.record(username, live.getId(), timeSpent, grade);
+                recorded = true;
+                try {
+                    examSessionService.complete(live, result.getId());
+                } catch (RuntimeException e) {
+                    // Ergebnis ist gespeichert; die Sitzung bleibt reserviert, der Abschluss wird nachgeholt
+                    log.error("Prüfungssitzung {} konnte nicht abgeschlossen werden: {}", live.getId(), e.getMessage());
+                }
+                response.put("resultId", result.getId());
+                response.put("timeSpent", timeSpent);
                 
+                Optional<User> userOpt = userService.findByUsername(username);
                 if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    // Berechne korrekte Antworten
-                    int correctCount = 0;
-                    for (ExamAnswer answer : submission.getAnswers()) {
-                        if (answer.isCorrect()) {
-                            correctCount++;
-                        }
-                    }
-                    
-                    // Update Statistiken
-                    user.setTotalQuestionsAnswered(user.getTotalQuestionsAnswered() + submission.getAnswers().size());
-                    user.setCorrectAnswers(user.getCorrectAnswers() + correctCount);
-                    
-                    // XP berechnen (10 XP pro richtige Antwort + Bonus für hohe Punktzahl)
-                    int xpGained = correctCount * 10;
-                    if ((correctCount * 100 / submission.getAnswers().size()) >= 80) {
-                        xpGained += 50; // Bonus für >= 80%
-                    }
-                    if ((correctCount * 100 / submission.getAnswers().size()) >= 90) {
-                        xpGained += 50; // Zusätzlicher Bonus für >= 90%
-                    }
-                    
-                    user.setExperiencePoints(user.getExperiencePoints() + xpGained);
-                    
-                    // Level berechnen (alle 100 XP ein Level)
-                    user.setLevel(1 + (user.getExperiencePoints() / 100));
-                    
-                    userService.updateUser(user);
-                    
-                    response.put("xpGained", xpGained);
-                    response.put("newLevel", user.getLevel());
-                    response.put("totalXp", user.getExperiencePoints());
+                    // Gespeicherter Stand plus diese Prüfung (Statistiken werden gesammelt geschrieben)
+                    int totalXp = userOpt.get().getExperiencePoints() + grade.xpGained();
+                    response.put("newLevel", Math.max(userOpt.get().getLevel(), 1 + (totalXp / 100)));
+                    response.put("totalXp", totalXp);
                 }
             }
             
+            // Ohne Sitzung wird nichts verbucht, also auch keine XP
+            response.put("xpGained", session.isPresent() ? grade.xpGained() : 0);
+            response.put("totalQuestions", grade.totalQuestions());
+            response.put("correctAnswers", grade.correctAnswers());
+            response.put("unanswered", grade.unanswered());
+            response.put("scorePercent", Math.round(grade.scorePercent() * 10) / 10.0);
+            response.put("categoryScores", grade.categoryScores());
+            response.put("answers", grade.answers());
+            if (!grade.unknownQuestionIds().isEmpty()) {
+                response.put("unknownQuestionIds", grade.unknownQuestionIds());
+            }
             response.put("success", true);
             response.put("message", "Prüfung erfolgreich abgegeben");
             
         } catch (Exception e) {
+            // Sitzung nur freigeben, wenn noch nichts gespeichert wurde (sonst doppelte Wertung)
+            if (!recorded) {
+                session.ifPresent(examSessionService::release);
+            }
+            log.error("Fehler bei der Abgabe einer Prüfung: {}", e.getMessage());
             response.put("success", false);
             response.put("message", "Fehler beim Speichern der Prüfungsergebnisse");
         }
@@ -157,7 +300,7 @@ public class ExamController {
     public static class ExamAnswer {
         private Long questionId;
         private String selectedAnswer;
-        private boolean isCorrect;
+        private boolean isCorrect; // vom Client gemeldet, wird bei der Bewertung ignoriert
         
         // Getters and Setters
         public Long getQuestionId() { return questionId; }
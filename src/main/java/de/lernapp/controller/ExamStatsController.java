@@ -1,59 +1,49 @@
 package de.lernapp.controller;
 
+import de.lernapp.model.ExamUserStats;
+import de.lernapp.repository.ExamUserStatsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
-import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/exam")
 @CrossOrigin(origins = "*")
 public class ExamStatsController {
-    
+
     @Autowired
-    private JdbcTemplate jdbcTemplate;
-    
+    private ExamUserStatsRepository examUserStatsRepository;
+
+    /**
+     * Prüfungsstatistik aus der vorberechneten Zeile je Benutzer (ein Zugriff per Primärschlüssel)
+     */
     @GetMapping("/stats")
     public Map<String, Object> getExamStats(Authentication authentication) {
         Map<String, Object> stats = new HashMap<>();
-        
+
         try {
+            Optional<ExamUserStats> userStats = Optional.empty();
             if (authentication != null && authentication.isAuthenticated()) {
-                String username = authentication.getName();
-                
-                // Beste Leistung (Prozent der richtigen Antworten)
-                Integer bestScore = jdbcTemplate.queryForObject(
-                    "SELECT COALESCE(MAX((CAST(correct_answers AS DECIMAL) / NULLIF(total_questions, 0)) * 100), 0) " +
-                    "FROM learning_progress WHERE username = ?",
-                    Integer.class, username
-                );
-                
-                // Durchschnittliche Zeit basierend auf Anzahl der Fragen (geschätzt)
-                Integer avgTime = jdbcTemplate.queryForObject(
-                    "SELECT COALESCE(AVG(total_questions * 2), 0) " +
-                    "FROM learning_progress WHERE username = ? AND total_questions > 0",
-                    Integer.class, username
-                );
-                
-                // Anzahl der Lernsessions diesen Monat
-                Integer sessionsThisMonth = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM learning_progress " +
-                    "WHERE username = ? " +
-                    "AND EXTRACT(MONTH FROM last_updated) = EXTRACT(MONTH FROM CURRENT_DATE) " +
-                    "AND EXTRACT(YEAR FROM last_updated) = EXTRACT(YEAR FROM CURRENT_DATE)",
-                    Integer.class, username
-                );
-                
-                stats.put("bestScore", bestScore != null ? bestScore : 0);
-                stats.put("averageTime", avgTime != null ? avgTime : 0);
-                stats.put("examsThisMonth", sessionsThisMonth != null ? sessionsThisMonth : 0);
+                userStats = examUserStatsRepository.findById(authentication.getName());
+            }
+
+            if (userStats.isPresent()) {
+                ExamUserStats s = userStats.get();
+                stats.put("bestScore", (int) Math.round(s.getBestScore()));
+                stats.put("averageTime", s.averageMinutes());
+                stats.put("examsThisMonth", s.examsInMonthOf(LocalDateTime.now()));
+                stats.put("examsTotal", s.getExamsTotal());
             } else {
-                // Nicht authentifiziert - Standardwerte
+                // Nicht authentifiziert oder noch keine Prüfung - Standardwerte
                 stats.put("bestScore", 0);
                 stats.put("averageTime", 0);
                 stats.put("examsThisMonth", 0);
+                stats.put("examsTotal", 0);
             }
         } catch (Exception e) {
             // Bei Fehler Standardwerte zurückgeben
@@ -62,7 +52,7 @@ public class ExamStatsController {
             stats.put("averageTime", 0);
             stats.put("examsThisMonth", 0);
         }
-        
+
         return stats;
     }
 }
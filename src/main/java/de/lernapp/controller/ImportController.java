@@ -16,18 +16,39 @@ public class ImportController {
     private MassiveCsvImportService importService;
     
     @PostMapping("/csv")
-    public ResponseEntity<Map<String, String>> importAllCsvFiles() {
+    public ResponseEntity<Map<String, String>> importAllCsvFiles(
+            @RequestParam(defaultValue = "false") boolean async) {
         Map<String, String> response = new HashMap<>();
         
+        if (async) {
+            // Im Hintergrund starten; Fortschritt über GET /api/import/status
+            importService.importAllCsvFilesAsync();
+            response.put("status", "accepted");
+            response.put("message", "CSV import started, see /api/import/status");
+            return ResponseEntity.accepted().body(response);
+        }
+        
         try {
             importService.importAllCsvFiles();
             response.put("status", "success");
             response.put("message", "All CSV files imported successfully");
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(409).body(response);
         } catch (Exception e) {
             response.put("status", "error");
             response.put("message", "Error importing CSV files: " + e.getMessage());
             return ResponseEntity.status(500).body(response);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Fortschritt und Durchsatz (gesamt und je Datei) des laufenden bzw. letzten Imports
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getImportStatus() {
+        return ResponseEntity.ok(importService.getProgress().snapshot());
+    }
+}
@@ -4,21 +4,24 @@ import de.lernapp.dto.AnswerRequest;
 import de.lernapp.dto.AnswerResponse;
 import de.lernapp.dto.QuestionDTO;
 import de.lernapp.model.Question;
-import de.lernapp.model.User;
+import de.lernapp.service.AnswerStatsBuffer;
 import de.lernapp.service.QuestionService;
-import de.lernapp.service.UserService;
 import de.lernapp.service.ProgressService;
+import de.lernapp.service.SpacedRepetitionService;
+import de.lernapp.service.catalog.CatalogMetadataCache;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Learning Controller - DEVELOPMENT VERSION (CORS deaktiviert)
@@ -31,8 +34,11 @@ import java.util.stream.Collectors;
 public class LearningController {
 
     private final QuestionService questionService;
-    private final UserService userService;
     private final ProgressService progressService;
+    private final QuestionCatalogService catalogService;
+    private final AnswerStatsBuffer answerStatsBuffer;
+    private final SpacedRepetitionService spacedRepetitionService;
+    private final CatalogMetadataCache metadataCache;
 
     /**
      * CORS Headers manuell setzen für alle Requests
@@ -54,50 +60,37 @@ public class LearningController {
     }
 
     /**
-     * Get next question for learning mode
+     * Get next question for learning mode - angemeldet zuerst die am längsten überfällige Lernkarte
      */
     @GetMapping("/next-question")
     public ResponseEntity<QuestionDTO> getNextQuestion(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Integer difficulty,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) Integer maxDifficulty,
             Authentication auth,
             HttpServletResponse response) {
         
         setCorsHeaders(response);
-        log.info("🎯 Getting next question - category: {}, difficulty: {}", category, difficulty);
+        log.info("🎯 Getting next question - category: {}, difficulty: {}, tags: {}", category, difficulty, tags);
         
         try {
-            // Hole Frage basierend auf Kategorie und Schwierigkeit
+            // Hole zufällige Frage basierend auf Kategorie und Schwierigkeit ("all" = kein Filter)
+            String categoryFilter = (category != null && !category.isEmpty() && !category.equals("all"))
+                ? category : null;
+            boolean tagged = (tags != null && !tags.isEmpty()) || maxDifficulty != null;
             Question question = null;
-            
-            if (category != null && !category.isEmpty() && !category.equals("all")) {
-                // Wenn Kategorie angegeben, hole aus dieser Kategorie
-                List<Question> categoryQuestions = questionService.getQuestionsByCategory(category);
-                
-                if (!categoryQuestions.isEmpty()) {
-                    // Filter nach Schwierigkeit wenn angegeben
-                    if (difficulty != null) {
-                        categoryQuestions = categoryQuestions.stream()
-                            .filter(q -> q.getDifficulty().equals(difficulty))
-                            .toList();
-                    }
-                    
-                    if (!categoryQuestions.isEmpty()) {
-                        // Wähle zufällige Frage aus der gefilterten Liste
-                        int randomIndex = (int) (Math.random() * categoryQuestions.size());
-                        question = categoryQuestions.get(randomIndex);
-                    }
-                }
-            } else if (difficulty != null) {
-                // Nur Schwierigkeit angegeben
-                List<Question> difficultyQuestions = questionService.getQuestionsByDifficulty(difficulty);
-                if (!difficultyQuestions.isEmpty()) {
-                    int randomIndex = (int) (Math.random() * difficultyQuestions.size());
-                    question = difficultyQuestions.get(randomIndex);
-                }
-            } else {
-                // Keine Filter - hole zufällige Frage
-                question = questionService.getRandomQuestion();
+            if (tagged) {
+                // Tag-Auswahl über die Tag-Listen des Katalogs (ohne Ersatzfrage außerhalb der Tags)
+                question = questionService.getNextTaggedQuestion(tags, categoryFilter, maxDifficulty);
+            } else if (auth != null && auth.isAuthenticated()) {
+                question = spacedRepetitionService.nextDueQuestion(auth.getName(), categoryFilter, difficulty)
+                        .flatMap(questionService::getCatalogQuestion)
+                        .orElse(null);
+            }
+            if (question == null && !tagged) {
+                // Keine fällige Karte: neue bzw. zufällige Frage
+                question = questionService.getNextQuestion(null, categoryFilter, difficulty);
             }
             
             if (question == null) {
@@ -118,21 +111,21 @@ public class LearningController {
      * Get available categories - KOMPLETT ÖFFENTLICH
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCategories(HttpServletResponse response) {
+    public ResponseEntity<?> getCategories(HttpServletResponse response, WebRequest request) {
         setCorsHeaders(response);
-        log.info("🎯 Getting all categories");
+        log.debug("🎯 Getting all categories");
         
         try {
-            List<String> categories = questionService.getAllCategories();
-            log.info("✅ Found {} categories", categories.size());
+            CatalogMetadataCache.Entry categories = metadataCache.categories();
             
             // Fallback wenn keine Kategorien
-            if (categories.isEmpty()) {
-                categories = List.of("Netzplantechnik", "PowerShell", "Datenschutz", "IPv6");
+            if (categories.size() == 0) {
                 log.info("📝 Using fallback categories");
+                return ResponseEntity.ok(List.of("Netzplantechnik", "PowerShell", "Datenschutz", "IPv6"));
             }
             
-            return ResponseEntity.ok(categories);
+            // Aus dem Speicher, 304 bei unverändertem Katalog
+            return ETagResponses.of(categories, request);
             
         } catch (Exception e) {
             log.error("💥 Error getting categories", e);
@@ -143,7 +136,7 @@ public class LearningController {
     }
 
     /**
-     * Submit answer
+     * Submit answer - bewertet gegen den In-Memory-Katalog, Statistiken per Write-Behind
      */
     @PostMapping("/answer")
     public ResponseEntity<AnswerResponse> submitAnswer(
@@ -155,47 +148,29 @@ public class LearningController {
         log.info("🎯 Submitting answer for question: {}", request.getQuestionId());
         
         try {
-            Question question = questionService.findById(request.getQuestionId())
-                    .orElseThrow(() -> new RuntimeException("Question not found"));
+            Optional<CatalogQuestion> found = catalogService.current().findById(request.getQuestionId());
+            if (found.isEmpty()) {
+                log.warn("❌ Question not found: {}", request.getQuestionId());
+                return ResponseEntity.notFound().build();
+            }
+            CatalogQuestion question = found.get();
             
-            boolean isCorrect = question.getCorrectAnswer().equals(request.getAnswer());
+            boolean isCorrect = question.isCorrect(request.getAnswer());
+            // XP für richtige Antwort (Level: alle 100 XP = 1 Level, wird beim Flush berechnet)
+            int xpGained = question.points() > 0 ? question.points() : 10;
             
-            // Update user statistics if authenticated
-            if (auth != null && auth.isAuthenticated()) {
-                String username = auth.getName();
-                Optional<User> userOpt = userService.findByUsername(username);
-                
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    
-                    // Update statistics
-                    user.setTotalQuestionsAnswered(user.getTotalQuestionsAnswered() + 1);
-                    if (isCorrect) {
-                        user.setCorrectAnswers(user.getCorrectAnswers() + 1);
-                        user.setCurrentStreak(user.getCurrentStreak() + 1);
-                        if (user.getCurrentStreak() > user.getBestStreak()) {
-                            user.setBestStreak(user.getCurrentStreak());
-                        }
-                        // Add XP for correct answer
-                        int xpGained = question.getPoints() != null ? question.getPoints() : 10;
-                        user.setExperiencePoints(user.getExperiencePoints() + xpGained);
-                        // Update level (every 100 XP = 1 level)
-                        user.setLevel(1 + (user.getExperiencePoints() / 100));
-                    } else {
-                        user.setCurrentStreak(0); // Reset streak on wrong answer
-                    }
-                    
-                    // Save updated user
-                    userService.updateUser(user);
-                    log.info("✅ Updated statistics for user: {}", username);
-                }
+            // Statistiken nur puffern; geschrieben wird gesammelt im Hintergrund
+            String username = (auth != null && auth.isAuthenticated()) ? auth.getName() : null;
+            answerStatsBuffer.record(username, question.id(), isCorrect, xpGained);
+            if (username != null) {
+                spacedRepetitionService.review(username, question.id(), isCorrect);
             }
             
             AnswerResponse answerResponse = AnswerResponse.builder()
                     .correct(isCorrect)
-                    .correctAnswer(question.getCorrectAnswer())
-                    .explanation(question.getExplanation())
-                    .pointsEarned(isCorrect ? question.getPoints() : 0)
+                    .correctAnswer(question.correctAnswer())
+                    .explanation(question.explanation())
+                    .pointsEarned(isCorrect ? question.points() : 0)
                     .build();
             
             return ResponseEntity.ok(answerResponse);
@@ -1,5 +1,6 @@
 package de.lernapp.controller;
 
+import de.lernapp.dto.QuestionDTO;
 import de.lernapp.model.*;
 import de.lernapp.service.*;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * REST Controller für die 60%-Erfolgsstrategie
@@ -51,7 +53,11 @@ public class StrategyController {
      */
     @PostMapping("/deactivate")
     public ResponseEntity<?> deactivateStrategy(Authentication auth) {
-        // TODO: Implementierung
+        User user = userService.findByUsername(auth.getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        strategyService.deactivateStrategy(user);
+        
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Strategie deaktiviert");
@@ -73,11 +79,9 @@ public class StrategyController {
         List<Question> questions = strategyService.getStrategyQuestions(user, count);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("questions", questions);
-        response.put("strategy_active", true);
-        response.put("focus_categories", List.of(
-            "Projektmanagement", "PowerShell", "Netzwerktechnik", "OSI-Modell"
-        ));
+        response.put("questions", toDtos(questions));
+        response.put("strategy_active", strategyService.isStrategyActive(user));
+        response.put("focus_categories", strategyService.getFocusCategories(user));
         
         return ResponseEntity.ok(response);
     }
@@ -96,7 +100,7 @@ public class StrategyController {
         List<Question> quickWins = strategyService.getQuickWinQuestions(user, count);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("questions", quickWins);
+        response.put("questions", toDtos(quickWins));
         response.put("description", "Einfache Fragen für garantierte Punkte");
         response.put("estimated_points", quickWins.size() * 3);
         
@@ -142,17 +146,13 @@ public class StrategyController {
         User user = userService.findByUsername(auth.getName())
             .orElseThrow(() -> new RuntimeException("User not found"));
         
+        StrategyService.LearningRecommendation recommendation = strategyService.getRecommendation(user);
+        
         Map<String, Object> status = new HashMap<>();
-        status.put("strategy_active", true); // TODO: Aus DB laden
-        status.put("focus_areas", Map.of(
-            "Netzplantechnik", Map.of("priority", 1, "progress", 45),
-            "PowerShell", Map.of("priority", 1, "progress", 60),
-            "IPv6", Map.of("priority", 1, "progress", 20),
-            "OSI-Modell", Map.of("priority", 1, "progress", 70),
-            "CIA-Triad", Map.of("priority", 2, "progress", 80)
-        ));
-        status.put("estimated_success_rate", 62);
-        status.put("recommended_study_hours", 80);
+        status.put("strategy_active", strategyService.isStrategyActive(user));
+        status.put("focus_areas", strategyService.getFocusAreaProgress(user));
+        status.put("estimated_success_rate", (int) Math.round(recommendation.getCurrentSuccessRate()));
+        status.put("recommended_study_hours", recommendation.getEstimatedTimeToGoal());
         status.put("completed_study_hours", 12);
         
         return ResponseEntity.ok(status);
@@ -186,4 +186,8 @@ public class StrategyController {
         
         return ResponseEntity.ok(info);
     }
-}
\ No newline at end of file
+    
+    private static List<QuestionDTO> toDtos(List<Question> questions) {
+        return questions.stream().map(QuestionDTO::fromQuestion).collect(Collectors.toList());
+    }
+}
@@ -1,12 +1,26 @@
 package de.lernapp.controller.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.lernapp.controller.ETagResponses;
+import de.lernapp.dto.QuestionDTO;
+import de.lernapp.dto.QuestionPage;
 import de.lernapp.model.Question;
 import de.lernapp.service.QuestionService;
+import de.lernapp.service.catalog.CatalogJsonWriter;
+import de.lernapp.service.catalog.CatalogMetadataCache;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import de.lernapp.service.catalog.QuestionSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,15 +35,63 @@ import java.util.Map;
 @CrossOrigin(origins = "*") // Für Entwicklung - später einschränken!
 public class QuestionController {
     
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
     private final QuestionService questionService;
+    private final QuestionCatalogService catalogService;
+    private final CatalogMetadataCache metadataCache;
+    private final QuestionSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
     
     /**
-     * GET /api/questions - Hole alle Fragen
+     * GET /api/questions?after=...&limit=... - Hole alle Fragen (kompakt, gestreamt)
      */
     @GetMapping
-    public ResponseEntity<List<Question>> getAllQuestions() {
-        List<Question> questions = questionService.getAllQuestions();
-        return ResponseEntity.ok(questions);
+    public ResponseEntity<StreamingResponseBody> getAllQuestions(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return streamQuestions(null, null, after, limit);
+    }
+    
+    /**
+     * GET /api/questions/page?cursor=...&size=...&category=...&difficulty=...&active=... -
+     * Blättere seitenweise durch die Fragentabelle (Keyset, max. 200 je Seite)
+     */
+    @GetMapping("/page")
+    public ResponseEntity<QuestionPage> getQuestionPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer difficulty,
+            @RequestParam(required = false) Boolean active) {
+        return ResponseEntity.ok(questionService.getQuestionPage(cursor, category, difficulty, active, size));
+    }
+    
+    /**
+     * GET /api/questions/search?q=...&limit=20 - Volltextsuche (nach Relevanz sortiert;
+     * das letzte Wort zählt als Präfix)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchQuestions(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        QuestionCatalog catalog = catalogService.current();
+        List<QuestionSearchIndex.SearchHit> hits = searchIndex.search(query, Math.min(limit, MAX_SEARCH_RESULTS));
+        
+        List<Map<String, Object>> results = new ArrayList<>(hits.size());
+        for (QuestionSearchIndex.SearchHit hit : hits) {
+            catalog.findById(hit.questionId()).ifPresent(question -> results.add(Map.of(
+                "score", Math.round(hit.score() * 1000) / 1000.0,
+                "question", QuestionDTO.fromQuestion(question.toQuestion())
+            )));
+        }
+        return ResponseEntity.ok(Map.of(
+            "query", query,
+            "total", results.size(),
+            "results", results
+        ));
     }
     
     /**
@@ -77,45 +139,75 @@ public class QuestionController {
      * GET /api/questions/category/{category} - Hole Fragen nach Kategorie
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Question>> getQuestionsByCategory(@PathVariable String category) {
-        List<Question> questions = questionService.getQuestionsByCategory(category);
-        return ResponseEntity.ok(questions);
+    public ResponseEntity<StreamingResponseBody> getQuestionsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return streamQuestions(category, null, after, limit);
     }
     
     /**
      * GET /api/questions/difficulty/{difficulty} - Hole Fragen nach Schwierigkeitsgrad
      */
     @GetMapping("/difficulty/{difficulty}")
-    public ResponseEntity<List<Question>> getQuestionsByDifficulty(@PathVariable Integer difficulty) {
-        List<Question> questions = questionService.getQuestionsByDifficulty(difficulty);
-        return ResponseEntity.ok(questions);
+    public ResponseEntity<StreamingResponseBody> getQuestionsByDifficulty(
+            @PathVariable Integer difficulty,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return streamQuestions(null, difficulty, after, limit);
     }
     
     /**
-     * GET /api/questions/random?count=10 - Hole zufällige Fragen
+     * GET /api/questions/random?count=10&category=...&difficulty=...&seed=... - Hole zufällige Fragen
      */
     @GetMapping("/random")
-    public ResponseEntity<List<Question>> getRandomQuestions(@RequestParam(defaultValue = "10") int count) {
-        List<Question> questions = questionService.getRandomQuestions(count);
+    public ResponseEntity<List<Question>> getRandomQuestions(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer difficulty,
+            @RequestParam(required = false) Long seed) {
+        List<Question> questions = questionService.getRandomQuestions(count, category, difficulty, seed);
         return ResponseEntity.ok(questions);
     }
     
+    /**
+     * GET /api/questions/tagged?tags=scrum,agile&maxDifficulty=2&count=10 - Zufällige Fragen,
+     * die alle Tags tragen (optional je Kategorie und bis zur Höchstschwierigkeit)
+     */
+    @GetMapping("/tagged")
+    public ResponseEntity<List<QuestionDTO>> getTaggedQuestions(
+            @RequestParam List<String> tags,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer maxDifficulty,
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) Long seed) {
+        List<Question> questions = questionService.getRandomTaggedQuestions(
+            Math.max(0, count), tags, category, maxDifficulty, seed);
+        return ResponseEntity.ok(questions.stream().map(QuestionDTO::fromQuestion).toList());
+    }
+    
+    /**
+     * GET /api/questions/tags - Hole alle Tags mit Anzahl der Fragen
+     */
+    @GetMapping("/tags")
+    public ResponseEntity<byte[]> getTagsWithCount(WebRequest request) {
+        return ETagResponses.of(metadataCache.tagsWithCount(), request);
+    }
+    
     /**
      * GET /api/questions/categories - Hole alle verfügbaren Kategorien
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
-        List<String> categories = questionService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        return ETagResponses.of(metadataCache.categories(), request);
     }
     
     /**
      * GET /api/questions/categories-with-count - Hole alle Kategorien mit Anzahl der Fragen
      */
     @GetMapping("/categories-with-count")
-    public ResponseEntity<Map<String, Long>> getCategoriesWithCount() {
-        Map<String, Long> categoriesWithCount = questionService.getCategoriesWithCount();
-        return ResponseEntity.ok(categoriesWithCount);
+    public ResponseEntity<byte[]> getCategoriesWithCount(WebRequest request) {
+        return ETagResponses.of(metadataCache.categoriesWithCount(), request);
     }
     
     /**
@@ -135,4 +227,31 @@ public class QuestionController {
             "answer", answer
         ));
     }
+    
+    /**
+     * Streamt Fragen im QuestionDTO-Format aus dem In-Memory-Katalog.
+     * Mit limit wird seitenweise nach ID geblättert (Keyset); die ID für die nächste
+     * Seite steht im Header X-Next-Cursor und wird als after übergeben.
+     */
+    private ResponseEntity<StreamingResponseBody> streamQuestions(String category, Integer difficulty,
+                                                                  Long after, Integer limit) {
+        QuestionCatalog catalog = catalogService.current();
+        int[] positions = catalog.indices(category, difficulty);
+        int from = after != null ? catalog.seekAfter(positions, after) : 0;
+        int to = limit != null
+            ? (int) Math.min(positions.length, (long) from + Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+            : positions.length;
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (to < positions.length) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(catalog.get(positions[to - 1]).id()))
+                .header("Access-Control-Expose-Headers", NEXT_CURSOR_HEADER);
+        }
+        return response.body(out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            CatalogJsonWriter.writeArray(generator, catalog, positions, from, to);
+            generator.close();
+        });
+    }
 }
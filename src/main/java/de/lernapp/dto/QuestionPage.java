@@ -0,0 +1,17 @@
+package de.lernapp.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * DTO für eine Seite beim Blättern durch die Fragen (Keyset)
+ */
+@Data
+@Builder
+public class QuestionPage {
+    
+    private List<QuestionDTO> items;
+    private Long nextCursor; // als cursor für die nächste Seite übergeben; null auf der letzten Seite
+    private int size;
+}
@@ -0,0 +1,77 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version des Fragenbestands für Blue/Green-Importe
+ * 
+ * Ein Import schreibt seine Fragen unter einer neuen Version (STAGING), die für
+ * Leser unsichtbar bleibt. Erst nach erfolgreicher Prüfung wird sie in einem
+ * Schritt ACTIVE, die bisherige Version RETIRED und danach aufgeräumt.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    
+    public enum Status {
+        STAGING,  // Import läuft, für Leser unsichtbar
+        ACTIVE,   // Aktueller Fragenbestand
+        RETIRED,  // Abgelöst, Fragen werden entfernt
+        FAILED    // Import oder Prüfung fehlgeschlagen
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // dient zugleich als Versionsnummer (questions.catalog_version)
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.STAGING;
+    
+    @Column(length = 100)
+    private String source; // z.B. "CSV-Import"
+    
+    @Column(name = "question_count")
+    private Long questionCount = 0L;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "activated_at")
+    private LocalDateTime activatedAt;
+    
+    @Column(name = "retired_at")
+    private LocalDateTime retiredAt;
+    
+    public static CatalogVersion staging(String source) {
+        CatalogVersion version = new CatalogVersion();
+        version.setSource(source);
+        version.setStatus(Status.STAGING);
+        version.setCreatedAt(LocalDateTime.now());
+        return version;
+    }
+    
+    public void activate(long questionCount) {
+        this.status = Status.ACTIVE;
+        this.questionCount = questionCount;
+        this.activatedAt = LocalDateTime.now();
+    }
+    
+    public void retire() {
+        this.status = Status.RETIRED;
+        this.retiredAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lernstand eines Benutzers je Kategorie (Versuche / richtige Antworten)
+ * 
+ * Wird bei jeder Antwort inkrementell fortgeschrieben, damit Fortschritt und
+ * Empfehlungen ohne Auswertung einzelner Fragen berechnet werden können.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "user_category_stats",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_category", columnNames = {"username", "category"})
+    },
+    indexes = {
+        @Index(name = "idx_user_category_user", columnList = "username")
+    })
+@Data
+@NoArgsConstructor
+public class CategoryMastery {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    @Column(nullable = false)
+    private String category;
+    
+    @Column(nullable = false)
+    private long attempts;
+    
+    @Column(name = "correct_answers", nullable = false)
+    private long correctAnswers;
+    
+    @Column(name = "last_answered_at")
+    private LocalDateTime lastAnsweredAt;
+}
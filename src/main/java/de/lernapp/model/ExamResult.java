@@ -0,0 +1,76 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serverseitig bewertetes Ergebnis einer abgegebenen Prüfung
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "exam_results",
+    indexes = {
+        @Index(name = "idx_exam_result_user", columnList = "username, submitted_at")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamResult {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    @Column(name = "exam_id", length = 100)
+    private String examId; // vom Client vergebene Kennung, optional
+    
+    @Column(name = "total_questions", nullable = false)
+    private int totalQuestions;
+    
+    @Column(name = "correct_answers", nullable = false)
+    private int correctAnswers;
+    
+    @Column(name = "unanswered", nullable = false)
+    private int unanswered;
+    
+    @Column(name = "score_percent", nullable = false)
+    private double scorePercent;
+    
+    @Column(name = "xp_gained", nullable = false)
+    private int xpGained;
+    
+    @Column(name = "time_spent_seconds")
+    private int timeSpentSeconds;
+    
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+    
+    // Ergebnis je Kategorie
+    @ElementCollection
+    @CollectionTable(name = "exam_result_categories", joinColumns = @JoinColumn(name = "exam_result_id"))
+    private List<CategoryScore> categoryScores = new ArrayList<>();
+    
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryScore {
+        private String category;
+        private Integer total;
+        private Integer correct;
+        
+        public double getPercent() {
+            return total == null || total == 0 ? 0.0 : correct * 100.0 / total;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Persistierter Zustand einer Prüfungssitzung
+ * 
+ * Gezogene Fragen und Antworten liegen kompakt als Byte-Arrays vor: die IDs als
+ * gepackte long-Werte (8 Byte je Frage), die Antworten als ein Byte je Frage
+ * (0-3 für A-D, -1 = unbeantwortet). Aktive Sitzungen hält der ExamSessionService
+ * im Speicher; geschrieben wird beim Verdrängen, bei der Abgabe und beim Herunterfahren.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "exam_sessions",
+    indexes = {
+        @Index(name = "idx_exam_session_user", columnList = "username, status")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamSession {
+    
+    public enum Status {
+        ACTIVE,     // läuft (ggf. aus dem Speicher verdrängt)
+        SUBMITTED,  // abgegeben und bewertet
+        EXPIRED     // Zeitlimit überschritten, nicht abgegeben
+    }
+    
+    /** Höchstzahl Fragen je Sitzung: question_ids fasst 8000 Byte = 1000 IDs */
+    public static final int MAX_QUESTIONS = 1000;
+    
+    @Id
+    @Column(length = 36)
+    private String id; // UUID, wird dem Client als examId übergeben
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.ACTIVE;
+    
+    @Column(name = "question_ids", nullable = false, length = 8000)
+    private byte[] questionIds;
+    
+    @Column(name = "answers", nullable = false, length = 1000)
+    private byte[] answers;
+    
+    @Column(name = "time_limit_seconds", nullable = false)
+    private int timeLimitSeconds;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+    
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+    
+    @Column(name = "exam_result_id")
+    private Long examResultId;
+    
+    public static byte[] packIds(long[] ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.length * Long.BYTES);
+        for (long id : ids) {
+            buffer.putLong(id);
+        }
+        return buffer.array();
+    }
+    
+    public static long[] unpackIds(byte[] packed) {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        long[] ids = new long[packed.length / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return ids;
+    }
+}
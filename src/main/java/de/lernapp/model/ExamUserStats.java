@@ -0,0 +1,85 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Vorberechnete Prüfungsstatistik je Benutzer
+ * 
+ * Wird bei jeder bewerteten Prüfung fortgeschrieben, damit /api/exam/stats
+ * nur eine Zeile per Primärschlüssel liest statt die Ergebnisse auszuwerten.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "exam_user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamUserStats {
+    
+    @Id
+    @Column(length = 50)
+    private String username;
+    
+    @Column(name = "exams_total", nullable = false)
+    private int examsTotal;
+    
+    @Column(name = "best_score", nullable = false)
+    private double bestScore; // Prozent
+    
+    @Column(name = "total_time_seconds", nullable = false)
+    private long totalTimeSeconds;
+    
+    @Column(name = "month_key", nullable = false)
+    private int monthKey; // JJJJMM des Monats, auf den sich examsThisMonth bezieht
+    
+    @Column(name = "exams_this_month", nullable = false)
+    private int examsThisMonth;
+    
+    @Column(name = "last_exam_at")
+    private LocalDateTime lastExamAt;
+    
+    @Version
+    private Long version;
+    
+    public static int monthKey(LocalDateTime time) {
+        YearMonth month = YearMonth.from(time);
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+    
+    /**
+     * Übernimmt eine bewertete Prüfung
+     */
+    public void addExam(double scorePercent, int timeSpentSeconds, LocalDateTime submittedAt) {
+        int key = monthKey(submittedAt);
+        if (key != monthKey) {
+            monthKey = key;
+            examsThisMonth = 0;
+        }
+        examsThisMonth++;
+        examsTotal++;
+        bestScore = Math.max(bestScore, scorePercent);
+        totalTimeSeconds += Math.max(0, timeSpentSeconds);
+        lastExamAt = submittedAt;
+    }
+    
+    /**
+     * Anzahl Prüfungen im Monat des Zeitpunkts
+     */
+    public int examsInMonthOf(LocalDateTime time) {
+        return monthKey(time) == monthKey ? examsThisMonth : 0;
+    }
+    
+    /**
+     * Durchschnittliche Bearbeitungszeit in Minuten
+     */
+    public int averageMinutes() {
+        return examsTotal == 0 ? 0 : (int) Math.round(totalTimeSeconds / 60.0 / examsTotal);
+    }
+}
@@ -1,12 +1,19 @@
 package de.lernapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * 60%-Erfolgsstrategie Modell
@@ -39,10 +46,16 @@ public class LearningStrategy {
     private LocalDateTime activatedAt;
     
     // Prioritätsstufen für Kategorien
-    @ElementCollection
+    @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "strategy_priorities")
     private List<CategoryPriority> priorities = new ArrayList<>();
     
+    // Vorberechneter Index Kategorie (klein geschrieben) -> Priorität, bei Bedarf aufgebaut
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile Map<String, CategoryPriority> priorityIndex;
+    
     // Zeitmanagement-Einstellungen
     @Column(name = "phase1_minutes")
     private Integer phase1Minutes = 20; // Definitionen
@@ -100,18 +113,41 @@ public class LearningStrategy {
         this.active = true;
         this.activatedAt = LocalDateTime.now();
         if (this.priorities.isEmpty()) {
-            this.priorities = getDefaultPriorities();
+            setPriorities(getDefaultPriorities());
         }
     }
     
+    public void setPriorities(List<CategoryPriority> priorities) {
+        this.priorities = priorities;
+        this.priorityIndex = null;
+    }
+    
     public void deactivate() {
         this.active = false;
     }
     
     public CategoryPriority getPriorityForCategory(String category) {
-        return priorities.stream()
-            .filter(p -> p.getCategory().equalsIgnoreCase(category))
-            .findFirst()
-            .orElse(new CategoryPriority(category, 4, 0, 0, 0.5));
+        CategoryPriority priority = category != null ? getPriorityIndex().get(category.toLowerCase(Locale.ROOT)) : null;
+        return priority != null ? priority : new CategoryPriority(category, 4, 0, 0, 0.5);
+    }
+    
+    /**
+     * Index Kategorie -> Priorität ohne Beachtung der Groß-/Kleinschreibung;
+     * bei doppelten Kategorien gilt wie bisher der erste Eintrag
+     */
+    @JsonIgnore
+    public Map<String, CategoryPriority> getPriorityIndex() {
+        Map<String, CategoryPriority> index = priorityIndex;
+        if (index == null) {
+            index = new HashMap<>();
+            for (CategoryPriority priority : priorities) {
+                if (priority.getCategory() != null) {
+                    index.putIfAbsent(priority.getCategory().toLowerCase(Locale.ROOT), priority);
+                }
+            }
+            index = Collections.unmodifiableMap(index);
+            priorityIndex = index;
+        }
+        return index;
     }
 }
\ No newline at end of file
@@ -16,8 +16,10 @@ import java.time.LocalDateTime;
 @Table(name = "questions", 
     indexes = {
         @Index(name = "idx_category", columnList = "category"),
+        @Index(name = "idx_category_id", columnList = "category, id"),
         @Index(name = "idx_difficulty", columnList = "difficulty"),
-        @Index(name = "idx_active", columnList = "active")
+        @Index(name = "idx_active", columnList = "active"),
+        @Index(name = "idx_catalog_version", columnList = "catalog_version")
     })
 @Data
 @NoArgsConstructor
@@ -80,11 +82,14 @@ public class Question {
     @Column(nullable = false)
     private Boolean active = true; // Ob die Frage aktiv ist
     
-    // Statistik-Felder
-    @Column(name = "times_answered")
+    @Column(name = "catalog_version")
+    private Long catalogVersion; // Import-Version (siehe CatalogVersion), null = Altbestand
+    
+    // Statistik-Felder: nur relativ per QuestionStatsCounters fortgeschrieben, nie per JPA-Update
+    @Column(name = "times_answered", updatable = false)
     private Integer timesAnswered = 0;
     
-    @Column(name = "times_correct")
+    @Column(name = "times_correct", updatable = false)
     private Integer timesCorrect = 0;
     
     @Column(name = "created_at")
@@ -110,6 +115,7 @@ public class Question {
     
     /**
      * Berechnet die Erfolgsrate dieser Frage
+     * (Live-Wert, wenn die Zähler über QuestionStatsCounters.applyTo gesetzt wurden)
      */
     @Transient
     public Double getSuccessRate() {
@@ -0,0 +1,65 @@
+package de.lernapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lernkarte eines Benutzers für eine Frage (Spaced Repetition)
+ * 
+ * Kombiniert SM-2 (Wiederholungen, Leichtigkeitsfaktor, Intervall) mit der
+ * Leitner-Box (1-5) als gut lesbarem Lernstand.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Entity
+@Table(name = "review_cards",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_review_card_user_question", columnNames = {"username", "question_id"})
+    },
+    indexes = {
+        @Index(name = "idx_review_card_user", columnList = "username")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewCard {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    // Nur beim Import umgeschrieben (siehe ReviewCardRepository); Speichern aus dem Stapel überschreibt das nicht
+    @Column(name = "question_id", nullable = false, updatable = false)
+    private Long questionId;
+    
+    @Column(nullable = false)
+    private int box = 1; // Leitner-Box 1-5
+    
+    @Column(nullable = false)
+    private int repetitions; // SM-2: richtige Wiederholungen in Folge
+    
+    @Column(name = "ease_factor", nullable = false)
+    private double easeFactor = 2.5; // SM-2: Leichtigkeitsfaktor (min. 1.3)
+    
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+    
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+    
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "correct_attempts", nullable = false)
+    private int correctAttempts;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.Set;
@@ -14,8 +15,12 @@ import java.util.HashSet;
 /**
  * User Entity für die Lernapp
  * Verwaltet Benutzerkonten und deren Authentifizierung
+ * 
+ * DynamicUpdate: Speichern schreibt nur geänderte Spalten, damit z.B. ein Login
+ * die vom AnswerStatsBuffer relativ fortgeschriebenen Zähler nicht überschreibt.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,149 @@
+package de.lernapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schreibt gesammelte Antwort-Statistiken per JDBC-Batch zurück.
+ *
+ * Alle Updates sind relativ (spalte = spalte + ?), damit sich parallele Flushes
+ * und andere Schreiber nicht gegenseitig überschreiben. Streaks werden aus den
+ * gesammelten Läufen berechnet, ohne den Benutzer vorher zu laden.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnswerStatsWriter {
+
+    // Parameter: answered, correct, reset, trailing, leading, leading, maxInner,
+    //            xp, xp, now, username
+    static final String USER_UPDATE_SQL =
+        "UPDATE users SET " +
+        "total_questions_answered = total_questions_answered + ?, " +
+        "correct_answers = correct_answers + ?, " +
+        "current_streak = CASE WHEN ? THEN ? ELSE current_streak + ? END, " +
+        "best_streak = GREATEST(best_streak, current_streak + ?, ?), " +
+        "experience_points = experience_points + ?, " +
+        "level = GREATEST(level, 1 + (experience_points + ?) / 100), " +
+        "updated_at = ? " +
+        "WHERE username = ?";
+
+    static final String QUESTION_UPDATE_SQL =
+        "UPDATE questions SET " +
+        "times_answered = COALESCE(times_answered, 0) + ?, " +
+        "times_correct = COALESCE(times_correct, 0) + ? " +
+        "WHERE id = ?";
+
+    static final String CATEGORY_UPDATE_SQL =
+        "UPDATE user_category_stats SET " +
+        "attempts = attempts + ?, " +
+        "correct_answers = correct_answers + ?, " +
+        "last_answered_at = ? " +
+        "WHERE username = ? AND category = ?";
+
+    static final String CATEGORY_INSERT_SQL =
+        "INSERT INTO user_category_stats (username, category, attempts, correct_answers, last_answered_at) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Gesammelte Änderungen eines Benutzers
+     *
+     * @param leading  richtige Antworten vor der ersten falschen (verlängern den bisherigen Streak)
+     * @param reset    ob mindestens eine falsche Antwort dabei war
+     * @param trailing richtige Antworten nach der letzten falschen (neuer Streak bei reset)
+     * @param maxInner längster Lauf nach der ersten falschen Antwort
+     */
+    public record UserRow(String username, int answered, int correct, int experience,
+                          int leading, boolean reset, int trailing, int maxInner) {
+    }
+
+    /**
+     * Gesammelte Änderungen einer Frage
+     */
+    public record QuestionRow(long questionId, long answered, long correct) {
+    }
+
+    /**
+     * Gesammelte Änderungen eines Benutzers in einer Kategorie
+     */
+    public record CategoryRow(String username, String category, long attempts, long correct) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updateUsers(List<UserRow> rows, int batchSize) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(USER_UPDATE_SQL, rows, batchSize, (ps, row) -> {
+            ps.setInt(1, row.answered());
+            ps.setInt(2, row.correct());
+            ps.setBoolean(3, row.reset());
+            ps.setInt(4, row.trailing());
+            ps.setInt(5, row.leading());
+            ps.setInt(6, row.leading());
+            ps.setInt(7, row.maxInner());
+            ps.setInt(8, row.experience());
+            ps.setInt(9, row.experience());
+            ps.setTimestamp(10, now);
+            ps.setString(11, row.username());
+        });
+    }
+
+    public void updateQuestions(List<QuestionRow> rows, int batchSize) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(QUESTION_UPDATE_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.answered());
+            ps.setLong(2, row.correct());
+            ps.setLong(3, row.questionId());
+        });
+    }
+
+    /**
+     * Schreibt Kategorie-Deltas relativ fort; fehlende Zeilen werden danach angelegt
+     */
+    public void upsertCategories(List<CategoryRow> rows, int batchSize) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] updated = jdbcTemplate.batchUpdate(CATEGORY_UPDATE_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.attempts());
+            ps.setLong(2, row.correct());
+            ps.setTimestamp(3, now);
+            ps.setString(4, row.username());
+            ps.setString(5, row.category());
+        });
+
+        List<CategoryRow> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(rows.get(index));
+                }
+                index++;
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(CATEGORY_INSERT_SQL, missing, batchSize, (ps, row) -> {
+            ps.setString(1, row.username());
+            ps.setString(2, row.category());
+            ps.setLong(3, row.attempts());
+            ps.setLong(4, row.correct());
+            ps.setTimestamp(5, now);
+        });
+    }
+}
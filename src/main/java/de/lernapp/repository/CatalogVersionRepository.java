@@ -0,0 +1,20 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.CatalogVersion;
+import de.lernapp.model.CatalogVersion.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository für Versionen des Fragenbestands
+ */
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+    
+    Optional<CatalogVersion> findFirstByStatusOrderByIdDesc(Status status);
+    
+    List<CatalogVersion> findByStatus(Status status);
+}
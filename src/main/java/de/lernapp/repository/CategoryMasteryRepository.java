@@ -0,0 +1,16 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.CategoryMastery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository für den Lernstand je Benutzer und Kategorie
+ */
+@Repository
+public interface CategoryMasteryRepository extends JpaRepository<CategoryMastery, Long> {
+    
+    List<CategoryMastery> findByUsername(String username);
+}
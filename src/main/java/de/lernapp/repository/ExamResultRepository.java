@@ -0,0 +1,16 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.ExamResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository für bewertete Prüfungen
+ */
+@Repository
+public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
+    
+    List<ExamResult> findTop20ByUsernameOrderBySubmittedAtDesc(String username);
+}
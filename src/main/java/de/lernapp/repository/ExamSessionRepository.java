@@ -0,0 +1,38 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.ExamSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository für Prüfungssitzungen
+ */
+@Repository
+public interface ExamSessionRepository extends JpaRepository<ExamSession, String> {
+    
+    Optional<ExamSession> findByIdAndUsername(String id, String username);
+    
+    // Aktualisiert Status und Antworten einer verdrängten Sitzung; abgegebene Sitzungen bleiben unverändert
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExamSession s SET s.status = :status, s.answers = :answers, s.lastActivityAt = :lastActivityAt " +
+           "WHERE s.id = :id AND s.status <> :submitted")
+    int updateUnlessSubmitted(@Param("id") String id,
+                              @Param("status") ExamSession.Status status,
+                              @Param("answers") byte[] answers,
+                              @Param("lastActivityAt") LocalDateTime lastActivityAt,
+                              @Param("submitted") ExamSession.Status submitted);
+    
+    // Entfernt alle vor dem Stichtag begonnenen Sitzungen (abgegeben, abgelaufen oder nie fortgesetzt)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExamSession s WHERE s.startedAt < :cutoff")
+    int deleteStartedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
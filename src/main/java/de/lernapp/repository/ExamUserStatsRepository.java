@@ -0,0 +1,12 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.ExamUserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository für vorberechnete Prüfungsstatistiken
+ */
+@Repository
+public interface ExamUserStatsRepository extends JpaRepository<ExamUserStats, String> {
+}
@@ -0,0 +1,16 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.LearningStrategy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository für die Lernstrategien der Benutzer
+ */
+@Repository
+public interface LearningStrategyRepository extends JpaRepository<LearningStrategy, Long> {
+    
+    Optional<LearningStrategy> findFirstByUserIdOrderByIdDesc(Long userId);
+}
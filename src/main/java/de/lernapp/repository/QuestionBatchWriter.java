@@ -0,0 +1,111 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.Question;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Schreibt Fragen per JDBC-Batch in die Tabelle questions.
+ * 
+ * Question nutzt GenerationType.IDENTITY, womit Hibernate kein Insert-Batching
+ * betreiben kann (ein Round Trip pro Zeile). Für Massenimporte wird daher direkt
+ * über JdbcTemplate.batchUpdate geschrieben; die IDs vergibt weiterhin die Datenbank.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Repository
+@RequiredArgsConstructor
+public class QuestionBatchWriter {
+    
+    public static final String INSERT_SQL =
+        "INSERT INTO questions (question_text, option_a, option_b, option_c, option_d, correct_answer, " +
+        "category, topic, subtopic, difficulty, explanation, tags, tips, correction, source, points, active, " +
+        "times_answered, times_correct, created_at, updated_at, catalog_version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Fügt alle Fragen in JDBC-Batches der Standardgröße ein
+     * 
+     * @return Anzahl eingefügter Zeilen
+     */
+    public int insertAll(List<Question> questions) {
+        return insertAll(questions, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Fügt alle Fragen in JDBC-Batches der angegebenen Größe ein
+     * 
+     * @return Anzahl eingefügter Zeilen laut Updatezählern des Treibers; SUCCESS_NO_INFO
+     *         (z.B. PostgreSQL mit reWriteBatchedInserts) zählt als eine Zeile
+     */
+    public int insertAll(List<Question> questions, int batchSize) {
+        if (questions.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, questions, batchSize, (ps, question) -> bind(ps, question, now));
+        return insertedRows(counts);
+    }
+    
+    static int insertedRows(int[][] counts) {
+        int rows = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    rows++;
+                } else if (count > 0) {
+                    rows += count;
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Setzt die Parameter einer Zeile; entspricht den Defaults aus Question.onCreate()
+     */
+    public static void bind(PreparedStatement ps, Question question, Timestamp now) throws SQLException {
+        int difficulty = question.getDifficulty() != null ? question.getDifficulty() : 1;
+        int points = question.getPoints() != null ? question.getPoints() : difficulty * 10;
+        
+        ps.setString(1, question.getQuestionText());
+        ps.setString(2, question.getOptionA());
+        ps.setString(3, question.getOptionB());
+        ps.setString(4, question.getOptionC());
+        ps.setString(5, question.getOptionD());
+        ps.setString(6, question.getCorrectAnswer());
+        ps.setString(7, question.getCategory());
+        ps.setString(8, question.getTopic());
+        ps.setString(9, question.getSubtopic());
+        ps.setInt(10, difficulty);
+        ps.setString(11, question.getExplanation());
+        ps.setString(12, question.getTags());
+        ps.setString(13, question.getTips());
+        ps.setString(14, question.getCorrection());
+        ps.setString(15, question.getSource());
+        ps.setInt(16, points);
+        ps.setBoolean(17, !Boolean.FALSE.equals(question.getActive()));
+        ps.setInt(18, question.getTimesAnswered() != null ? question.getTimesAnswered() : 0);
+        ps.setInt(19, question.getTimesCorrect() != null ? question.getTimesCorrect() : 0);
+        ps.setTimestamp(20, now);
+        ps.setTimestamp(21, now);
+        if (question.getCatalogVersion() != null) {
+            ps.setLong(22, question.getCatalogVersion());
+        } else {
+            ps.setNull(22, Types.BIGINT);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.Question;
+
+import java.util.List;
+
+/**
+ * Keyset-Blättern durch die Fragentabelle (Fragment von QuestionRepository)
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public interface QuestionPageQueries {
+    
+    /**
+     * Fragen mit ID größer cursor, aufsteigend nach ID, höchstens limit Zeilen.
+     * Es zählt nur die angegebene Katalogversion (null = Altbestand ohne Version);
+     * category, difficulty und active filtern nur, wenn gesetzt.
+     */
+    List<Question> findPageAfter(long cursor, Long catalogVersion, String category,
+                                 Integer difficulty, Boolean active, int limit);
+}
@@ -0,0 +1,56 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.Question;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Baut je Filterkombination eine eigene Abfrage ohne "(:x IS NULL OR ...)"-Platzhalter.
+ * So sieht der Planer nur echte Bedingungen und kann z.B. bei gesetzter Kategorie den
+ * (category, id)-Index nutzen - auch mit generischen Plänen vorbereiteter Statements.
+ * Je Kombination entsteht immer derselbe SQL-Text, der Statement-Cache greift weiter.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public class QuestionPageQueriesImpl implements QuestionPageQueries {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Question> findPageAfter(long cursor, Long catalogVersion, String category,
+                                        Integer difficulty, Boolean active, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT q FROM Question q WHERE q.id > :cursor");
+        jpql.append(catalogVersion != null ? " AND q.catalogVersion = :version" : " AND q.catalogVersion IS NULL");
+        if (category != null) {
+            jpql.append(" AND q.category = :category");
+        }
+        if (difficulty != null) {
+            jpql.append(" AND q.difficulty = :difficulty");
+        }
+        if (active != null) {
+            jpql.append(" AND q.active = :active");
+        }
+        jpql.append(" ORDER BY q.id");
+        
+        TypedQuery<Question> query = entityManager.createQuery(jpql.toString(), Question.class)
+            .setParameter("cursor", cursor)
+            .setMaxResults(limit);
+        if (catalogVersion != null) {
+            query.setParameter("version", catalogVersion);
+        }
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (difficulty != null) {
+            query.setParameter("difficulty", difficulty);
+        }
+        if (active != null) {
+            query.setParameter("active", active);
+        }
+        return query.getResultList();
+    }
+}
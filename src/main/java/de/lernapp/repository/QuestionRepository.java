@@ -2,6 +2,7 @@ package de.lernapp.repository;
 
 import de.lernapp.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +15,7 @@ import java.util.List;
  * Erstellt von Hans Hahn - Alle Rechte vorbehalten
  */
 @Repository
-public interface QuestionRepository extends JpaRepository<Question, Long> {
+public interface QuestionRepository extends JpaRepository<Question, Long>, QuestionPageQueries {
     
     // Finde Fragen nach Kategorie
     List<Question> findByCategory(String category);
@@ -25,10 +26,6 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     // Finde Fragen nach Kategorie und Schwierigkeitsgrad
     List<Question> findByCategoryAndDifficulty(String category, Integer difficulty);
     
-    // Hole zufällige Fragen für einen Test
-    @Query(value = "SELECT * FROM questions ORDER BY RANDOM() LIMIT :limit", nativeQuery = true)
-    List<Question> findRandomQuestions(@Param("limit") int limit);
-    
     // Hole alle unterschiedlichen Kategorien
     @Query("SELECT DISTINCT q.category FROM Question q")
     List<String> findAllCategories();
@@ -39,4 +36,22 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     
     // Zähle Fragen nach Schwierigkeit
     long countByDifficulty(Integer difficulty);
+    
+    // Fragen einer Version des Fragenbestands (Blue/Green-Import)
+    List<Question> findByCatalogVersion(Long catalogVersion);
+    
+    // Altbestand ohne Version (gilt, solange noch keine Version aktiv ist; ohne gestagte Zeilen)
+    List<Question> findByCatalogVersionIsNull();
+    
+    long countByCatalogVersion(Long catalogVersion);
+    
+    // Entfernt alle Fragen außer denen der angegebenen Version
+    @Modifying
+    @Query("DELETE FROM Question q WHERE q.catalogVersion IS NULL OR q.catalogVersion <> :version")
+    int deleteAllExceptCatalogVersion(@Param("version") Long version);
+    
+    // Entfernt alle Fragen einer Version
+    @Modifying
+    @Query("DELETE FROM Question q WHERE q.catalogVersion = :version")
+    int deleteAllByCatalogVersion(@Param("version") Long version);
 }
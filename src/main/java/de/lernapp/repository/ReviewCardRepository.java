@@ -0,0 +1,42 @@
+package de.lernapp.repository;
+
+import de.lernapp.model.ReviewCard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository für Lernkarten (Spaced Repetition)
+ */
+@Repository
+public interface ReviewCardRepository extends JpaRepository<ReviewCard, Long> {
+    
+    List<ReviewCard> findByUsername(String username);
+    
+    // Ordnet Karten den Fragen gleichen Texts und gleicher Kategorie in der angegebenen Version zu
+    // (ein Import vergibt neue IDs); Karten, deren Ziel der Benutzer schon hat, bleiben unverändert
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE review_cards SET question_id = (
+                SELECT MIN(n.id) FROM questions o JOIN questions n
+                    ON n.question_text = o.question_text AND n.category = o.category
+                WHERE o.id = review_cards.question_id AND n.catalog_version = :version)
+            WHERE question_id NOT IN (SELECT id FROM questions WHERE catalog_version = :version)
+              AND EXISTS (
+                SELECT 1 FROM questions o JOIN questions n
+                    ON n.question_text = o.question_text AND n.category = o.category
+                WHERE o.id = review_cards.question_id AND n.catalog_version = :version)
+              AND NOT EXISTS (
+                SELECT 1 FROM review_cards d JOIN questions n ON n.id = d.question_id
+                    JOIN questions o ON o.question_text = n.question_text AND o.category = n.category
+                WHERE d.username = review_cards.username AND o.id = review_cards.question_id
+                  AND n.catalog_version = :version)
+            """, nativeQuery = true)
+    int remapToCatalogVersion(@Param("version") Long version);
+}
@@ -1,14 +1,18 @@
 package de.lernapp.security;
 
 import de.lernapp.service.JwtService;
+import io.jsonwebtoken.Claims;
 import de.lernapp.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,18 +21,43 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Authentication Filter
+ * 
+ * Die Dauer der Token-Prüfung wird als lernapp.jwt.validation{result=valid|invalid} gemessen.
  */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
     private final JwtService jwtService;
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+    
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserService userService,
+                                   PrincipalCache principalCache,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.principalCache = principalCache;
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.validTimer = Timer.builder("lernapp.jwt.validation")
+            .description("Signatur- und Ablaufprüfung eines JWT")
+            .tag("result", "valid")
+            .register(registry);
+        this.invalidTimer = Timer.builder("lernapp.jwt.validation")
+            .description("Signatur- und Ablaufprüfung eines JWT")
+            .tag("result", "invalid")
+            .register(registry);
+    }
     
     @Override
     protected void doFilterInternal(
@@ -57,17 +86,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         try {
-            // Extrahiere JWT Token
+            // Extrahiere und validiere JWT Token (eine Signaturprüfung)
             jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
+            long start = System.nanoTime();
+            Optional<Claims> claims = jwtService.parseValidToken(jwt);
+            (claims.isPresent() ? validTimer : invalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             
-            // Prüfe ob User nicht bereits authentifiziert
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (claims.isEmpty()) {
+                logger.warn("Ungültiges oder abgelaufenes JWT Token");
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Prüfe ob User nicht bereits authentifiziert
+                username = claims.get().getSubject();
+                String tokenId = jwtService.extractTokenId(claims.get());
                 
-                UserDetails userDetails = userService.loadUserByUsername(username);
+                // Principal aus dem Cache, nur bei Cache-Miss aus der Datenbank
+                UserDetails userDetails = principalCache.get(username, tokenId,
+                    () -> userService.loadUserByUsername(username));
                 
-                // Validiere Token
-                if (jwtService.validateToken(jwt, userDetails)) {
+                if (userDetails.isEnabled()) {
                     
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -82,7 +118,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     logger.debug("User {} erfolgreich authentifiziert", username);
                 } else {
-                    logger.warn("Ungültiges JWT Token für User: {}", username);
+                    logger.warn("Deaktivierter User mit gültigem Token: {}", username);
                 }
             }
             
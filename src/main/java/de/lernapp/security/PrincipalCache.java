@@ -0,0 +1,219 @@
+package de.lernapp.security;
+
+import de.lernapp.service.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Begrenzter Cache für aufgelöste Principals (UserDetails) des JWT-Filters.
+ * 
+ * Einträge liegen je Benutzer (Schlüssel Token-ID) in einer nebenläufigen Map, verfallen
+ * nach einer festen TTL und werden bei Überschreiten der Maximalgröße benutzerweise nach
+ * letztem Zugriff verdrängt. Änderungen an Rollen, Aktiv-Status oder Passwort eines Users
+ * entfernen seinen Eintragssatz in einem Schritt, ohne den übrigen Cache zu durchsuchen.
+ * Treffer und Fehlgriffe laufen als lernapp.cache.requests{cache=principal} mit.
+ */
+@Component
+public class PrincipalCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+    
+    private final long ttlMillis;
+    private final int maxEntries;
+    
+    private final ConcurrentHashMap<String, UserEntries> users = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final CacheStats cacheStats;
+    
+    public PrincipalCache(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.cacheStats = CacheStats.register(registry, "principal");
+        Gauge.builder("lernapp.cache.size", this, PrincipalCache::size)
+            .description("Einträge im Cache")
+            .tag("cache", "principal")
+            .register(registry);
+    }
+    
+    /**
+     * Einträge eines Users, alle Zugriffe unter dem Monitor des Objekts. Ein invalidierter
+     * Satz ist bereits aus der Map entfernt; ein Ladevorgang, der ihn noch hält, legt sein
+     * (womöglich veraltetes) Ergebnis nicht mehr ab.
+     */
+    private static final class UserEntries {
+        final Map<String, Entry> tokens = new HashMap<>();
+        volatile long lastAccess = System.currentTimeMillis();
+        boolean invalidated;
+    }
+    
+    /**
+     * Liefert den gecachten Principal oder lädt ihn über den Loader (z.B. aus der DB)
+     */
+    public UserDetails get(String username, String tokenId, Supplier<UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        UserEntries user = users.computeIfAbsent(username, u -> new UserEntries());
+        user.lastAccess = now;
+        
+        synchronized (user) {
+            Entry entry = user.tokens.get(tokenId);
+            if (entry != null && entry.expiresAt() > now) {
+                cacheStats.hit();
+                return entry.principal();
+            }
+            if (entry != null) {
+                user.tokens.remove(tokenId);
+                size.decrementAndGet();
+            }
+        }
+        
+        cacheStats.miss();
+        UserDetails principal = loader.get();
+        synchronized (user) {
+            if (!user.invalidated && user.tokens.put(tokenId, new Entry(principal, now + ttlMillis)) == null) {
+                size.incrementAndGet();
+            }
+        }
+        if (size.get() > maxEntries) {
+            evictOverflow();
+        }
+        return principal;
+    }
+    
+    /**
+     * Entfernt alle Einträge eines Users (Rollenwechsel, Sperre, Passwortänderung)
+     */
+    public void invalidate(String username) {
+        int removed = discard(username);
+        if (removed > 0) {
+            logger.debug("{} Principal-Cache-Einträge für User {} entfernt", removed, username);
+        }
+    }
+    
+    /**
+     * Entfernt die Einträge eines Users nur, wenn sich sicherheitsrelevante Daten geändert haben
+     */
+    public void invalidateIfChanged(String username, boolean enabled, String passwordHash, Set<String> authorities) {
+        UserEntries user = users.get(username);
+        if (user == null) {
+            return;
+        }
+        UserDetails cached;
+        synchronized (user) {
+            Iterator<Entry> entries = user.tokens.values().iterator();
+            if (!entries.hasNext()) {
+                return;
+            }
+            cached = entries.next().principal();
+        }
+        Set<String> cachedAuthorities = cached.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toSet());
+        if (cached.isEnabled() != enabled
+                || !Objects.equals(cached.getPassword(), passwordHash)
+                || !cachedAuthorities.equals(authorities)) {
+            invalidate(username);
+        }
+    }
+    
+    /**
+     * Leert den gesamten Cache
+     */
+    public void clear() {
+        users.keySet().forEach(this::discard);
+    }
+    
+    public int size() {
+        return size.get();
+    }
+    
+    /**
+     * Nimmt den Eintragssatz eines Users aus der Map und sperrt ihn für laufende Ladevorgänge
+     *
+     * @return Anzahl entfernter Einträge
+     */
+    private int discard(String username) {
+        UserEntries user = users.remove(username);
+        if (user == null) {
+            return 0;
+        }
+        synchronized (user) {
+            user.invalidated = true;
+            int removed = user.tokens.size();
+            user.tokens.clear();
+            size.addAndGet(-removed);
+            return removed;
+        }
+    }
+    
+    /**
+     * Verdrängt bei Überlauf abgelaufene Einträge und danach die am längsten ungenutzten
+     * User, bis 90 % der Maximalgröße erreicht sind; läuft jeweils nur in einem Thread
+     */
+    private void evictOverflow() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, UserEntries> e : users.entrySet()) {
+                UserEntries user = e.getValue();
+                synchronized (user) {
+                    int before = user.tokens.size();
+                    user.tokens.values().removeIf(entry -> entry.expiresAt() <= now);
+                    size.addAndGet(user.tokens.size() - before);
+                    // Leere Sätze nicht liegen lassen
+                    if (user.tokens.isEmpty() && users.remove(e.getKey(), user)) {
+                        user.invalidated = true;
+                    }
+                }
+            }
+            int target = maxEntries - maxEntries / 10;
+            if (size.get() <= target) {
+                return;
+            }
+            List<Map.Entry<String, UserEntries>> byAccess = new ArrayList<>(users.entrySet());
+            byAccess.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (Map.Entry<String, UserEntries> e : byAccess) {
+                if (size.get() <= target) {
+                    break;
+                }
+                if (users.get(e.getKey()) == e.getValue()) {
+                    discard(e.getKey());
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
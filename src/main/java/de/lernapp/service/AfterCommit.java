@@ -0,0 +1,32 @@
+package de.lernapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Führt Seiteneffekte im Speicher (Caches, Zähler, Puffer) erst nach dem Commit aus,
+ * damit ein Rollback keinen Stand hinterlässt, der nie gespeichert wurde
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Nach dem Commit der laufenden Transaktion ausführen, ohne Transaktion sofort
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package de.lernapp.service;
+
+import de.lernapp.repository.AnswerStatsWriter;
+import de.lernapp.repository.AnswerStatsWriter.UserRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-Behind-Puffer für Antwort-Statistiken
+ *
+ * Eine beantwortete Frage wird nur im Speicher verbucht; Änderungen je Benutzer werden
+ * zusammengefasst und zeitgesteuert in einem JDBC-Batch geschrieben. Die Zähler je
+ * Frage führt QuestionStatsCounters, den Lernstand je Kategorie CategoryMasteryService.
+ * Die Auswertung einer Antwort wartet damit nicht mehr auf die Datenbank.
+ *
+ * Gespeicherte Werte können bis zu einem Flush-Intervall hinterherhinken. Beim
+ * Herunterfahren wird der Puffer vollständig geschrieben.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@Slf4j
+public class AnswerStatsBuffer {
+
+    private final AnswerStatsWriter writer;
+    private final QuestionStatsCounters questionStats;
+    private final CategoryMasteryService categoryMastery;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxPendingAnswers;
+
+    private final ConcurrentHashMap<String, UserDelta> userDeltas = new ConcurrentHashMap<>();
+    private final AtomicLong pendingAnswers = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter correctCounter;
+    private final Counter incorrectCounter;
+    private final Counter flushedAnswersCounter;
+    private final Counter flushFailureCounter;
+    private final Timer flushTimer;
+
+    public AnswerStatsBuffer(AnswerStatsWriter writer,
+                             QuestionStatsCounters questionStats,
+                             CategoryMasteryService categoryMastery,
+                             PlatformTransactionManager transactionManager,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${answer-buffer.batch-size:200}") int batchSize,
+                             @Value("${answer-buffer.max-pending-answers:50000}") int maxPendingAnswers) {
+        this.writer = writer;
+        this.questionStats = questionStats;
+        this.categoryMastery = categoryMastery;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxPendingAnswers = maxPendingAnswers;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.correctCounter = Counter.builder("lernapp.answers.recorded")
+            .description("Im Puffer verbuchte Antworten")
+            .tag("outcome", "correct")
+            .register(registry);
+        this.incorrectCounter = Counter.builder("lernapp.answers.recorded")
+            .description("Im Puffer verbuchte Antworten")
+            .tag("outcome", "incorrect")
+            .register(registry);
+        this.flushedAnswersCounter = Counter.builder("lernapp.answers.flushed")
+            .description("In die Datenbank geschriebene Antworten")
+            .register(registry);
+        this.flushFailureCounter = Counter.builder("lernapp.answers.flush.failures")
+            .description("Fehlgeschlagene Flushes (Änderungen bleiben im Puffer)")
+            .register(registry);
+        this.flushTimer = Timer.builder("lernapp.answers.flush")
+            .description("Dauer eines Flushes")
+            .register(registry);
+        Gauge.builder("lernapp.answers.pending", pendingAnswers, AtomicLong::get)
+            .description("Noch nicht geschriebene Antworten angemeldeter Benutzer")
+            .register(registry);
+        Gauge.builder("lernapp.answers.pending.users", userDeltas, Map::size)
+            .description("Benutzer mit ausstehenden Änderungen")
+            .register(registry);
+    }
+
+    /**
+     * Verbucht eine Antwort; kehrt ohne Datenbankzugriff zurück
+     *
+     * @param username   angemeldeter Benutzer oder null (nur Fragenstatistik)
+     * @param questionId beantwortete Frage
+     * @param correct    ob die Antwort richtig war
+     * @param experience XP für diese Antwort
+     */
+    public void record(String username, Long questionId, boolean correct, int experience) {
+        if (questionId != null) {
+            questionStats.increment(questionId, correct);
+        }
+        (correct ? correctCounter : incorrectCounter).increment();
+        if (username == null) {
+            return;
+        }
+        categoryMastery.record(username, questionId, correct);
+        userDeltas.compute(username, (key, delta) -> {
+            UserDelta target = delta != null ? delta : new UserDelta();
+            target.answer(correct, experience);
+            return target;
+        });
+
+        // Schutz bei Lastspitzen: der aufrufende Thread hilft beim Schreiben
+        if (pendingAnswers.incrementAndGet() >= maxPendingAnswers && flushLock.tryLock()) {
+            try {
+                flushLocked();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Verbucht eine bewertete Prüfung als Ganzes; der Streak bleibt unverändert
+     */
+    public void recordExam(String username, int answered, int correct, int experience) {
+        if (username == null || answered <= 0) {
+            return;
+        }
+        userDeltas.compute(username, (key, delta) -> {
+            UserDelta target = delta != null ? delta : new UserDelta();
+            target.answered += answered;
+            target.correct += correct;
+            target.experience += experience;
+            return target;
+        });
+        pendingAnswers.addAndGet(answered);
+    }
+    
+    /**
+     * Zeitgesteuerter Flush
+     */
+    @Scheduled(fixedDelayString = "${answer-buffer.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Schreibt alle bis jetzt gesammelten Änderungen
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!userDeltas.isEmpty()) {
+            log.error("Antwort-Statistiken konnten beim Herunterfahren nicht geschrieben werden: {} Benutzer",
+                    userDeltas.size());
+        }
+    }
+
+    public long getPendingAnswers() {
+        return pendingAnswers.get();
+    }
+
+    private void flushLocked() {
+        if (userDeltas.isEmpty()) {
+            return;
+        }
+
+        // Einträge einzeln entnehmen; neue Antworten landen währenddessen in frischen Deltas
+        Map<String, UserDelta> users = new HashMap<>();
+        for (String username : userDeltas.keySet()) {
+            UserDelta delta = userDeltas.remove(username);
+            if (delta != null) {
+                users.put(username, delta);
+            }
+        }
+
+        List<UserRow> userRows = new ArrayList<>(users.size());
+        long answers = 0;
+        for (Map.Entry<String, UserDelta> entry : users.entrySet()) {
+            UserDelta d = entry.getValue();
+            userRows.add(new UserRow(entry.getKey(), d.answered, d.correct, d.experience,
+                    d.leading, d.reset, d.trailing, d.maxInner));
+            answers += d.answered;
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.updateUsers(userRows, batchSize));
+            pendingAnswers.addAndGet(-answers);
+            flushedAnswersCounter.increment(answers);
+            log.debug("Antwort-Statistiken geschrieben: {} Benutzer, {} Antworten", userRows.size(), answers);
+        } catch (RuntimeException e) {
+            // Nichts verlieren: entnommene Deltas vor die inzwischen neu gesammelten stellen
+            users.forEach((username, earlier) -> userDeltas.merge(username, earlier, UserDelta::then));
+            flushFailureCounter.increment();
+            log.warn("Flush der Antwort-Statistiken fehlgeschlagen, neuer Versuch beim nächsten Intervall: {}",
+                    e.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Zusammengefasste Antworten eines Benutzers; wird nur innerhalb von compute/merge verändert
+     */
+    static final class UserDelta {
+        int answered;
+        int correct;
+        int experience;
+        int leading;      // richtige Antworten vor der ersten falschen
+        boolean reset;    // mindestens eine falsche Antwort
+        int trailing;     // richtige Antworten nach der letzten falschen
+        int maxInner;     // längster Lauf nach der ersten falschen
+
+        void answer(boolean isCorrect, int xp) {
+            answered++;
+            if (isCorrect) {
+                correct++;
+                experience += xp;
+                if (reset) {
+                    trailing++;
+                    maxInner = Math.max(maxInner, trailing);
+                } else {
+                    leading++;
+                }
+            } else {
+                reset = true;
+                trailing = 0;
+            }
+        }
+
+        /**
+         * Verkettet ein früher gesammeltes Delta mit dem danach gesammelten
+         */
+        static UserDelta then(UserDelta later, UserDelta earlier) {
+            UserDelta merged = new UserDelta();
+            merged.answered = earlier.answered + later.answered;
+            merged.correct = earlier.correct + later.correct;
+            merged.experience = earlier.experience + later.experience;
+            if (!earlier.reset) {
+                merged.leading = earlier.leading + later.leading;
+                merged.reset = later.reset;
+                merged.trailing = later.trailing;
+                merged.maxInner = later.maxInner;
+            } else {
+                merged.leading = earlier.leading;
+                merged.reset = true;
+                int bridged = earlier.trailing + later.leading;
+                merged.trailing = later.reset ? later.trailing : bridged;
+                merged.maxInner = Math.max(earlier.maxInner, Math.max(bridged, later.maxInner));
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.lernapp.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Treffer und Fehlgriffe eines In-Memory-Caches als Metriken
+ *
+ * lernapp.cache.requests{cache, result=hit|miss} zählt die Zugriffe,
+ * lernapp.cache.hit.ratio{cache} zeigt die Trefferquote seit dem Start.
+ * Die Größe meldet der jeweilige Cache selbst, da nur er sie kennt.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private CacheStats() {
+    }
+
+    public static CacheStats register(MeterRegistry registry, String cache) {
+        CacheStats stats = new CacheStats();
+        FunctionCounter.builder("lernapp.cache.requests", stats.hits, LongAdder::sum)
+            .description("Zugriffe auf In-Memory-Caches")
+            .tags("cache", cache, "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("lernapp.cache.requests", stats.misses, LongAdder::sum)
+            .description("Zugriffe auf In-Memory-Caches")
+            .tags("cache", cache, "result", "miss")
+            .register(registry);
+        Gauge.builder("lernapp.cache.hit.ratio", stats, CacheStats::hitRatio)
+            .description("Trefferquote seit dem Start (0-1)")
+            .tag("cache", cache)
+            .register(registry);
+        return stats;
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
@@ -0,0 +1,245 @@
+package de.lernapp.service;
+
+import de.lernapp.model.CategoryMastery;
+import de.lernapp.repository.AnswerStatsWriter;
+import de.lernapp.repository.AnswerStatsWriter.CategoryRow;
+import de.lernapp.repository.CategoryMasteryRepository;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lernstand je Benutzer und Kategorie
+ *
+ * Jede Antwort erhöht die Zähler der Kategorie im Speicher; die Deltas werden
+ * zeitgesteuert per relativem UPDATE (bzw. INSERT für neue Kategorien) in
+ * user_category_stats übernommen. Der Stand eines Benutzers wird beim ersten Zugriff
+ * einmal geladen und danach aus dem Speicher gelesen - Fortschritt und Empfehlungen
+ * kosten damit O(Anzahl Kategorien) und laden keine Fragen.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@Slf4j
+public class CategoryMasteryService {
+
+    private final CategoryMasteryRepository masteryRepository;
+    private final AnswerStatsWriter writer;
+    private final QuestionCatalogService catalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration idleTimeout;
+
+    private final ConcurrentHashMap<String, UserMastery> users = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public CategoryMasteryService(CategoryMasteryRepository masteryRepository,
+                                  AnswerStatsWriter writer,
+                                  QuestionCatalogService catalogService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${category-mastery.batch-size:200}") int batchSize,
+                                  @Value("${category-mastery.idle-minutes:30}") int idleMinutes) {
+        this.masteryRepository = masteryRepository;
+        this.writer = writer;
+        this.catalogService = catalogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+    }
+
+    /**
+     * Lernstand in einer Kategorie
+     */
+    public record CategoryProgress(String category, long attempts, long correct) {
+
+        /**
+         * Anteil richtiger Antworten in Prozent (0, solange nichts beantwortet wurde)
+         */
+        public int percent() {
+            return attempts == 0 ? 0 : (int) Math.round(correct * 100.0 / attempts);
+        }
+    }
+
+    /**
+     * Stand eines Benutzers; alle Zugriffe unter dem Monitor des Objekts
+     */
+    private static final class UserMastery {
+        final Map<String, long[]> totals = new HashMap<>();  // [versuche, richtig] inkl. offener Deltas
+        final Map<String, long[]> pending = new HashMap<>(); // noch nicht geschrieben
+        volatile long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+
+        void add(String category, long attempts, long correct) {
+            long[] total = totals.computeIfAbsent(category, c -> new long[2]);
+            total[0] += attempts;
+            total[1] += correct;
+            long[] delta = pending.computeIfAbsent(category, c -> new long[2]);
+            delta[0] += attempts;
+            delta[1] += correct;
+        }
+    }
+
+    /**
+     * Verbucht eine Antwort; die Kategorie wird aus dem aktuellen Katalog bestimmt
+     */
+    public void record(String username, Long questionId, boolean correct) {
+        if (username == null || questionId == null) {
+            return;
+        }
+        catalogService.current().findById(questionId).ifPresent(question ->
+            record(username, QuestionCatalog.categoryKey(question.category()), 1, correct ? 1 : 0));
+    }
+
+    /**
+     * Verbucht mehrere Antworten einer Kategorie (z.B. aus einer Prüfung)
+     */
+    public void record(String username, String category, int attempts, int correct) {
+        if (username == null || attempts <= 0) {
+            return;
+        }
+        String key = QuestionCatalog.categoryKey(category);
+        while (true) {
+            UserMastery mastery = mastery(username);
+            synchronized (mastery) {
+                // Gerade verdrängt: mit frisch geladenem Stand erneut versuchen
+                if (!mastery.evicted) {
+                    mastery.add(key, attempts, correct);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lernstand aller bisher beantworteten Kategorien, alphabetisch sortiert
+     */
+    public SortedMap<String, CategoryProgress> getProgress(String username) {
+        if (username == null) {
+            return Collections.emptySortedMap();
+        }
+        UserMastery mastery = mastery(username);
+        SortedMap<String, CategoryProgress> progress = new TreeMap<>();
+        synchronized (mastery) {
+            mastery.totals.forEach((category, total) ->
+                progress.put(category, new CategoryProgress(category, total[0], total[1])));
+        }
+        return progress;
+    }
+
+    /**
+     * Anteil richtiger Antworten über alle Kategorien in Prozent
+     */
+    public static double overallPercent(Map<String, CategoryProgress> progress) {
+        long attempts = 0;
+        long correct = 0;
+        for (CategoryProgress p : progress.values()) {
+            attempts += p.attempts();
+            correct += p.correct();
+        }
+        return attempts == 0 ? 0.0 : correct * 100.0 / attempts;
+    }
+
+    @Scheduled(fixedDelayString = "${category-mastery.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Übernimmt alle offenen Deltas in user_category_stats
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<CategoryRow> rows = new ArrayList<>();
+            List<UserMastery> owners = new ArrayList<>();
+            for (Map.Entry<String, UserMastery> entry : users.entrySet()) {
+                UserMastery mastery = entry.getValue();
+                synchronized (mastery) {
+                    mastery.pending.forEach((category, delta) -> {
+                        rows.add(new CategoryRow(entry.getKey(), category, delta[0], delta[1]));
+                        owners.add(mastery);
+                    });
+                    mastery.pending.clear();
+                }
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> writer.upsertCategories(rows, batchSize));
+                log.debug("Lernstand je Kategorie übernommen: {} Zeilen", rows.size());
+            } catch (RuntimeException e) {
+                // Deltas zurücklegen und beim nächsten Intervall erneut versuchen
+                for (int i = 0; i < rows.size(); i++) {
+                    CategoryRow row = rows.get(i);
+                    UserMastery mastery = owners.get(i);
+                    synchronized (mastery) {
+                        long[] delta = mastery.pending.computeIfAbsent(row.category(), c -> new long[2]);
+                        delta[0] += row.attempts();
+                        delta[1] += row.correct();
+                    }
+                }
+                log.warn("Übernahme des Lernstands je Kategorie fehlgeschlagen: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Verdrängt lange ungenutzte Benutzer ohne offene Deltas
+     */
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeout.toMillis();
+        for (Map.Entry<String, UserMastery> entry : users.entrySet()) {
+            UserMastery mastery = entry.getValue();
+            synchronized (mastery) {
+                if (mastery.lastAccess < idleSince && mastery.pending.isEmpty()) {
+                    mastery.evicted = true;
+                    users.remove(entry.getKey(), mastery);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stand aus dem Speicher oder einmalig aus der Datenbank
+     */
+    private UserMastery mastery(String username) {
+        UserMastery mastery = users.computeIfAbsent(username, this::load);
+        mastery.lastAccess = System.currentTimeMillis();
+        return mastery;
+    }
+
+    private UserMastery load(String username) {
+        UserMastery mastery = new UserMastery();
+        for (CategoryMastery row : masteryRepository.findByUsername(username)) {
+            mastery.totals.put(row.getCategory(), new long[] {row.getAttempts(), row.getCorrectAnswers()});
+        }
+        return mastery;
+    }
+}
@@ -1,7 +1,9 @@
 package de.lernapp.service;
 
 import de.lernapp.model.Question;
+import de.lernapp.repository.QuestionBatchWriter;
 import de.lernapp.repository.QuestionRepository;
+import de.lernapp.service.catalog.QuestionCatalogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -27,7 +29,9 @@ import java.util.List;
 public class DataImportService {
     
     private final QuestionRepository questionRepository;
+    private final QuestionBatchWriter batchWriter;
     private final QuestionService questionService;
+    private final QuestionCatalogService catalogService;
     
     @Bean
     CommandLineRunner importData() {
@@ -71,6 +75,7 @@ public class DataImportService {
             
             log.info("Importiere aus: {} (Format: {})", csvFile, isMasterFormat ? "MASTER" : "STANDARD");
             List<Question> questions = new ArrayList<>();
+            Long catalogVersion = catalogService.activeVersion();
             
             try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
                 String line;
@@ -93,6 +98,7 @@ public class DataImportService {
                     
                     try {
                         Question question = new Question();
+                        question.setCatalogVersion(catalogVersion);
                         
                         if (isMasterFormat) {
                             // MASTER FORMAT (11 Spalten):
@@ -174,7 +180,7 @@ public class DataImportService {
                         
                         // Batch-Speichern alle 50 Fragen
                         if (questions.size() >= 50) {
-                            questionRepository.saveAll(questions);
+                            batchWriter.insertAll(questions);
                             log.info("Batch gespeichert: {} Fragen", questions.size());
                             questions.clear();
                         }
@@ -186,7 +192,7 @@ public class DataImportService {
                 
                 // Speichere restliche Fragen
                 if (!questions.isEmpty()) {
-                    questionRepository.saveAll(questions);
+                    batchWriter.insertAll(questions);
                     log.info("Letzter Batch gespeichert: {} Fragen", questions.size());
                 }
                 
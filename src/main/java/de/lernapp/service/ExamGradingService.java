@@ -0,0 +1,259 @@
+package de.lernapp.service;
+
+import de.lernapp.model.ExamResult;
+import de.lernapp.model.ExamUserStats;
+import de.lernapp.repository.ExamResultRepository;
+import de.lernapp.repository.ExamUserStatsRepository;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Serverseitige Bewertung abgegebener Prüfungen
+ *
+ * Alle eingereichten Fragen-IDs werden in einem Durchgang gegen den Antwortschlüssel
+ * des aktuellen Katalogs aufgelöst und in einer Schleife bewertet; es wird keine
+ * Frage einzeln geladen. Die vom Client mitgeschickte Korrektheit wird ignoriert.
+ *
+ * Metriken: lernapp.exams.graded{result=passed|failed} (bestanden ab 50 %),
+ * lernapp.exams.score (Prozent) und lernapp.exams.answers{outcome=correct|incorrect|unanswered}.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@Slf4j
+public class ExamGradingService {
+
+    private static final int XP_PER_CORRECT = 10;
+    private static final int BONUS_80_PERCENT = 50;
+    private static final int BONUS_90_PERCENT = 50;
+    private static final double PASS_PERCENT = 50.0;
+
+    private final QuestionCatalogService catalogService;
+    private final ExamResultRepository examResultRepository;
+    private final ExamUserStatsRepository examUserStatsRepository;
+    private final AnswerStatsBuffer answerStatsBuffer;
+    private final QuestionStatsCounters questionStats;
+    private final CategoryMasteryService categoryMastery;
+
+    private final Counter passedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary scoreSummary;
+    private final Counter correctAnswersCounter;
+    private final Counter incorrectAnswersCounter;
+    private final Counter unansweredCounter;
+
+    public ExamGradingService(QuestionCatalogService catalogService,
+                              ExamResultRepository examResultRepository,
+                              ExamUserStatsRepository examUserStatsRepository,
+                              AnswerStatsBuffer answerStatsBuffer,
+                              QuestionStatsCounters questionStats,
+                              CategoryMasteryService categoryMastery,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.catalogService = catalogService;
+        this.examResultRepository = examResultRepository;
+        this.examUserStatsRepository = examUserStatsRepository;
+        this.answerStatsBuffer = answerStatsBuffer;
+        this.questionStats = questionStats;
+        this.categoryMastery = categoryMastery;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.passedCounter = Counter.builder("lernapp.exams.graded")
+            .description("Bewertete Prüfungen")
+            .tag("result", "passed")
+            .register(registry);
+        this.failedCounter = Counter.builder("lernapp.exams.graded")
+            .description("Bewertete Prüfungen")
+            .tag("result", "failed")
+            .register(registry);
+        this.scoreSummary = DistributionSummary.builder("lernapp.exams.score")
+            .description("Ergebnis bewerteter Prüfungen")
+            .baseUnit("percent")
+            .register(registry);
+        this.correctAnswersCounter = examAnswers(registry, "correct");
+        this.incorrectAnswersCounter = examAnswers(registry, "incorrect");
+        this.unansweredCounter = examAnswers(registry, "unanswered");
+    }
+
+    private static Counter examAnswers(MeterRegistry registry, String outcome) {
+        return Counter.builder("lernapp.exams.answers")
+            .description("Bewertete Prüfungsfragen")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * Eingereichte Antwort (Frage-ID und gewählte Option)
+     */
+    public record SubmittedAnswer(Long questionId, String selectedAnswer) {
+    }
+
+    /**
+     * Bewertung einer einzelnen Frage
+     */
+    public record GradedAnswer(long questionId, String selectedAnswer, String correctAnswer,
+                               boolean correct, String category) {
+    }
+
+    /**
+     * Gesamtergebnis einer Bewertung
+     */
+    public record ExamGrade(int totalQuestions, int correctAnswers, int unanswered, double scorePercent,
+                            int xpGained, List<ExamResult.CategoryScore> categoryScores,
+                            List<GradedAnswer> answers, List<Long> unknownQuestionIds) {
+    }
+
+    /**
+     * Bewertet eine Abgabe gegen den aktuellen Katalog (ohne zu speichern).
+     * Doppelt eingereichte Fragen zählen einmal; unbekannte IDs werden nicht gewertet.
+     */
+    public ExamGrade grade(List<SubmittedAnswer> submitted) {
+        QuestionCatalog catalog = catalogService.current();
+
+        // Eindeutige Abgaben sammeln und alle IDs in einem Durchgang auflösen
+        List<SubmittedAnswer> unique = new ArrayList<>(submitted.size());
+        Set<Long> seen = new HashSet<>();
+        for (SubmittedAnswer answer : submitted) {
+            if (answer != null && answer.questionId() != null && seen.add(answer.questionId())) {
+                unique.add(answer);
+            }
+        }
+        long[] ids = new long[unique.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = unique.get(i).questionId();
+        }
+        int[] positions = catalog.positionsOf(ids);
+
+        // Eine Bewertungsschleife über den Antwortschlüssel
+        Map<String, int[]> perCategory = new TreeMap<>(); // [gesamt, richtig]
+        List<GradedAnswer> graded = new ArrayList<>(ids.length);
+        List<Long> unknown = new ArrayList<>();
+        int correctCount = 0;
+        int unanswered = 0;
+
+        for (int i = 0; i < ids.length; i++) {
+            int position = positions[i];
+            if (position < 0) {
+                unknown.add(ids[i]);
+                continue;
+            }
+            CatalogQuestion question = catalog.get(position);
+            String selected = unique.get(i).selectedAnswer();
+            byte chosen = QuestionCatalog.encodeAnswer(selected);
+            byte key = catalog.answerKey(position);
+            boolean correct = chosen != QuestionCatalog.NO_ANSWER && chosen == key;
+
+            if (chosen == QuestionCatalog.NO_ANSWER) {
+                unanswered++;
+            }
+            if (correct) {
+                correctCount++;
+            }
+
+            String category = QuestionCatalog.categoryKey(question.category());
+            int[] score = perCategory.computeIfAbsent(category, c -> new int[2]);
+            score[0]++;
+            if (correct) {
+                score[1]++;
+            }
+            graded.add(new GradedAnswer(ids[i], selected, question.correctAnswer(), correct, category));
+        }
+
+        int total = graded.size();
+        double percent = total == 0 ? 0.0 : correctCount * 100.0 / total;
+
+        List<ExamResult.CategoryScore> categoryScores = new ArrayList<>(perCategory.size());
+        perCategory.forEach((category, score) ->
+            categoryScores.add(new ExamResult.CategoryScore(category, score[0], score[1])));
+
+        if (total > 0) {
+            (percent >= PASS_PERCENT ? passedCounter : failedCounter).increment();
+            scoreSummary.record(percent);
+            correctAnswersCounter.increment(correctCount);
+            incorrectAnswersCounter.increment(total - correctCount - unanswered);
+            unansweredCounter.increment(unanswered);
+        }
+
+        return new ExamGrade(total, correctCount, unanswered, percent, calculateXp(correctCount, total),
+                categoryScores, graded, unknown);
+    }
+
+    /**
+     * Speichert eine Bewertung als Prüfungsergebnis und verbucht die Statistiken
+     */
+    @Transactional
+    public ExamResult record(String username, String examId, int timeSpentSeconds, ExamGrade grade) {
+        ExamResult result = new ExamResult();
+        result.setUsername(username);
+        result.setExamId(examId);
+        result.setTotalQuestions(grade.totalQuestions());
+        result.setCorrectAnswers(grade.correctAnswers());
+        result.setUnanswered(grade.unanswered());
+        result.setScorePercent(grade.scorePercent());
+        result.setXpGained(grade.xpGained());
+        result.setTimeSpentSeconds(timeSpentSeconds);
+        result.setSubmittedAt(LocalDateTime.now());
+        result.setCategoryScores(new ArrayList<>(grade.categoryScores()));
+        ExamResult saved = examResultRepository.save(result);
+
+        // Vorberechnete Statistik für /api/exam/stats fortschreiben
+        ExamUserStats stats = examUserStatsRepository.findById(username).orElseGet(() -> {
+            ExamUserStats created = new ExamUserStats();
+            created.setUsername(username);
+            return created;
+        });
+        stats.addExam(result.getScorePercent(), result.getTimeSpentSeconds(), result.getSubmittedAt());
+        examUserStatsRepository.save(stats);
+
+        // Zähler je Frage und Benutzerstatistik gesammelt über den Write-Behind-Puffer; erst nach
+        // dem Commit, damit ein Rollback (z.B. gleichzeitige Abgabe, @Version) keine XP hinterlässt
+        AfterCommit.run(() -> {
+            for (GradedAnswer answer : grade.answers()) {
+                questionStats.increment(answer.questionId(), answer.correct());
+            }
+            answerStatsBuffer.recordExam(username, grade.totalQuestions(), grade.correctAnswers(), grade.xpGained());
+            for (ExamResult.CategoryScore score : grade.categoryScores()) {
+                categoryMastery.record(username, score.getCategory(), score.getTotal(), score.getCorrect());
+            }
+        });
+
+        log.info("Prüfung von {} bewertet: {}/{} richtig ({}%), {} XP",
+                username, grade.correctAnswers(), grade.totalQuestions(),
+                Math.round(grade.scorePercent()), grade.xpGained());
+        return saved;
+    }
+
+    /**
+     * 10 XP pro richtiger Antwort, Bonus ab 80 % und ab 90 %
+     */
+    static int calculateXp(int correct, int total) {
+        int xp = correct * XP_PER_CORRECT;
+        if (total == 0) {
+            return xp;
+        }
+        int percent = correct * 100 / total;
+        if (percent >= 80) {
+            xp += BONUS_80_PERCENT;
+        }
+        if (percent >= 90) {
+            xp += BONUS_90_PERCENT;
+        }
+        return xp;
+    }
+}
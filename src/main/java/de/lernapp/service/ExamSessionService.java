@@ -0,0 +1,418 @@
+package de.lernapp.service;
+
+import de.lernapp.model.ExamSession;
+import de.lernapp.repository.ExamSessionRepository;
+import de.lernapp.service.catalog.QuestionCatalog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serverseitige Prüfungssitzungen
+ *
+ * Eine Sitzung hält die gezogenen Fragen-IDs (long[]) und die Antworten (ein Byte je
+ * Frage) im Speicher. Inaktive Sitzungen werden in die Datenbank verdrängt und beim
+ * nächsten Zugriff wieder geladen, sodass eine Prüfung fortgesetzt werden kann.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@Slf4j
+public class ExamSessionService {
+
+    /** Karenz nach Ablauf des Zeitlimits für die Abgabe (Netzlaufzeit, automatische Abgabe) */
+    static final int SUBMIT_GRACE_SECONDS = 30;
+    /** Nach so vielen fehlgeschlagenen Speicherversuchen wird eine Sitzung verworfen */
+    static final int MAX_PERSIST_ATTEMPTS = 3;
+
+    private final ExamSessionRepository sessionRepository;
+    private final int timeLimitSeconds;
+    private final Duration idleTimeout;
+    private final Duration retention;
+
+    private final ConcurrentHashMap<String, LiveSession> sessions = new ConcurrentHashMap<>();
+
+    public ExamSessionService(ExamSessionRepository sessionRepository,
+                              @Value("${exam.session.time-limit-minutes:90}") int timeLimitMinutes,
+                              @Value("${exam.session.idle-minutes:10}") int idleMinutes,
+                              @Value("${exam.session.retention-days:7}") int retentionDays) {
+        this.sessionRepository = sessionRepository;
+        this.timeLimitSeconds = timeLimitMinutes * 60;
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Zustand einer Sitzung aus Sicht der Abgabe
+     */
+    public enum SessionState {
+        ACTIVE,     // läuft, Abgabe möglich
+        EXPIRED,    // Zeitlimit (plus Karenz) überschritten
+        SUBMITTED,  // bereits abgegeben
+        UNKNOWN     // keine Sitzung dieses Benutzers
+    }
+
+    /**
+     * Ergebnis von {@link #claimForSubmit}; session ist nur bei ACTIVE gesetzt
+     */
+    public record SessionLookup(SessionState state, LiveSession session) {
+    }
+
+    /**
+     * Im Speicher gehaltene Sitzung; Zugriffe auf die Antworten sind synchronisiert
+     */
+    public static final class LiveSession {
+        private final String id;
+        private final String username;
+        private final long[] questionIds;
+        private final byte[] answers;
+        private final int timeLimitSeconds;
+        private final LocalDateTime startedAt;
+        private volatile LocalDateTime lastActivityAt;
+        private boolean submitting;
+        private boolean evicted;
+        private Long examResultId; // gesetzt, sobald das Ergebnis gespeichert ist
+        private int persistFailures;
+
+        private LiveSession(String id, String username, long[] questionIds, byte[] answers,
+                            int timeLimitSeconds, LocalDateTime startedAt, LocalDateTime lastActivityAt) {
+            this.id = id;
+            this.username = username;
+            this.questionIds = questionIds;
+            this.answers = answers;
+            this.timeLimitSeconds = timeLimitSeconds;
+            this.startedAt = startedAt;
+            this.lastActivityAt = lastActivityAt;
+        }
+
+        public String getId() { return id; }
+        public String getUsername() { return username; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public int getTimeLimitSeconds() { return timeLimitSeconds; }
+
+        public long[] getQuestionIds() {
+            return questionIds.clone();
+        }
+
+        public synchronized byte[] getAnswers() {
+            return answers.clone();
+        }
+
+        /**
+         * Antworten als Buchstaben (null = unbeantwortet), positionsgleich zu den Fragen
+         */
+        public synchronized List<String> getAnswerLetters() {
+            List<String> letters = new ArrayList<>(answers.length);
+            for (byte answer : answers) {
+                letters.add(answer == QuestionCatalog.NO_ANSWER ? null : String.valueOf((char) ('A' + answer)));
+            }
+            return letters;
+        }
+
+        public long getElapsedSeconds() {
+            return Duration.between(startedAt, LocalDateTime.now()).getSeconds();
+        }
+
+        public long getRemainingSeconds() {
+            return Math.max(0, timeLimitSeconds - getElapsedSeconds());
+        }
+
+        public boolean isExpired() {
+            return getRemainingSeconds() == 0;
+        }
+
+        /**
+         * Abgabe noch zulässig: innerhalb des Zeitlimits plus Karenz
+         */
+        public boolean isSubmittable() {
+            return getElapsedSeconds() <= timeLimitSeconds + SUBMIT_GRACE_SECONDS;
+        }
+
+        /**
+         * Reserviert die Sitzung für genau eine Abgabe
+         *
+         * @return false, wenn bereits eine Abgabe läuft oder abgeschlossen ist oder die
+         *         Sitzung inzwischen verdrängt wurde (siehe {@link #isEvicted})
+         */
+        synchronized boolean claim() {
+            if (submitting || evicted) {
+                return false;
+            }
+            submitting = true;
+            return true;
+        }
+
+        /**
+         * Aus dem Speicher verdrängt; maßgeblich ist dann der Datensatz in der Datenbank
+         */
+        synchronized boolean isEvicted() {
+            return evicted;
+        }
+
+        synchronized void release() {
+            submitting = false;
+        }
+
+        /**
+         * Setzt die Antwort zu einer Frage der Sitzung
+         *
+         * @return false, wenn die Frage nicht zur Sitzung gehört
+         */
+        synchronized boolean answer(long questionId, String answer) {
+            for (int i = 0; i < questionIds.length; i++) {
+                if (questionIds[i] == questionId) {
+                    answers[i] = QuestionCatalog.encodeAnswer(answer);
+                    lastActivityAt = LocalDateTime.now();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized ExamSession toEntity(ExamSession.Status status) {
+            ExamSession entity = new ExamSession();
+            entity.setId(id);
+            entity.setUsername(username);
+            entity.setStatus(status);
+            entity.setQuestionIds(ExamSession.packIds(questionIds));
+            entity.setAnswers(answers.clone());
+            entity.setTimeLimitSeconds(timeLimitSeconds);
+            entity.setStartedAt(startedAt);
+            entity.setLastActivityAt(lastActivityAt);
+            return entity;
+        }
+
+        static LiveSession fromEntity(ExamSession entity) {
+            return new LiveSession(entity.getId(), entity.getUsername(),
+                    ExamSession.unpackIds(entity.getQuestionIds()), entity.getAnswers().clone(),
+                    entity.getTimeLimitSeconds(), entity.getStartedAt(), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Startet eine neue Sitzung mit den gezogenen Fragen
+     */
+    public LiveSession start(String username, long[] questionIds) {
+        if (questionIds.length > ExamSession.MAX_QUESTIONS) {
+            throw new IllegalArgumentException("Höchstens " + ExamSession.MAX_QUESTIONS + " Fragen je Prüfung");
+        }
+        byte[] answers = new byte[questionIds.length];
+        Arrays.fill(answers, QuestionCatalog.NO_ANSWER);
+        LocalDateTime now = LocalDateTime.now();
+        LiveSession session = new LiveSession(UUID.randomUUID().toString(), username,
+                questionIds.clone(), answers, timeLimitSeconds, now, now);
+        sessions.put(session.getId(), session);
+        log.debug("Prüfungssitzung {} für {} gestartet ({} Fragen)", session.getId(), username, questionIds.length);
+        return session;
+    }
+
+    /**
+     * Aktive Sitzung des Benutzers aus dem Speicher oder (nach Verdrängung) aus der Datenbank
+     */
+    public Optional<LiveSession> find(String sessionId, String username) {
+        if (sessionId == null || username == null) {
+            return Optional.empty();
+        }
+        LiveSession live = sessions.get(sessionId);
+        if (live != null) {
+            return live.getUsername().equals(username) ? Optional.of(live) : Optional.empty();
+        }
+        return sessionRepository.findByIdAndUsername(sessionId, username)
+            .filter(entity -> entity.getStatus() == ExamSession.Status.ACTIVE)
+            .map(entity -> sessions.computeIfAbsent(entity.getId(), id -> LiveSession.fromEntity(entity)));
+    }
+
+    /**
+     * Sitzung für die Abgabe: läuft sie noch, wird sie für diese Abgabe reserviert (bis
+     * {@link #complete} bzw. {@link #release}). Abgelaufene oder abgegebene Sitzungen - auch
+     * bereits in die Datenbank verdrängte - werden als solche gemeldet, nicht als unbekannt.
+     */
+    public SessionLookup claimForSubmit(String sessionId, String username) {
+        if (sessionId == null || username == null) {
+            return new SessionLookup(SessionState.UNKNOWN, null);
+        }
+        // Wird die Sitzung zwischen Nachschlagen und Reservieren verdrängt, aus der Datenbank neu laden
+        SessionLookup lookup;
+        do {
+            lookup = tryClaim(sessionId, username);
+        } while (lookup == null);
+        return lookup;
+    }
+
+    /**
+     * Ein Reservierungsversuch; null, wenn die gefundene Sitzung gerade verdrängt wurde
+     */
+    private SessionLookup tryClaim(String sessionId, String username) {
+        LiveSession live = sessions.get(sessionId);
+        if (live == null) {
+            Optional<ExamSession> stored = sessionRepository.findByIdAndUsername(sessionId, username);
+            if (stored.isEmpty()) {
+                return new SessionLookup(SessionState.UNKNOWN, null);
+            }
+            ExamSession entity = stored.get();
+            if (entity.getStatus() == ExamSession.Status.SUBMITTED) {
+                return new SessionLookup(SessionState.SUBMITTED, null);
+            }
+            if (entity.getStatus() == ExamSession.Status.EXPIRED) {
+                return new SessionLookup(SessionState.EXPIRED, null);
+            }
+            live = sessions.computeIfAbsent(entity.getId(), id -> LiveSession.fromEntity(entity));
+        }
+        if (!live.getUsername().equals(username)) {
+            return new SessionLookup(SessionState.UNKNOWN, null);
+        }
+        if (!live.isSubmittable()) {
+            return new SessionLookup(SessionState.EXPIRED, null);
+        }
+        if (!live.claim()) {
+            return live.isEvicted() ? null : new SessionLookup(SessionState.SUBMITTED, null);
+        }
+        return new SessionLookup(SessionState.ACTIVE, live);
+    }
+
+    /**
+     * Gibt eine reservierte Sitzung nach einer fehlgeschlagenen Abgabe wieder frei
+     */
+    public void release(LiveSession session) {
+        session.release();
+    }
+
+    /**
+     * Speichert eine Zwischenantwort
+     *
+     * @return false, wenn Sitzung oder Frage unbekannt bzw. die Zeit abgelaufen ist
+     */
+    public boolean answer(String sessionId, String username, long questionId, String answer) {
+        return find(sessionId, username)
+            .filter(session -> !session.isExpired())
+            .map(session -> session.answer(questionId, answer))
+            .orElse(false);
+    }
+
+    /**
+     * Übernimmt vom Client mitgeschickte Antworten (z.B. bei der Abgabe)
+     */
+    public void applyAnswers(LiveSession session, List<Long> questionIds, List<String> answers) {
+        for (int i = 0; i < questionIds.size(); i++) {
+            if (questionIds.get(i) != null && answers.get(i) != null) {
+                session.answer(questionIds.get(i), answers.get(i));
+            }
+        }
+    }
+
+    /**
+     * Schließt eine Sitzung nach der Bewertung ab und speichert sie. Scheitert das Speichern,
+     * bleibt die Sitzung reserviert (keine zweite Abgabe) und der Verdränger holt es nach.
+     */
+    public void complete(LiveSession session, Long examResultId) {
+        synchronized (session) {
+            session.examResultId = examResultId;
+        }
+        sessionRepository.save(submittedEntity(session));
+        sessions.remove(session.getId());
+    }
+
+    private static ExamSession submittedEntity(LiveSession session) {
+        synchronized (session) {
+            ExamSession entity = session.toEntity(ExamSession.Status.SUBMITTED);
+            entity.setSubmittedAt(LocalDateTime.now());
+            entity.setExamResultId(session.examResultId);
+            return entity;
+        }
+    }
+
+    /**
+     * Verdrängt inaktive Sitzungen in die Datenbank; abgelaufene werden als EXPIRED abgelegt.
+     * Abgelaufene bleiben für eine Abgabe innerhalb der Karenz im Speicher. Scheitert das
+     * Speichern wiederholt, wird die Sitzung verworfen statt endlos erneut versucht.
+     * Reservierte Sitzungen (laufende Abgabe) bleiben unberührt; Reservierung und
+     * Verdrängung schließen sich über den Monitor der Sitzung aus.
+     */
+    @Scheduled(fixedDelayString = "${exam.session.evict-interval-ms:60000}")
+    public void evictIdleSessions() {
+        LocalDateTime idleSince = LocalDateTime.now().minus(idleTimeout);
+        int evicted = 0;
+        for (LiveSession session : sessions.values()) {
+            if (!session.lastActivityAt.isBefore(idleSince) && session.isSubmittable()) {
+                continue;
+            }
+            synchronized (session) {
+                // Laufende Abgabe: complete() bzw. release() entscheidet; nur ein bereits
+                // gespeichertes Ergebnis, dessen Abschluss fehlschlug, wird hier nachgetragen
+                if (session.submitting && session.examResultId == null) {
+                    continue;
+                }
+                if (persist(session)) {
+                    session.evicted = true;
+                    sessions.remove(session.getId(), session);
+                    evicted++;
+                } else if (++session.persistFailures >= MAX_PERSIST_ATTEMPTS) {
+                    session.evicted = true;
+                    sessions.remove(session.getId(), session);
+                    log.error("Prüfungssitzung {} nach {} Speicherversuchen verworfen",
+                            session.getId(), session.persistFailures);
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("{} Prüfungssitzungen in die Datenbank verdrängt, {} im Speicher", evicted, sessions.size());
+        }
+    }
+
+    /**
+     * Löscht Sitzungen, die vor mehr als exam.session.retention-days Tagen begonnen wurden.
+     * Die Ergebnisse bleiben in exam_results; laufende Sitzungen sind nie so alt (Zeitlimit).
+     */
+    @Scheduled(cron = "${exam.session.purge-cron:0 30 3 * * *}")
+    public void purgeOldSessions() {
+        int removed = sessionRepository.deleteStartedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            log.info("{} alte Prüfungssitzungen gelöscht", removed);
+        }
+    }
+
+    @PreDestroy
+    public void persistAll() {
+        for (LiveSession session : sessions.values()) {
+            persist(session);
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Speichert Status und Antworten; ein bereits abgegebener Datensatz wird nie zurückgestuft
+     */
+    private boolean persist(LiveSession session) {
+        try {
+            if (session.examResultId != null) {
+                sessionRepository.save(submittedEntity(session));
+                return true;
+            }
+            ExamSession.Status status = session.isExpired() ? ExamSession.Status.EXPIRED : ExamSession.Status.ACTIVE;
+            ExamSession entity = session.toEntity(status);
+            int updated = sessionRepository.updateUnlessSubmitted(entity.getId(), status, entity.getAnswers(),
+                    entity.getLastActivityAt(), ExamSession.Status.SUBMITTED);
+            if (updated == 0 && !sessionRepository.existsById(entity.getId())) {
+                sessionRepository.save(entity);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Prüfungssitzung {} konnte nicht gespeichert werden: {}", session.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package de.lernapp.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fortschritt eines CSV-Imports (threadsicher, wird während des Imports gelesen)
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public class ImportProgress {
+    
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+    
+    private volatile State state = State.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile int totalFiles;
+    private volatile String error;
+    
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicInteger filesFailed = new AtomicInteger();
+    
+    private final Map<String, FileStats> files = new ConcurrentHashMap<>();
+    
+    public static ImportProgress idle() {
+        return new ImportProgress();
+    }
+    
+    public static ImportProgress start(int totalFiles) {
+        ImportProgress progress = new ImportProgress();
+        progress.state = State.RUNNING;
+        progress.startedAt = LocalDateTime.now();
+        progress.startNanos = System.nanoTime();
+        progress.totalFiles = totalFiles;
+        return progress;
+    }
+    
+    public FileStats file(String fileName) {
+        return files.computeIfAbsent(fileName, FileStats::new);
+    }
+    
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+    
+    public void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+    
+    /**
+     * Datei konnte nicht vollständig gelesen werden
+     */
+    public void fileFailed() {
+        filesFailed.incrementAndGet();
+    }
+    
+    public void batchWritten(int rows) {
+        rowsWritten.addAndGet(rows);
+        batchesWritten.incrementAndGet();
+    }
+    
+    public void complete() {
+        finish(State.COMPLETED, null);
+    }
+    
+    public void fail(String message) {
+        finish(State.FAILED, message);
+    }
+    
+    private void finish(State finalState, String message) {
+        this.finishNanos = System.nanoTime();
+        this.finishedAt = LocalDateTime.now();
+        this.error = message;
+        this.state = finalState;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+    
+    public int getFilesFailed() {
+        return filesFailed.get();
+    }
+    
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+    
+    /**
+     * Geschriebene Zeilen pro Sekunde (bis jetzt bzw. bis zum Ende); 0 vor dem Start
+     */
+    public long getRowsPerSecond() {
+        return startNanos > 0 ? rowsWritten.get() * 1000 / elapsedMillis() : 0;
+    }
+    
+    private long elapsedMillis() {
+        long end = state == State.RUNNING ? System.nanoTime() : finishNanos;
+        return Math.max(1, (end - startNanos) / 1_000_000);
+    }
+    
+    /**
+     * Momentaufnahme für die REST-API
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", state);
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", finishedAt);
+        result.put("totalFiles", totalFiles);
+        result.put("filesCompleted", files.values().stream().filter(FileStats::isDone).count());
+        result.put("filesFailed", filesFailed.get());
+        result.put("rowsParsed", rowsParsed.get());
+        result.put("rowsRejected", rowsRejected.get());
+        result.put("rowsWritten", rowsWritten.get());
+        result.put("batchesWritten", batchesWritten.get());
+        
+        if (startNanos > 0) {
+            result.put("elapsedMillis", elapsedMillis());
+            result.put("rowsPerSecond", getRowsPerSecond());
+        }
+        if (error != null) {
+            result.put("error", error);
+        }
+        
+        List<Map<String, Object>> fileList = new ArrayList<>();
+        files.values().forEach(f -> fileList.add(f.snapshot()));
+        result.put("files", fileList);
+        return result;
+    }
+    
+    /**
+     * Statistik einer einzelnen CSV-Datei
+     */
+    public static class FileStats {
+        
+        private final String fileName;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long parseMillis;
+        private volatile boolean done;
+        private volatile boolean failed;
+        
+        FileStats(String fileName) {
+            this.fileName = fileName;
+        }
+        
+        public void started() {
+            startNanos = System.nanoTime();
+        }
+        
+        public void row() {
+            rows.incrementAndGet();
+        }
+        
+        public void rejected() {
+            rejected.incrementAndGet();
+        }
+        
+        public void finished() {
+            parseMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            done = true;
+        }
+        
+        public void failed() {
+            failed = true;
+        }
+        
+        public boolean isDone() {
+            return done;
+        }
+        
+        public long getRows() {
+            return rows.get();
+        }
+        
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", fileName);
+            result.put("rows", rows.get());
+            result.put("rejected", rejected.get());
+            result.put("done", done);
+            result.put("failed", failed);
+            result.put("parseMillis", parseMillis);
+            if (done) {
+                result.put("rowsPerSecond", rows.get() * 1000 / Math.max(1, parseMillis));
+            }
+            return result;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package de.lernapp.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -13,19 +15,33 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Service für JWT Token Verwaltung
+ * 
+ * Signaturschlüssel und Parser werden einmalig beim Start erzeugt; der JwtParser
+ * ist unveränderlich und threadsicher und wird für alle Requests wiederverwendet.
  */
 @Service
 public class JwtService {
     
-    @Value("${jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}")
-    private String jwtSecret;
+    private final int jwtExpiration; // 24 hours in milliseconds
     
-    @Value("${jwt.expiration:86400000}")
-    private int jwtExpiration; // 24 hours in milliseconds
+    private final Key signKey;
+    private final JwtParser parser;
+    
+    public JwtService(
+            @Value("${jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}") String jwtSecret,
+            @Value("${jwt.expiration:86400000}") int jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signKey)
+                .build();
+    }
     
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -40,22 +56,46 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Validiert ein Token mit einer einzigen Signaturprüfung und liefert dessen Claims.
+     * Abgelaufene, manipulierte oder fehlerhafte Tokens ergeben ein leeres Optional.
+     */
+    public Optional<Claims> parseValidToken(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            if (claims.getSubject() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Eindeutige Token-ID (jti); ältere Tokens ohne jti werden über den Ausstellungszeitpunkt identifiziert
+     */
+    public String extractTokenId(Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        return claims.getIssuedAt() != null ? String.valueOf(claims.getIssuedAt().getTime()) : "";
+    }
+    
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
+    /**
+     * Prüft Signatur, Ablauf und Subject mit einem einzigen Parse-Vorgang
+     */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        final Date expiration = claims.getExpiration();
+        return userDetails.getUsername().equals(claims.getSubject())
+                && (expiration == null || expiration.after(new Date()));
     }
     
     public String generateToken(String username) {
@@ -71,15 +111,11 @@ public class JwtService {
     private String createToken(Map<String, Object> claims, String username) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
@@ -1,43 +1,202 @@
 package de.lernapp.service;
 
+import de.lernapp.model.CatalogVersion;
 import de.lernapp.model.Question;
+import de.lernapp.repository.CatalogVersionRepository;
+import de.lernapp.repository.QuestionBatchWriter;
 import de.lernapp.repository.QuestionRepository;
+import de.lernapp.service.catalog.QuestionCatalogChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Streaming-Import aller CSV-Dateien
+ * 
+ * Die Dateien werden parallel auf einem begrenzten Thread-Pool geparst; die Zeilen
+ * laufen über eine begrenzte Queue zum schreibenden Thread, der sie in Batches fester
+ * Größe speichert. Der Speicherbedarf hängt damit nur von Queue- und Batch-Größe ab,
+ * nicht von der Größe des Gesamtbestands.
+ * 
+ * Die Dateien werden streng im Zeichensatz import.charset gelesen (Standard UTF-8).
+ * Eine nicht lesbare Datei (z.B. Windows-1252 mit Umlauten) bricht den ganzen Import
+ * ab, statt einen abgeschnittenen Bestand zu aktivieren.
+ * 
+ * Blue/Green: Der Import schreibt in eine neue Version des Fragenbestands (STAGING),
+ * während Leser weiter die aktive Version sehen. Erst wenn die gespeicherte Anzahl
+ * geprüft ist, wird in einer Transaktion umgeschaltet; danach werden die Lernkarten
+ * auf die neuen Frage-IDs übertragen und die Fragen der abgelösten Versionen
+ * entfernt. Ein fehlgeschlagener Import lässt den aktiven
+ * Bestand unverändert.
+ * 
+ * Durchsatz: lernapp.import.rows{stage=parsed|rejected|written}, Dauer je Batch
+ * (lernapp.import.batch) und je Import (lernapp.import.duration{outcome}) sowie
+ * lernapp.import.rows.per.second des letzten bzw. laufenden Imports.
+ */
 @Service
 public class MassiveCsvImportService {
     
     private static final Logger logger = LoggerFactory.getLogger(MassiveCsvImportService.class);
     
+    /** Markiert das Ende einer Datei in der Queue */
+    private static final Question END_OF_FILE = new Question();
+    
     @Autowired
     private QuestionRepository questionRepository;
     
-    @Transactional
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private QuestionBatchWriter batchWriter;
+    
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+    
+    @Autowired
+    private SpacedRepetitionService spacedRepetitionService;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${import.parser-threads:4}")
+    private int parserThreads;
+    
+    @Value("${import.queue-capacity:2000}")
+    private int queueCapacity;
+    
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${import.charset:UTF-8}")
+    private Charset charset;
+    
+    /** Gesuchte Datenverzeichnisse, das erste vorhandene wird importiert */
+    @Value("${import.data-dirs:data/ap1_questions,data,./data/ap1_questions,./data}")
+    private String[] possibleDirs;
+    
+    /** Parser auf virtuellen Threads (Java 21, siehe Profil "virtual") */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    private volatile ImportProgress progress = ImportProgress.idle();
+    
+    private final Counter parsedRows;
+    private final Counter rejectedRows;
+    private final Counter writtenRows;
+    private final Timer batchTimer;
+    private final MeterRegistry meterRegistry;
+    
+    public MassiveCsvImportService(PlatformTransactionManager transactionManager,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.meterRegistry = registry;
+        this.parsedRows = importRows(registry, "parsed");
+        this.rejectedRows = importRows(registry, "rejected");
+        this.writtenRows = importRows(registry, "written");
+        this.batchTimer = Timer.builder("lernapp.import.batch")
+            .description("Schreiben eines JDBC-Batches inkl. Transaktion")
+            .register(registry);
+        Gauge.builder("lernapp.import.rows.per.second", this, service -> service.progress.getRowsPerSecond())
+            .description("Geschriebene Zeilen pro Sekunde des letzten bzw. laufenden Imports")
+            .register(registry);
+    }
+    
+    private static Counter importRows(MeterRegistry registry, String stage) {
+        return Counter.builder("lernapp.import.rows")
+            .description("Zeilen des CSV-Imports")
+            .tag("stage", stage)
+            .register(registry);
+    }
+    
+    /**
+     * Fortschritt des laufenden bzw. letzten Imports
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+    
+    /**
+     * Startet den Import im Hintergrund (applicationTaskExecutor, im Profil "virtual" auf
+     * virtuellen Threads); den Fortschritt liefert getProgress()
+     */
+    @Async
+    public void importAllCsvFilesAsync() {
+        try {
+            importAllCsvFiles();
+        } catch (RuntimeException e) {
+            logger.error("Background CSV import failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Importiert alle CSV-Dateien als neue Version und schaltet danach atomar um.
+     * Bewusst ohne umschließende Transaktion: jeder Batch sowie die Umschaltung
+     * laufen in einer eigenen, kurzen Transaktion.
+     */
     public void importAllCsvFiles() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Es läuft bereits ein CSV-Import");
+        }
+        long start = System.nanoTime();
+        ImportProgress previous = progress;
+        String outcome = "failure";
+        try {
+            runImport();
+            // Ohne Datenverzeichnis oder Dateien entsteht kein neuer Fortschritt
+            outcome = progress == previous ? "skipped"
+                : progress.getState() == ImportProgress.State.COMPLETED ? "success" : "failure";
+        } finally {
+            Timer.builder("lernapp.import.duration")
+                .description("Dauer eines vollständigen CSV-Imports")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+    }
+    
+    private void runImport() {
         // Versuche mehrere mögliche Verzeichnisse
-        String[] possibleDirs = {
-            "data/ap1_questions",
-            "data",
-            "./data/ap1_questions",
-            "./data"
-        };
-        
         File dir = null;
         for (String path : possibleDirs) {
             File testDir = new File(path);
@@ -53,45 +212,251 @@ public class MassiveCsvImportService {
             return;
         }
         
-        // Lösche alle existierenden Fragen
-        questionRepository.deleteAll();
-        logger.info("Cleared all existing questions from database");
-        
-        List<Question> allQuestions = new ArrayList<>();
-        int totalImported = 0;
-        
+        List<File> csvFiles;
         try (Stream<Path> paths = Files.walk(dir.toPath())) {
-            List<File> csvFiles = paths
+            csvFiles = paths
                 .filter(Files::isRegularFile)
                 .filter(p -> p.toString().endsWith(".csv"))
                 .map(Path::toFile)
                 .collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.error("Error reading CSV files", e);
+            return;
+        }
+        
+        logger.info("Found {} CSV files to import", csvFiles.size());
+        ImportProgress current = ImportProgress.start(csvFiles.size());
+        progress = current;
+        
+        // Neue Version anlegen; ihre Fragen bleiben bis zur Umschaltung unsichtbar
+        CatalogVersion staging = transactionTemplate.execute(status ->
+            catalogVersionRepository.save(CatalogVersion.staging("CSV-Import")));
+        Long version = staging.getId();
+        logger.info("Staging catalog version {} created", version);
+        
+        BlockingQueue<Question> queue = new ArrayBlockingQueue<>(queueCapacity);
+        int threads = Math.max(1, Math.min(parserThreads, csvFiles.size()));
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, parserThreadFactory());
+        
+        try {
+            List<Future<?>> parserTasks = new ArrayList<>(csvFiles.size());
+            for (File csvFile : csvFiles) {
+                parserTasks.add(parsers.submit(() -> parseFileInto(csvFile, queue, current)));
+            }
             
-            logger.info("Found {} CSV files to import", csvFiles.size());
+            writeBatches(queue, parserTasks, version, current);
+            verifyStaged(version, current);
+            activate(version, current.getRowsWritten());
+            current.complete();
+            logger.info("Successfully imported {} questions total as catalog version {}",
+                    current.getRowsWritten(), version);
             
-            for (File csvFile : csvFiles) {
-                logger.info("Importing file: {}", csvFile.getName());
-                List<Question> questions = importCsvFile(csvFile);
-                allQuestions.addAll(questions);
-                logger.info("Imported {} questions from {}", questions.size(), csvFile.getName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.fail("Import unterbrochen");
+            discard(version);
+            throw new IllegalStateException("CSV-Import unterbrochen", e);
+        } catch (RuntimeException e) {
+            current.fail(e.getMessage());
+            discard(version);
+            throw e;
+        } finally {
+            parsers.shutdownNow();
+        }
+        
+        remapReviewCards(version);
+        removeRetiredQuestions(version);
+    }
+    
+    /**
+     * Threads der Parser: virtuell, wenn eingeschaltet und von der JVM unterstützt; die Anzahl
+     * bleibt in beiden Fällen durch import.parser-threads begrenzt (Rückstau über die Queue)
+     */
+    private ThreadFactory parserThreadFactory() {
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            return new VirtualThreadTaskExecutor("csv-import-parser-").getVirtualThreadFactory();
+        }
+        if (virtualThreads) {
+            logger.warn("Virtual threads requested but not supported by Java {}, using platform threads",
+                    Runtime.version().feature());
+        }
+        return r -> {
+            Thread thread = new Thread(r, "csv-import-parser");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * Prüft vor der Umschaltung gegen die geparsten Zeilen: keine Datei darf fehlgeschlagen sein,
+     * und Datenbank wie JDBC-Updatezähler müssen genau die geparsten Zeilen enthalten
+     */
+    private void verifyStaged(Long version, ImportProgress current) {
+        if (current.getFilesFailed() > 0) {
+            throw new IllegalStateException("Import verworfen: " + current.getFilesFailed()
+                    + " Dateien nicht vollständig gelesen");
+        }
+        long parsed = current.getRowsParsed();
+        long written = current.getRowsWritten();
+        long stored = questionRepository.countByCatalogVersion(version);
+        if (parsed == 0 || written != parsed || stored != parsed) {
+            throw new IllegalStateException("Import verworfen: " + parsed + " Fragen geparst, " + written
+                    + " geschrieben, " + stored + " in Version " + version + " gespeichert");
+        }
+    }
+    
+    /**
+     * Umschaltung in einer Transaktion: alte Version ablösen, neue aktivieren.
+     * Der Katalog wird nach dem Commit neu aufgebaut.
+     */
+    private void activate(Long version, long questionCount) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CatalogVersion active : catalogVersionRepository.findByStatus(CatalogVersion.Status.ACTIVE)) {
+                active.retire();
+                catalogVersionRepository.save(active);
             }
+            CatalogVersion next = catalogVersionRepository.findById(version)
+                .orElseThrow(() -> new IllegalStateException("Version " + version + " nicht gefunden"));
+            next.activate(questionCount);
+            catalogVersionRepository.save(next);
             
-            // Batch save all questions
-            if (!allQuestions.isEmpty()) {
-                questionRepository.saveAll(allQuestions);
-                totalImported = allQuestions.size();
-                logger.info("Successfully imported {} questions total", totalImported);
+            eventPublisher.publishEvent(new QuestionCatalogChangedEvent("CSV-Import v" + version));
+        });
+        logger.info("Catalog version {} activated", version);
+    }
+    
+    /**
+     * Verwirft eine fehlgeschlagene Version samt bereits geschriebener Fragen
+     */
+    private void discard(Long version) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int removed = questionRepository.deleteAllByCatalogVersion(version);
+                catalogVersionRepository.findById(version).ifPresent(failed -> {
+                    failed.setStatus(CatalogVersion.Status.FAILED);
+                    catalogVersionRepository.save(failed);
+                });
+                logger.warn("Catalog version {} discarded ({} staged questions removed)", version, removed);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not discard catalog version {}", version, e);
+        }
+    }
+    
+    /**
+     * Überträgt Lernkarten auf die neuen Frage-IDs, solange die alten Fragen noch existieren
+     */
+    private void remapReviewCards(Long activeVersion) {
+        try {
+            spacedRepetitionService.remapToCatalogVersion(activeVersion);
+        } catch (RuntimeException e) {
+            // Nicht kritisch: nicht zugeordnete Karten bleiben gespeichert, werden aber nicht mehr fällig
+            logger.warn("Could not remap review cards: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Entfernt nach der Umschaltung die Fragen aller anderen Versionen (inkl. Altbestand)
+     */
+    private void removeRetiredQuestions(Long activeVersion) {
+        try {
+            Integer removed = transactionTemplate.execute(status ->
+                questionRepository.deleteAllExceptCatalogVersion(activeVersion));
+            logger.info("Removed {} questions of retired catalog versions", removed);
+        } catch (RuntimeException e) {
+            // Nicht kritisch: der Katalog liest nur die aktive Version
+            logger.warn("Could not remove retired questions: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Schreibender Teil der Pipeline: leert die Queue in Batches fester Größe,
+     * bis alle Dateien ihr Ende gemeldet haben. Sind alle Parser beendet, die Queue leer
+     * und fehlen trotzdem Endmarken (Parser abgestürzt oder unterbrochen), bricht der
+     * Import ab, statt endlos zu warten.
+     */
+    private void writeBatches(BlockingQueue<Question> queue, List<Future<?>> parserTasks, Long version,
+                              ImportProgress current) throws InterruptedException {
+        List<Question> batch = new ArrayList<>(batchSize);
+        int fileCount = parserTasks.size();
+        int finishedFiles = 0;
+        
+        while (finishedFiles < fileCount) {
+            Question question = queue.poll(1, TimeUnit.SECONDS);
+            if (question == null) {
+                // Ein fehlgeschlagener Parser liefert keine Endmarke mehr: sofort abbrechen
+                String failure = parserFailure(parserTasks);
+                if (!failure.isEmpty()) {
+                    throw new IllegalStateException("Import abgebrochen" + failure);
+                }
+                // Erst "alle fertig" prüfen, dann "Queue leer": danach kann nichts mehr ankommen
+                if (parserTasks.stream().allMatch(Future::isDone) && queue.isEmpty()) {
+                    throw new IllegalStateException("Import abgebrochen: " + (fileCount - finishedFiles)
+                            + " von " + fileCount + " Dateien nicht vollständig gelesen"
+                            + parserFailure(parserTasks));
+                }
+                continue;
+            }
+            if (question == END_OF_FILE) {
+                finishedFiles++;
+                continue;
             }
             
-        } catch (IOException e) {
-            logger.error("Error reading CSV files", e);
+            question.setCatalogVersion(version);
+            batch.add(question);
+            if (batch.size() >= batchSize) {
+                flushBatch(batch, current);
+            }
         }
+        
+        if (!batch.isEmpty()) {
+            flushBatch(batch, current);
+        }
+    }
+    
+    /**
+     * Ursache des ersten fehlgeschlagenen Parsers für die Fehlermeldung
+     */
+    private static String parserFailure(List<Future<?>> parserTasks) {
+        for (Future<?> task : parserTasks) {
+            try {
+                task.get(0, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                return " (" + e.getCause() + ")";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "";
+            } catch (CancellationException | TimeoutException e) {
+                // kein Ergebnis, nächsten Parser prüfen
+            }
+        }
+        return "";
     }
     
-    private List<Question> importCsvFile(File csvFile) {
-        List<Question> questions = new ArrayList<>();
+    private void flushBatch(List<Question> batch, ImportProgress current) {
+        // Ein JDBC-Batch statt eines INSERT-Round-Trips pro Zeile, je Batch eine Transaktion
+        Integer written = batchTimer.record(() ->
+            transactionTemplate.execute(status -> batchWriter.insertAll(batch, batchSize)));
+        if (written == null || written != batch.size()) {
+            throw new IllegalStateException("Batch unvollständig: " + written + " von " + batch.size()
+                    + " Zeilen eingefügt");
+        }
+        current.batchWritten(written);
+        writtenRows.increment(written);
+        batch.clear();
+    }
+    
+    /**
+     * Parsender Teil der Pipeline: liest eine Datei zeilenweise und stellt die Fragen in die Queue.
+     * Die Endmarke folgt nur, wenn die Datei vollständig gelesen wurde; ein Lesefehler lässt
+     * den Parser (und damit den Import) fehlschlagen.
+     */
+    private void parseFileInto(File csvFile, BlockingQueue<Question> queue, ImportProgress current) {
+        ImportProgress.FileStats stats = current.file(csvFile.getName());
+        stats.started();
+        logger.info("Importing file: {}", csvFile.getName());
         
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+        try (BufferedReader br = Files.newBufferedReader(csvFile.toPath(), charset)) {
             String line;
             boolean isFirstLine = true;
             
@@ -102,20 +467,37 @@ public class MassiveCsvImportService {
                     continue;
                 }
                 
+                Question question = null;
                 try {
-                    Question question = parseCsvLine(line);
-                    if (question != null) {
-                        questions.add(question);
-                    }
+                    question = parseCsvLine(line);
                 } catch (Exception e) {
                     logger.warn("Error parsing line in {}: {}", csvFile.getName(), e.getMessage());
                 }
+                
+                if (question != null) {
+                    queue.put(question);
+                    stats.row();
+                    current.rowParsed();
+                    parsedRows.increment();
+                } else {
+                    stats.rejected();
+                    current.rowRejected();
+                    rejectedRows.increment();
+                }
             }
+            queue.put(END_OF_FILE);
+            logger.info("Imported {} questions from {}", stats.getRows(), csvFile.getName());
         } catch (IOException e) {
-            logger.error("Error reading file: {}", csvFile.getName(), e);
+            stats.failed();
+            current.fileFailed();
+            logger.error("Error reading file: {} (charset {})", csvFile.getName(), charset, e);
+            throw new UncheckedIOException("Datei " + csvFile.getName() + " nicht lesbar (Zeichensatz "
+                    + charset + ", siehe import.charset)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stats.finished();
         }
-        
-        return questions;
     }
     
     private Question parseCsvLine(String line) {
@@ -203,7 +585,11 @@ public class MassiveCsvImportService {
         }
     }
     
-    private List<String> parseCsvValues(String line) {
+    /**
+     * Zerlegt eine CSV-Zeile an Kommas außerhalb von Anführungszeichen
+     * (zustandslos, daher auch für Benchmarks direkt aufrufbar)
+     */
+    public static List<String> parseCsvValues(String line) {
         List<String> values = new ArrayList<>();
         StringBuilder current = new StringBuilder();
         boolean inQuotes = false;
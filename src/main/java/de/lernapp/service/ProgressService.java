@@ -2,13 +2,10 @@ package de.lernapp.service;
 
 import de.lernapp.model.Question;
 import de.lernapp.model.User;
-import de.lernapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,46 +14,18 @@ import java.util.Map;
 @Slf4j
 public class ProgressService {
 
-    private final UserRepository userRepository;
     private final QuestionService questionService;
+    private final AnswerStatsBuffer answerStatsBuffer;
 
-    @Transactional
+    /**
+     * Verbucht eine Antwort. Frage- und Benutzerstatistik (Zähler, Streak, XP, Level)
+     * werden über den AnswerStatsBuffer gesammelt geschrieben statt je Antwort gespeichert.
+     */
     public void recordAnswer(User user, Question question, boolean isCorrect) {
-        // Update question statistics
-        question.setTimesAnswered(question.getTimesAnswered() + 1);
-        if (isCorrect) {
-            question.setTimesCorrect(question.getTimesCorrect() + 1);
-        }
-        questionService.save(question);
-        
-        // Update user statistics
-        user.setTotalQuestionsAnswered(user.getTotalQuestionsAnswered() + 1);
-        
-        if (isCorrect) {
-            user.setCorrectAnswers(user.getCorrectAnswers() + 1);
-            user.setCurrentStreak(user.getCurrentStreak() + 1);
-            user.setExperiencePoints(user.getExperiencePoints() + question.getPoints());
-            
-            // Update best streak if needed
-            if (user.getCurrentStreak() > user.getBestStreak()) {
-                user.setBestStreak(user.getCurrentStreak());
-            }
-            
-            // Level up logic (every 100 XP)
-            int newLevel = (user.getExperiencePoints() / 100) + 1;
-            if (newLevel > user.getLevel()) {
-                user.setLevel(newLevel);
-                log.info("User {} leveled up to level {}", user.getUsername(), newLevel);
-            }
-        } else {
-            // Reset streak on wrong answer
-            user.setCurrentStreak(0);
-        }
-        
-        user.setUpdatedAt(LocalDateTime.now());
-        userRepository.save(user);
+        int points = question.getPoints() != null ? question.getPoints() : 0;
+        answerStatsBuffer.record(user.getUsername(), question.getId(), isCorrect, points);
         
-        log.info("Recorded answer for user {}: Question {} - Correct: {}", 
+        log.debug("Recorded answer for user {}: Question {} - Correct: {}", 
                  user.getUsername(), question.getId(), isCorrect);
     }
 
@@ -86,7 +55,7 @@ public class ProgressService {
         stats.put("progressToNextLevel", progressXP);
         stats.put("xpNeededForNextLevel", 100);
         
-        // Category breakdown (simplified for now)
+        // Category breakdown: Versuche je Kategorie aus dem gespeicherten Lernstand
         Map<String, Integer> categoryStats = questionService.getCategoryStats(user);
         stats.put("categoryBreakdown", categoryStats);
         
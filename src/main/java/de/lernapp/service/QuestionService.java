@@ -1,9 +1,17 @@
 package de.lernapp.service;
 
+import de.lernapp.dto.QuestionDTO;
+import de.lernapp.dto.QuestionPage;
 import de.lernapp.model.Question;
 import de.lernapp.model.User;
 import de.lernapp.repository.QuestionRepository;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogChangedEvent;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import de.lernapp.service.catalog.QuestionSampler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,27 +28,39 @@ import java.util.stream.Collectors;
 @Transactional
 public class QuestionService {
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final QuestionRepository questionRepository;
+    private final QuestionCatalogService catalogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuestionStatsCounters questionStats;
+    private final CategoryMasteryService categoryMastery;
     
     /**
      * Hole alle Fragen
      */
     public List<Question> getAllQuestions() {
-        return questionRepository.findAll();
+        return toQuestions(catalogService.current().list(null, null));
     }
     
     /**
      * Hole eine Frage nach ID
      */
     public Optional<Question> getQuestionById(Long id) {
-        return questionRepository.findById(id);
+        return questionRepository.findById(id).map(questionStats::applyTo);
     }
     
     /**
      * Speichere eine neue Frage
      */
     public Question saveQuestion(Question question) {
-        return questionRepository.save(question);
+        if (question.getCatalogVersion() == null) {
+            // Neue Fragen gehören zur aktiven Version, sonst wären sie im Katalog unsichtbar
+            question.setCatalogVersion(catalogService.activeVersion());
+        }
+        Question saved = questionRepository.save(question);
+        eventPublisher.publishEvent(new QuestionCatalogChangedEvent("Frage " + saved.getId() + " angelegt"));
+        return saved;
     }
     
     /**
@@ -61,7 +81,9 @@ public class QuestionService {
         question.setExplanation(questionDetails.getExplanation());
         question.setPoints(questionDetails.getPoints());
         
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        eventPublisher.publishEvent(new QuestionCatalogChangedEvent("Frage " + id + " bearbeitet"));
+        return saved;
     }
     
     /**
@@ -69,117 +91,206 @@ public class QuestionService {
      */
     public void deleteQuestion(Long id) {
         questionRepository.deleteById(id);
+        eventPublisher.publishEvent(new QuestionCatalogChangedEvent("Frage " + id + " gelöscht"));
     }
     
     /**
      * Hole Fragen nach Kategorie
      */
     public List<Question> getQuestionsByCategory(String category) {
-        return questionRepository.findByCategory(category);
+        return toQuestions(catalogService.current().list(category, null));
     }
     
     /**
      * Hole Fragen nach Schwierigkeitsgrad
      */
     public List<Question> getQuestionsByDifficulty(Integer difficulty) {
-        return questionRepository.findByDifficulty(difficulty);
+        return toQuestions(catalogService.current().list(null, difficulty));
     }
     
     /**
      * Hole zufällige Fragen für einen Test
      */
     public List<Question> getRandomQuestions(int count) {
-        return questionRepository.findRandomQuestions(count);
+        return getRandomQuestions(count, null, null, null);
+    }
+    
+    /**
+     * Hole zufällige, verschiedene Fragen mit optionalen Filtern.
+     * Mit gesetztem Seed ist die Auswahl reproduzierbar (gleicher Katalog vorausgesetzt).
+     */
+    public List<Question> getRandomQuestions(int count, String category, Integer difficulty, Long seed) {
+        QuestionCatalog catalog = catalogService.current();
+        int[] drawn = QuestionSampler.sample(
+            catalog.indices(category, difficulty), count, QuestionSampler.random(seed));
+        
+        List<Question> questions = new ArrayList<>(drawn.length);
+        for (int position : drawn) {
+            questions.add(toLiveQuestion(catalog.get(position)));
+        }
+        return questions;
+    }
+    
+    /**
+     * Hole zufällige, verschiedene Fragen außer den angegebenen (z.B. zum Auffüllen einer Prüfung).
+     * Gezogen wird aus dem Komplement, Wiederholungen bereits gewählter Fragen sind ausgeschlossen.
+     */
+    public List<Question> getRandomQuestionsExcluding(int count, Collection<Long> excludedIds, Long seed) {
+        QuestionCatalog catalog = catalogService.current();
+        BitSet excluded = new BitSet(catalog.size());
+        for (int position : catalog.positionsOf(excludedIds.stream().mapToLong(Long::longValue).toArray())) {
+            if (position >= 0) {
+                excluded.set(position);
+            }
+        }
+        int[] remaining = Arrays.stream(catalog.indices(null, null))
+            .filter(position -> !excluded.get(position))
+            .toArray();
+        int[] drawn = QuestionSampler.sample(remaining, count, QuestionSampler.random(seed));
+        
+        List<Question> questions = new ArrayList<>(drawn.length);
+        for (int position : drawn) {
+            questions.add(toLiveQuestion(catalog.get(position)));
+        }
+        return questions;
+    }
+    
+    /**
+     * Hole zufällige, verschiedene Fragen mit allen angegebenen Tags, optional je Kategorie
+     * und bis zu einer Höchstschwierigkeit (Schnittmenge der Tag-Listen im Katalog)
+     */
+    public List<Question> getRandomTaggedQuestions(int count, List<String> tags, String category,
+                                                   Integer maxDifficulty, Long seed) {
+        QuestionCatalog catalog = catalogService.current();
+        int[] drawn = QuestionSampler.sample(
+            catalog.taggedIndices(tags, category, maxDifficulty), count, QuestionSampler.random(seed));
+        
+        List<Question> questions = new ArrayList<>(drawn.length);
+        for (int position : drawn) {
+            questions.add(toLiveQuestion(catalog.get(position)));
+        }
+        return questions;
+    }
+    
+    /**
+     * Hole eine Frage aus dem Katalog (ohne Datenbankzugriff)
+     */
+    public Optional<Question> getCatalogQuestion(long id) {
+        return catalogService.current().findById(id).map(this::toLiveQuestion);
+    }
+    
+    /**
+     * Hole mehrere Fragen in der angegebenen Reihenfolge (unbekannte IDs werden übersprungen)
+     */
+    public List<Question> getQuestionsByIds(long[] ids) {
+        QuestionCatalog catalog = catalogService.current();
+        int[] positions = catalog.positionsOf(ids);
+        
+        List<Question> questions = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            if (position >= 0) {
+                questions.add(toLiveQuestion(catalog.get(position)));
+            }
+        }
+        return questions;
     }
     
     /**
      * Hole eine einzelne zufällige Frage
      */
     public Question getRandomQuestion() {
-        List<Question> questions = questionRepository.findRandomQuestions(1);
-        return questions.isEmpty() ? null : questions.get(0);
+        return getNextQuestion(null, null, null);
     }
     
     /**
      * Finde Frage nach ID
      */
     public Optional<Question> findById(Long id) {
-        return questionRepository.findById(id);
+        return questionRepository.findById(id).map(questionStats::applyTo);
     }
     
     /**
      * Hole alle verfügbaren Kategorien
      */
     public List<String> getAllCategories() {
-        return questionRepository.findAllCategories();
+        return new ArrayList<>(catalogService.current().getCategories());
     }
     
     /**
      * Hole alle Kategorien mit der Anzahl der Fragen
      */
     public Map<String, Long> getCategoriesWithCount() {
-        List<Question> allQuestions = questionRepository.findAll();
-        return allQuestions.stream()
-            .collect(Collectors.groupingBy(
-                q -> q.getCategory() != null ? q.getCategory() : "Unbekannt",
-                Collectors.counting()
-            ));
+        return new HashMap<>(catalogService.current().getCategoryCounts());
     }
     
     /**
      * Prüfe eine Antwort
      */
     public boolean checkAnswer(Long questionId, String answer) {
-        Optional<Question> question = questionRepository.findById(questionId);
-        return question.map(q -> q.isCorrect(answer)).orElse(false);
+        return catalogService.current().findById(questionId)
+            .map(q -> q.isCorrect(answer))
+            .orElse(false);
     }
     
     /**
      * Get next question for learning mode
      */
     public Question getNextQuestion(User user, String category, Integer difficulty) {
-        List<Question> questions;
-        
-        if (category != null && difficulty != null) {
-            questions = questionRepository.findByCategoryAndDifficulty(category, difficulty);
-        } else if (category != null) {
-            questions = questionRepository.findByCategory(category);
-        } else if (difficulty != null) {
-            questions = questionRepository.findByDifficulty(difficulty);
-        } else {
-            questions = questionRepository.findAll();
-        }
-        
-        // No filtering needed for now
+        QuestionCatalog catalog = catalogService.current();
+        int position = QuestionSampler.sampleOne(
+            catalog.indices(category, difficulty), QuestionSampler.random(null));
         
-        if (questions.isEmpty()) {
-            return null;
-        }
+        return position < 0 ? null : toLiveQuestion(catalog.get(position));
+    }
+    
+    /**
+     * Zufällige Frage mit allen angegebenen Tags (Lernmodus)
+     */
+    public Question getNextTaggedQuestion(List<String> tags, String category, Integer maxDifficulty) {
+        QuestionCatalog catalog = catalogService.current();
+        int position = QuestionSampler.sampleOne(
+            catalog.taggedIndices(tags, category, maxDifficulty), QuestionSampler.random(null));
         
-        // Return a random question from the filtered list
-        Random random = new Random();
-        return questions.get(random.nextInt(questions.size()));
+        return position < 0 ? null : toLiveQuestion(catalog.get(position));
     }
     
     /**
      * Get questions with filters
      */
     public List<Question> getQuestions(String category, Integer difficulty, int limit) {
-        List<Question> questions;
+        QuestionCatalog catalog = catalogService.current();
+        int[] positions = catalog.indices(category, difficulty);
         
-        if (category != null && difficulty != null) {
-            questions = questionRepository.findByCategoryAndDifficulty(category, difficulty);
-        } else if (category != null) {
-            questions = questionRepository.findByCategory(category);
-        } else if (difficulty != null) {
-            questions = questionRepository.findByDifficulty(difficulty);
-        } else {
-            questions = questionRepository.findAll();
+        int size = Math.max(0, Math.min(limit, positions.length));
+        List<Question> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(toLiveQuestion(catalog.get(positions[i])));
         }
+        return questions;
+    }
+    
+    /**
+     * Blättert per Keyset durch die Fragentabelle (IDs größer cursor, aufsteigend).
+     * Wie der Katalog nur die aktive Version (ohne aktive Version den Altbestand), damit
+     * Zeilen eines laufenden Imports oder abgelöster Versionen nicht doppelt erscheinen.
+     * Es wird eine Zeile mehr gelesen, um das Ende zu erkennen; die Seitengröße ist begrenzt.
+     */
+    @Transactional(readOnly = true)
+    public QuestionPage getQuestionPage(Long cursor, String category, Integer difficulty, Boolean active, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Question> rows = questionRepository.findPageAfter(cursor != null ? cursor : 0L,
+                catalogService.activeVersion(), category, difficulty, active, pageSize + 1);
         
-        return questions.stream()
-                .limit(limit)
+        boolean more = rows.size() > pageSize;
+        List<QuestionDTO> items = rows.stream()
+                .limit(pageSize)
+                .map(QuestionDTO::fromQuestion)
                 .collect(Collectors.toList());
+        return QuestionPage.builder()
+                .items(items)
+                .nextCursor(more ? items.get(items.size() - 1).getId() : null)
+                .size(items.size())
+                .build();
     }
     
     /**
@@ -190,17 +301,29 @@ public class QuestionService {
     }
     
     /**
-     * Get category statistics for user
+     * Get category statistics for user: beantwortete Fragen je Kategorie
+     * (aus dem inkrementell geführten Lernstand, ohne Fragen zu laden)
      */
     public Map<String, Integer> getCategoryStats(User user) {
         Map<String, Integer> stats = new HashMap<>();
-        List<String> categories = getAllCategories();
-        
-        for (String category : categories) {
-            // This is simplified - in a real app, you'd track which questions the user has answered
-            stats.put(category, questionRepository.findByCategory(category).size());
-        }
-        
+        categoryMastery.getProgress(user.getUsername())
+            .forEach((category, progress) -> stats.put(category, (int) progress.attempts()));
         return stats;
     }
+    
+    /**
+     * Wandelt Katalogeinträge in losgelöste Question-Objekte um
+     */
+    private List<Question> toQuestions(List<CatalogQuestion> entries) {
+        return entries.stream()
+                .map(this::toLiveQuestion)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Losgelöste Question mit den aktuellen Beantwortungszählern
+     */
+    private Question toLiveQuestion(CatalogQuestion entry) {
+        return questionStats.applyTo(entry.toQuestion());
+    }
 }
@@ -0,0 +1,223 @@
+package de.lernapp.service;
+
+import de.lernapp.model.Question;
+import de.lernapp.repository.AnswerStatsWriter;
+import de.lernapp.repository.AnswerStatsWriter.QuestionRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Zähler für Beantwortungen je Frage (timesAnswered / timesCorrect)
+ *
+ * Jede Antwort erhöht nur einen LongAdder der Frage; parallele Lernende auf derselben
+ * (beliebten) Frage teilen sich so weder eine Zeile noch einen Lock. Die angesammelten
+ * Deltas werden periodisch mit UPDATE ... SET times_answered = times_answered + ?
+ * in die Tabelle übernommen. Gelesen wird der Live-Wert: zuletzt gespeicherter Stand
+ * plus noch nicht geschriebene Deltas.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Component
+@Slf4j
+public class QuestionStatsCounters {
+
+    private final AnswerStatsWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, Stats> stats = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter mergedCounter;
+    private final Counter mergeFailureCounter;
+
+    public QuestionStatsCounters(AnswerStatsWriter writer,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${question-stats.batch-size:500}") int batchSize) {
+        this.writer = writer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.mergedCounter = Counter.builder("lernapp.question.stats.merged")
+            .description("In die Tabelle übernommene Beantwortungen")
+            .register(registry);
+        this.mergeFailureCounter = Counter.builder("lernapp.question.stats.merge.failures")
+            .description("Fehlgeschlagene Übernahmen (Deltas bleiben erhalten)")
+            .register(registry);
+        Gauge.builder("lernapp.question.stats.tracked", stats, Map::size)
+            .description("Fragen mit Zählern im Speicher")
+            .register(registry);
+    }
+
+    /**
+     * Verbucht eine Beantwortung; ohne Datenbankzugriff und ohne Lock
+     */
+    public void increment(long questionId, boolean correct) {
+        Stats s = stats.computeIfAbsent(questionId, id -> new Stats());
+        s.pendingAnswered.increment();
+        if (correct) {
+            s.pendingCorrect.increment();
+        }
+    }
+
+    /**
+     * Live-Anzahl der Beantwortungen
+     */
+    public long answered(long questionId, long persisted) {
+        Stats s = stats.get(questionId);
+        return s == null ? persisted : s.base(s.answeredBase, persisted) + s.pendingAnswered.sum();
+    }
+
+    /**
+     * Live-Anzahl der richtigen Beantwortungen
+     */
+    public long correct(long questionId, long persisted) {
+        Stats s = stats.get(questionId);
+        return s == null ? persisted : s.base(s.correctBase, persisted) + s.pendingCorrect.sum();
+    }
+
+    /**
+     * Setzt die Live-Werte in eine Question; getSuccessRate() liefert damit den aktuellen Stand.
+     * Unbedenklich auch für verwaltete Entities, da die Zählerspalten nicht per JPA geschrieben werden.
+     */
+    public Question applyTo(Question question) {
+        if (question == null || question.getId() == null) {
+            return question;
+        }
+        long persistedAnswered = question.getTimesAnswered() != null ? question.getTimesAnswered() : 0;
+        long persistedCorrect = question.getTimesCorrect() != null ? question.getTimesCorrect() : 0;
+        question.setTimesAnswered((int) answered(question.getId(), persistedAnswered));
+        question.setTimesCorrect((int) correct(question.getId(), persistedCorrect));
+        return question;
+    }
+
+    /**
+     * Lädt Fragen unter der Merge-Sperre und übernimmt ihre gespeicherten Zähler als Basis.
+     * So kann kein Merge zwischen Laden und Übernahme verloren gehen. Zähler von Fragen,
+     * die nicht mehr geladen werden (z.B. nach einem Import), werden vorher geschrieben
+     * und danach verworfen.
+     */
+    public List<Question> reseed(Supplier<List<Question>> loader) {
+        flushLock.lock();
+        try {
+            flushLocked();
+            List<Question> questions = loader.get();
+            Set<Long> loaded = new HashSet<>(questions.size() * 2);
+            for (Question question : questions) {
+                loaded.add(question.getId());
+                Stats s = stats.computeIfAbsent(question.getId(), id -> new Stats());
+                s.answeredBase = question.getTimesAnswered() != null ? question.getTimesAnswered() : 0;
+                s.correctBase = question.getTimesCorrect() != null ? question.getTimesCorrect() : 0;
+            }
+            // Nach fehlgeschlagenem Merge offene Deltas behalten; sie gehen beim nächsten Flush mit
+            stats.entrySet().removeIf(entry -> !loaded.contains(entry.getKey()) && !entry.getValue().hasPending());
+            return questions;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${question-stats.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Übernimmt alle angesammelten Deltas mit relativen UPDATEs in die Tabelle
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        List<QuestionRow> rows = new ArrayList<>();
+        List<Stats> drained = new ArrayList<>();
+        for (Map.Entry<Long, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            // sumThenReset ist nicht atomar: gleichzeitige Inkremente landen im nächsten Merge
+            long answered = s.pendingAnswered.sumThenReset();
+            long correct = s.pendingCorrect.sumThenReset();
+            if (answered == 0 && correct == 0) {
+                continue;
+            }
+            rows.add(new QuestionRow(entry.getKey(), answered, correct));
+            drained.add(s);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.updateQuestions(rows, batchSize));
+            long total = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Stats s = drained.get(i);
+                if (s.answeredBase >= 0) {
+                    s.answeredBase += rows.get(i).answered();
+                    s.correctBase += rows.get(i).correct();
+                }
+                total += rows.get(i).answered();
+            }
+            mergedCounter.increment(total);
+            log.debug("Fragenstatistik übernommen: {} Fragen, {} Beantwortungen", rows.size(), total);
+        } catch (RuntimeException e) {
+            // Deltas zurücklegen und beim nächsten Intervall erneut versuchen
+            for (int i = 0; i < rows.size(); i++) {
+                drained.get(i).pendingAnswered.add(rows.get(i).answered());
+                drained.get(i).pendingCorrect.add(rows.get(i).correct());
+            }
+            mergeFailureCounter.increment();
+            log.warn("Übernahme der Fragenstatistik fehlgeschlagen: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Zähler einer Frage; Basiswerte sind -1, solange der gespeicherte Stand unbekannt ist
+     */
+    private static final class Stats {
+        final LongAdder pendingAnswered = new LongAdder();
+        final LongAdder pendingCorrect = new LongAdder();
+        volatile long answeredBase = -1;
+        volatile long correctBase = -1;
+
+        long base(long known, long fallback) {
+            return known >= 0 ? known : fallback;
+        }
+
+        boolean hasPending() {
+            return pendingAnswered.sum() != 0 || pendingCorrect.sum() != 0;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package de.lernapp.service;
+
+import de.lernapp.model.ReviewCard;
+import de.lernapp.repository.ReviewCardRepository;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Spaced-Repetition-Planer (SM-2 mit Leitner-Boxen)
+ *
+ * Je Benutzer liegt ein Kartenstapel im Speicher: die Karten nach Frage-ID und ein
+ * Min-Heap nach Fälligkeit. Der Stapel wird beim ersten Zugriff einmal geladen; die
+ * am längsten überfällige Karte steht damit in O(log n) bereit, ohne den Verlauf
+ * zu durchsuchen. Geänderte Karten werden gesammelt und zeitgesteuert gespeichert.
+ *
+ * Leitner-Intervalle wie im früheren SpacedRepetitionService (1, 3, 7, 14, 30 Tage)
+ * dienen als Obergrenze des SM-2-Intervalls für die jeweilige Box.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@Slf4j
+public class SpacedRepetitionService {
+
+    private static final int MAX_BOX = 5;
+    private static final int[] BOX_MAX_DAYS = {0, 1, 3, 7, 14, 30};
+    private static final double MIN_EASE = 1.3;
+
+    /** Maximal geprüfte fällige Karten, wenn Kategorie/Schwierigkeit gefiltert werden */
+    private static final int MAX_FILTER_PROBES = 64;
+
+    private final ReviewCardRepository cardRepository;
+    private final QuestionCatalogService catalogService;
+    private final Duration snooze;
+    private final Duration idleTimeout;
+
+    private final ConcurrentHashMap<String, Deck> decks = new ConcurrentHashMap<>();
+
+    public SpacedRepetitionService(ReviewCardRepository cardRepository,
+                                   QuestionCatalogService catalogService,
+                                   @Value("${spaced-repetition.snooze-seconds:120}") int snoozeSeconds,
+                                   @Value("${spaced-repetition.idle-minutes:30}") int idleMinutes) {
+        this.cardRepository = cardRepository;
+        this.catalogService = catalogService;
+        this.snooze = Duration.ofSeconds(snoozeSeconds);
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+    }
+
+    /**
+     * Heap-Eintrag; veraltete Einträge (Karte inzwischen neu terminiert) werden beim Entnehmen übersprungen
+     */
+    private record DueEntry(long dueAt, long questionId) implements Comparable<DueEntry> {
+        @Override
+        public int compareTo(DueEntry other) {
+            int byDue = Long.compare(dueAt, other.dueAt);
+            return byDue != 0 ? byDue : Long.compare(questionId, other.questionId);
+        }
+    }
+
+    /**
+     * Kartenstapel eines Benutzers; alle Zugriffe unter dem Monitor des Stapels
+     */
+    private static final class Deck {
+        final Map<Long, ReviewCard> cards = new HashMap<>();
+        final Map<Long, Long> scheduledAt = new HashMap<>(); // aktueller Heap-Zeitpunkt je Frage
+        final PriorityQueue<DueEntry> heap = new PriorityQueue<>();
+        final Set<Long> dirty = new LinkedHashSet<>();
+        volatile long lastAccess = System.currentTimeMillis();
+        boolean evicted;
+
+        void schedule(long questionId, long dueAt) {
+            scheduledAt.put(questionId, dueAt);
+            heap.add(new DueEntry(dueAt, questionId));
+        }
+
+        /**
+         * Entfernt veraltete Einträge an der Spitze und liefert den frühesten gültigen
+         */
+        DueEntry peekValid() {
+            DueEntry top = heap.peek();
+            while (top != null && !Long.valueOf(top.dueAt()).equals(scheduledAt.get(top.questionId()))) {
+                heap.poll();
+                top = heap.peek();
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Nächste fällige Frage des Benutzers (am längsten überfällig zuerst).
+     * Die Karte wird kurz zurückgestellt, damit wiederholte Abrufe nicht dieselbe Frage liefern.
+     */
+    public Optional<Long> nextDueQuestion(String username, String category, Integer difficulty) {
+        QuestionCatalog catalog = catalogService.current();
+        long now = System.currentTimeMillis();
+
+        return withDeck(username, deck -> {
+            List<DueEntry> skipped = new ArrayList<>();
+            Long found = null;
+            for (int probe = 0; probe < MAX_FILTER_PROBES; probe++) {
+                DueEntry top = deck.peekValid();
+                if (top == null || top.dueAt() > now) {
+                    break;
+                }
+                deck.heap.poll();
+                Optional<CatalogQuestion> question = catalog.findById(top.questionId());
+                if (question.isEmpty()) {
+                    // Frage nicht im Katalog: Karte bleibt erhalten und wird beim nächsten Laden
+                    // des Stapels wieder eingeplant (nach einem Import mit der neuen Frage-ID)
+                    deck.scheduledAt.remove(top.questionId());
+                    continue;
+                }
+                if (matches(question.get(), category, difficulty)) {
+                    found = top.questionId();
+                    break;
+                }
+                skipped.add(top);
+            }
+            deck.heap.addAll(skipped);
+
+            if (found != null) {
+                // Nur im Speicher zurückstellen; gespeichert bleibt die echte Fälligkeit
+                deck.schedule(found, now + snooze.toMillis());
+            }
+            return Optional.ofNullable(found);
+        });
+    }
+
+    /**
+     * Verbucht eine Antwort und terminiert die Karte neu (SM-2, Qualität 4 bzw. 1)
+     */
+    public ReviewCard review(String username, long questionId, boolean correct) {
+        LocalDateTime now = LocalDateTime.now();
+
+        return withDeck(username, deck -> {
+            ReviewCard card = deck.cards.computeIfAbsent(questionId, id -> newCard(username, id, now));
+            applySm2(card, correct ? 4 : 1, now);
+            deck.schedule(questionId, toMillis(card.getDueAt()));
+            deck.dirty.add(questionId);
+            return card;
+        });
+    }
+
+    /**
+     * Anzahl aktuell fälliger Karten (für Statistiken; durchläuft nur den Stapel im Speicher)
+     */
+    public int countDue(String username) {
+        long now = System.currentTimeMillis();
+        return withDeck(username, deck -> {
+            int due = 0;
+            for (ReviewCard card : deck.cards.values()) {
+                if (toMillis(card.getDueAt()) <= now) {
+                    due++;
+                }
+            }
+            return due;
+        });
+    }
+
+    /**
+     * SM-2: Leichtigkeitsfaktor und Intervall anpassen; Leitner-Box begrenzt das Intervall
+     */
+    static void applySm2(ReviewCard card, int quality, LocalDateTime now) {
+        card.setAttempts(card.getAttempts() + 1);
+        card.setLastReviewedAt(now);
+
+        if (quality < 3) {
+            card.setRepetitions(0);
+            card.setIntervalDays(1);
+            card.setBox(1);
+        } else {
+            card.setCorrectAttempts(card.getCorrectAttempts() + 1);
+            card.setRepetitions(card.getRepetitions() + 1);
+            card.setBox(Math.min(MAX_BOX, card.getBox() + 1));
+            int interval;
+            if (card.getRepetitions() == 1) {
+                interval = 1;
+            } else if (card.getRepetitions() == 2) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(card.getIntervalDays() * card.getEaseFactor());
+            }
+            card.setIntervalDays(Math.max(1, Math.min(interval, BOX_MAX_DAYS[card.getBox()])));
+        }
+
+        double ease = card.getEaseFactor() + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
+        card.setEaseFactor(Math.max(MIN_EASE, ease));
+        card.setDueAt(now.plusDays(card.getIntervalDays()));
+    }
+
+    /**
+     * Speichert geänderte Karten aller Stapel und verdrängt lange ungenutzte Stapel
+     */
+    @Scheduled(fixedDelayString = "${spaced-repetition.flush-interval-ms:5000}")
+    public void flush() {
+        flushAndEvict(System.currentTimeMillis() - idleTimeout.toMillis());
+    }
+
+    /**
+     * Ordnet die Karten nach einem CSV-Import den gleichlautenden Fragen der neuen Version zu.
+     * Stapel im Speicher werden vorher gespeichert und verdrängt, damit sie mit den neuen
+     * Frage-IDs geladen werden; ein zweiter Durchlauf erfasst in der Zwischenzeit geladene Stapel.
+     *
+     * @return Anzahl umgeschriebener Karten
+     */
+    public int remapToCatalogVersion(Long version) {
+        flushAndEvict(Long.MAX_VALUE);
+        int remapped = cardRepository.remapToCatalogVersion(version);
+        flushAndEvict(Long.MAX_VALUE);
+        log.info("Lernkarten auf Version {} umgeschrieben: {}", version, remapped);
+        return remapped;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        decks.values().forEach(this::flushDeck);
+    }
+
+    /**
+     * Speichert alle Stapel und verdrängt die seit idleSince ungenutzten ohne offene Änderungen
+     */
+    private void flushAndEvict(long idleSince) {
+        for (Map.Entry<String, Deck> entry : decks.entrySet()) {
+            Deck deck = entry.getValue();
+            if (!flushDeck(deck)) {
+                continue;
+            }
+            synchronized (deck) {
+                // Nur ohne offene Änderungen verdrängen; wer den Stapel noch hält, lädt ihn neu
+                if (deck.dirty.isEmpty() && deck.lastAccess < idleSince) {
+                    deck.evicted = true;
+                    decks.remove(entry.getKey(), deck);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true, wenn der Stapel keine ungespeicherten Änderungen mehr hat
+     */
+    private boolean flushDeck(Deck deck) {
+        List<ReviewCard> live;
+        List<ReviewCard> copies;
+        synchronized (deck) {
+            if (deck.dirty.isEmpty()) {
+                return true;
+            }
+            live = new ArrayList<>(deck.dirty.size());
+            copies = new ArrayList<>(deck.dirty.size());
+            for (Long questionId : deck.dirty) {
+                ReviewCard card = deck.cards.get(questionId);
+                live.add(card);
+                copies.add(copy(card));
+            }
+            deck.dirty.clear();
+        }
+
+        try {
+            List<ReviewCard> saved = cardRepository.saveAll(copies);
+            synchronized (deck) {
+                // Vergebene IDs neuer Karten übernehmen
+                for (int i = 0; i < saved.size(); i++) {
+                    if (live.get(i).getId() == null) {
+                        live.get(i).setId(saved.get(i).getId());
+                    }
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            synchronized (deck) {
+                live.forEach(card -> deck.dirty.add(card.getQuestionId()));
+            }
+            log.warn("Lernkarten konnten nicht gespeichert werden: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Führt die Aktion unter dem Monitor des Stapels aus; ein gerade verdrängter
+     * Stapel wird frisch geladen und die Aktion wiederholt
+     */
+    private <T> T withDeck(String username, Function<Deck, T> action) {
+        while (true) {
+            Deck deck = deck(username);
+            synchronized (deck) {
+                if (!deck.evicted) {
+                    return action.apply(deck);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stapel aus dem Speicher oder einmalig aus der Datenbank
+     */
+    private Deck deck(String username) {
+        Deck deck = decks.computeIfAbsent(username, this::loadDeck);
+        deck.lastAccess = System.currentTimeMillis();
+        return deck;
+    }
+
+    private Deck loadDeck(String username) {
+        Deck deck = new Deck();
+        for (ReviewCard card : cardRepository.findByUsername(username)) {
+            deck.cards.put(card.getQuestionId(), card);
+            deck.schedule(card.getQuestionId(), toMillis(card.getDueAt()));
+        }
+        log.debug("Lernkarten von {} geladen: {}", username, deck.cards.size());
+        return deck;
+    }
+
+    private static boolean matches(CatalogQuestion question, String category, Integer difficulty) {
+        return (category == null || category.equals(question.category()))
+            && (difficulty == null || difficulty == question.difficulty());
+    }
+
+    private static ReviewCard newCard(String username, long questionId, LocalDateTime now) {
+        ReviewCard card = new ReviewCard();
+        card.setUsername(username);
+        card.setQuestionId(questionId);
+        card.setDueAt(now);
+        return card;
+    }
+
+    private static ReviewCard copy(ReviewCard card) {
+        return new ReviewCard(card.getId(), card.getUsername(), card.getQuestionId(), card.getBox(),
+                card.getRepetitions(), card.getEaseFactor(), card.getIntervalDays(), card.getDueAt(),
+                card.getLastReviewedAt(), card.getAttempts(), card.getCorrectAttempts());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
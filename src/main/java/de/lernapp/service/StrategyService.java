@@ -1,129 +1,184 @@
 package de.lernapp.service;
 
 import de.lernapp.model.*;
-import de.lernapp.repository.QuestionRepository;
-import lombok.RequiredArgsConstructor;
+import de.lernapp.repository.LearningStrategyRepository;
+import de.lernapp.service.catalog.CatalogQuestion;
+import de.lernapp.service.catalog.QuestionCatalog;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import de.lernapp.service.catalog.QuestionSampler;
+import de.lernapp.service.catalog.StrategyMix;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 /**
  * Service für die 60%-Erfolgsstrategie
  */
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class StrategyService {
     
-    private final QuestionRepository questionRepository;
+    private final QuestionCatalogService catalogService;
     private final UserService userService;
+    private final CategoryMasteryService categoryMastery;
+    private final LearningStrategyRepository strategyRepository;
+    
+    // Gespeicherte Strategie je Benutzer-ID: nur Aktiv-Status, Prioritäten und vorberechnete
+    // Gewichte (keine Entität, kein User); begrenzt nach LRU und mit fester TTL
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, CachedStrategy> strategies;
+    private final CachedStrategy defaultStrategy = cache(createDefaultStrategy(), Long.MAX_VALUE);
+    
+    // Alias-Tabellen je Prioritäten-Konfiguration für den aktuellen Katalog
+    private final Map<List<StrategyMix.Weight>, StrategyMix> mixes = new ConcurrentHashMap<>();
+    private volatile QuestionCatalog mixCatalog;
+    
+    public StrategyService(QuestionCatalogService catalogService,
+                           UserService userService,
+                           CategoryMasteryService categoryMastery,
+                           LearningStrategyRepository strategyRepository,
+                           @Value("${strategy.cache.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${strategy.cache.max-entries:10000}") int maxEntries) {
+        this.catalogService = catalogService;
+        this.userService = userService;
+        this.categoryMastery = categoryMastery;
+        this.strategyRepository = strategyRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        // access-order = true -> LRU-Reihenfolge
+        this.strategies = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedStrategy> eldest) {
+                return size() > StrategyService.this.maxEntries;
+            }
+        };
+    }
+    
+    /**
+     * Unveränderliche Sicht auf eine gespeicherte Strategie: Aktiv-Status, Kopie der Prioritäten
+     * und die daraus abgeleiteten Gewichte
+     */
+    private record CachedStrategy(boolean active, List<LearningStrategy.CategoryPriority> priorities,
+                                  List<StrategyMix.Weight> weights, long expiresAt) {
+    }
     
     /**
      * Aktiviert die 60%-Strategie für einen Benutzer
      */
     public LearningStrategy activateStrategy(User user) {
-        LearningStrategy strategy = new LearningStrategy();
-        strategy.setUser(user);
-        strategy.setName("60% Erfolgsstrategie - Post-RAID");
-        strategy.setPriorities(LearningStrategy.getDefaultPriorities());
+        LearningStrategy strategy = strategyRepository.findFirstByUserIdOrderByIdDesc(user.getId())
+            .orElseGet(() -> newStrategy(user));
         strategy.activate();
-        
-        // Speichere in User-Objekt (falls Feld vorhanden)
-        return strategy;
+        return store(user, strategy);
+    }
+    
+    /**
+     * Deaktiviert die Strategie eines Benutzers (wird auch ohne bisherige Strategie gespeichert)
+     */
+    public LearningStrategy deactivateStrategy(User user) {
+        LearningStrategy strategy = strategyRepository.findFirstByUserIdOrderByIdDesc(user.getId())
+            .orElseGet(() -> newStrategy(user));
+        strategy.deactivate();
+        return store(user, strategy);
+    }
+    
+    /**
+     * Ob für den Benutzer eine aktive Strategie gilt
+     */
+    @Transactional(readOnly = true)
+    public boolean isStrategyActive(User user) {
+        return cachedStrategy(user).active();
+    }
+    
+    /**
+     * Kategorien der höchsten Prioritätsstufe der Strategie des Benutzers
+     */
+    @Transactional(readOnly = true)
+    public List<String> getFocusCategories(User user) {
+        return cachedStrategy(user).priorities().stream()
+            .filter(p -> Integer.valueOf(1).equals(p.getPriority()))
+            .map(LearningStrategy.CategoryPriority::getCategory)
+            .collect(Collectors.toList());
     }
     
     /**
      * Holt Fragen basierend auf der 60%-Strategie
      */
     public List<Question> getStrategyQuestions(User user, int count) {
-        List<Question> allQuestions = questionRepository.findAll();
-        LearningStrategy strategy = getActiveStrategy(user);
+        QuestionCatalog catalog = catalogService.current();
+        CachedStrategy cached = cachedStrategy(user);
+        RandomGenerator random = QuestionSampler.random(null);
         
-        if (strategy == null || !strategy.isActive()) {
+        int[] positions;
+        if (!cached.active()) {
             // Normale zufällige Auswahl
-            Collections.shuffle(allQuestions);
-            return allQuestions.stream().limit(count).collect(Collectors.toList());
+            positions = QuestionSampler.sample(catalog.indices(null, null), count, random);
+        } else {
+            // Gewichtete Auswahl basierend auf Strategie
+            positions = selectWeightedQuestions(catalog, cached.weights(), count, random);
         }
         
-        // Gewichtete Auswahl basierend auf Strategie
-        return selectWeightedQuestions(allQuestions, strategy, count);
+        List<Question> questions = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            questions.add(catalog.get(position).toQuestion());
+        }
+        Collections.shuffle(questions);
+        return questions;
     }
     
     /**
-     * Gewichtete Fragenauswahl nach Priorität
+     * Gewichtete Fragenauswahl nach Priorität: 50 % aus Stufe 1, 35 % aus Stufe 2,
+     * Rest aus Stufe 3; innerhalb einer Stufe nach CategoryPriority.weight
      */
-    private List<Question> selectWeightedQuestions(List<Question> questions, LearningStrategy strategy, int count) {
-        Map<String, List<Question>> categoryMap = questions.stream()
-            .collect(Collectors.groupingBy(Question::getCategory));
-        
-        List<Question> selectedQuestions = new ArrayList<>();
+    private int[] selectWeightedQuestions(QuestionCatalog catalog, List<StrategyMix.Weight> weights,
+                                          int count, RandomGenerator random) {
+        int phase1Count = (int)(count * 0.5);
+        int phase2Count = (int)(count * 0.35);
+        int phase3Count = count - phase1Count - phase2Count;
         
-        // Phase 1: Höchste Priorität (Stufe 1)
-        int phase1Count = (int)(count * 0.5); // 50% der Fragen aus Stufe 1
-        selectedQuestions.addAll(selectFromPriority(categoryMap, strategy, 1, phase1Count));
+        Map<Integer, Integer> perPriority = new HashMap<>();
+        perPriority.put(1, phase1Count);
+        perPriority.put(2, phase2Count);
+        perPriority.put(3, phase3Count);
         
-        // Phase 2: Hohe Priorität (Stufe 2)
-        int phase2Count = (int)(count * 0.35); // 35% der Fragen aus Stufe 2
-        selectedQuestions.addAll(selectFromPriority(categoryMap, strategy, 2, phase2Count));
-        
-        // Phase 3: Sicherheitspuffer (Stufe 3)
-        int phase3Count = count - selectedQuestions.size(); // Rest aus Stufe 3
-        selectedQuestions.addAll(selectFromPriority(categoryMap, strategy, 3, phase3Count));
-        
-        Collections.shuffle(selectedQuestions);
-        return selectedQuestions;
+        return strategyMix(catalog, weights).draw(perPriority, random);
     }
     
     /**
-     * Wählt Fragen aus einer bestimmten Prioritätsstufe
+     * Vorberechnete Mischung für Katalog und Prioritäten; neu gebaut nur bei Änderungen
      */
-    private List<Question> selectFromPriority(Map<String, List<Question>> categoryMap, 
-                                              LearningStrategy strategy, 
-                                              int priority, 
-                                              int count) {
-        List<Question> priorityQuestions = new ArrayList<>();
-        
-        // Hole alle Kategorien dieser Priorität
-        List<LearningStrategy.CategoryPriority> priorities = strategy.getPriorities().stream()
-            .filter(p -> p.getPriority() == priority)
-            .collect(Collectors.toList());
-        
-        // Verteile die Anzahl gleichmäßig auf die Kategorien
-        int perCategory = Math.max(1, count / Math.max(1, priorities.size()));
-        
-        for (LearningStrategy.CategoryPriority catPriority : priorities) {
-            List<Question> catQuestions = categoryMap.get(catPriority.getCategory());
-            if (catQuestions != null && !catQuestions.isEmpty()) {
-                Collections.shuffle(catQuestions);
-                priorityQuestions.addAll(
-                    catQuestions.stream()
-                        .limit(perCategory)
-                        .collect(Collectors.toList())
-                );
-            }
+    private StrategyMix strategyMix(QuestionCatalog catalog, List<StrategyMix.Weight> key) {
+        if (mixCatalog != catalog) {
+            mixes.clear();
+            mixCatalog = catalog;
         }
-        
-        return priorityQuestions.stream().limit(count).collect(Collectors.toList());
+        StrategyMix mix = mixes.computeIfAbsent(key, k -> StrategyMix.build(catalog, k));
+        return mix.getCatalog() == catalog ? mix : StrategyMix.build(catalog, key);
     }
     
     /**
      * Berechnet Lernempfehlungen basierend auf der Strategie
      */
     public LearningRecommendation getRecommendation(User user) {
-        LearningStrategy strategy = getActiveStrategy(user);
-        if (strategy == null) {
+        CachedStrategy strategy = cachedStrategy(user);
+        if (!strategy.active()) {
             return getDefaultRecommendation();
         }
         
         LearningRecommendation recommendation = new LearningRecommendation();
         
         // Analysiere Benutzerfortschritt
-        Map<String, Integer> userProgress = analyzeUserProgress(user);
+        Map<String, CategoryMasteryService.CategoryProgress> mastery = categoryMastery.getProgress(user.getUsername());
+        Map<String, Integer> userProgress = analyzeUserProgress(mastery);
         
         // Erstelle Empfehlungen basierend auf Schwächen
-        for (LearningStrategy.CategoryPriority priority : strategy.getPriorities()) {
+        for (LearningStrategy.CategoryPriority priority : strategy.priorities()) {
             Integer correctRate = userProgress.get(priority.getCategory());
             if (correctRate == null || correctRate < 60) {
                 // Kategorie benötigt Fokus
@@ -134,7 +189,7 @@ public class StrategyService {
         }
         
         recommendation.setEstimatedTimeToGoal(calculateTimeToGoal(recommendation));
-        recommendation.setCurrentSuccessRate(calculateOverallRate(userProgress));
+        recommendation.setCurrentSuccessRate(CategoryMasteryService.overallPercent(mastery));
         
         return recommendation;
     }
@@ -143,7 +198,7 @@ public class StrategyService {
      * Quick-Win Fragen für schnelle Punkte
      */
     public List<Question> getQuickWinQuestions(User user, int count) {
-        List<Question> quickWins = questionRepository.findAll().stream()
+        List<Question> quickWins = loadCatalogQuestions().stream()
             .filter(q -> isQuickWin(q))
             .collect(Collectors.toList());
         
@@ -194,10 +249,90 @@ public class StrategyService {
     }
     
     // Hilfsmethoden
-    private LearningStrategy getActiveStrategy(User user) {
-        // TODO: Aus DB oder User-Objekt laden
+    
+    /**
+     * Frische, veränderbare Kopie aller Fragen aus dem In-Memory-Katalog
+     */
+    private List<Question> loadCatalogQuestions() {
+        return catalogService.current().list(null, null).stream()
+            .map(CatalogQuestion::toQuestion)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Gespeicherte Strategie des Benutzers aus dem Cache; ohne gespeicherte Strategie
+     * gilt die aktive Standardstrategie. Geladen wird außerhalb des Locks.
+     */
+    private CachedStrategy cachedStrategy(User user) {
+        if (user == null || user.getId() == null) {
+            return defaultStrategy;
+        }
+        Long userId = user.getId();
+        long now = System.currentTimeMillis();
+        synchronized (strategies) {
+            CachedStrategy cached = strategies.get(userId);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached;
+            }
+        }
+        CachedStrategy loaded = strategyRepository.findFirstByUserIdOrderByIdDesc(userId)
+            .map(strategy -> cache(strategy, now + ttlMillis))
+            .orElse(null);
+        synchronized (strategies) {
+            // Ein inzwischen nach Commit abgelegter Stand hat Vorrang vor dem hier geladenen.
+            // Ohne gespeicherte Strategie den Standard merken, damit nicht jede Anfrage nachlädt.
+            CachedStrategy current = strategies.get(userId);
+            if (current == null || current.expiresAt() <= now) {
+                strategies.put(userId, loaded != null ? loaded
+                    : new CachedStrategy(defaultStrategy.active(), defaultStrategy.priorities(),
+                            defaultStrategy.weights(), now + ttlMillis));
+            }
+        }
+        return loaded != null ? loaded : defaultStrategy;
+    }
+    
+    /**
+     * Speichert die Strategie; der Cache wird erst nach dem Commit aktualisiert, damit nie ein
+     * Stand ausgeliefert wird, der durch ein Rollback nicht mehr gilt
+     */
+    private LearningStrategy store(User user, LearningStrategy strategy) {
+        LearningStrategy saved = strategyRepository.save(strategy);
+        CachedStrategy cached = cache(saved, System.currentTimeMillis() + ttlMillis);
+        Long userId = user.getId();
+        AfterCommit.run(() -> {
+            synchronized (strategies) {
+                strategies.put(userId, cached);
+            }
+        });
+        return saved;
+    }
+    
+    private static CachedStrategy cache(LearningStrategy strategy, long expiresAt) {
+        List<LearningStrategy.CategoryPriority> priorities = strategy.getPriorities().stream()
+            .map(p -> new LearningStrategy.CategoryPriority(p.getCategory(), p.getPriority(),
+                    p.getTargetPoints(), p.getRecommendedHours(), p.getWeight()))
+            .collect(Collectors.toUnmodifiableList());
+        // Je Kategorie (ohne Groß-/Kleinschreibung) der Eintrag, den auch getPriorityForCategory liefert
+        Map<String, LearningStrategy.CategoryPriority> index = strategy.getPriorityIndex();
+        List<StrategyMix.Weight> weights = strategy.getPriorities().stream()
+            .filter(p -> p.getCategory() != null && p.getPriority() != null)
+            .filter(p -> index.get(p.getCategory().toLowerCase(Locale.ROOT)) == p)
+            .map(p -> new StrategyMix.Weight(p.getCategory(), p.getPriority(),
+                    p.getWeight() != null ? p.getWeight() : 1.0))
+            .collect(Collectors.toUnmodifiableList());
+        return new CachedStrategy(strategy.isActive(), priorities, weights, expiresAt);
+    }
+    
+    private static LearningStrategy newStrategy(User user) {
         LearningStrategy strategy = new LearningStrategy();
         strategy.setUser(user);
+        strategy.setName("60% Erfolgsstrategie - Post-RAID");
+        strategy.setPriorities(LearningStrategy.getDefaultPriorities());
+        return strategy;
+    }
+    
+    private static LearningStrategy createDefaultStrategy() {
+        LearningStrategy strategy = new LearningStrategy();
         strategy.setPriorities(LearningStrategy.getDefaultPriorities());
         strategy.setActive(true);
         return strategy;
@@ -212,13 +347,30 @@ public class StrategyService {
         return rec;
     }
     
-    private Map<String, Integer> analyzeUserProgress(User user) {
-        // TODO: Echte Analyse basierend auf beantworteten Fragen
+    /**
+     * Fortschritt je Strategie-Kategorie (Priorität, Quote richtiger Antworten, Versuche)
+     * aus dem gespeicherten Lernstand; es werden keine Fragen geladen
+     */
+    public Map<String, Map<String, Object>> getFocusAreaProgress(User user) {
+        Map<String, CategoryMasteryService.CategoryProgress> mastery = categoryMastery.getProgress(user.getUsername());
+        Map<String, Map<String, Object>> focusAreas = new LinkedHashMap<>();
+        for (LearningStrategy.CategoryPriority priority : cachedStrategy(user).priorities()) {
+            CategoryMasteryService.CategoryProgress progress = mastery.get(priority.getCategory());
+            Map<String, Object> area = new HashMap<>();
+            area.put("priority", priority.getPriority());
+            area.put("progress", progress != null ? progress.percent() : 0);
+            area.put("attempts", progress != null ? progress.attempts() : 0L);
+            focusAreas.put(priority.getCategory(), area);
+        }
+        return focusAreas;
+    }
+    
+    /**
+     * Quote richtiger Antworten je bereits geübter Kategorie
+     */
+    private Map<String, Integer> analyzeUserProgress(Map<String, CategoryMasteryService.CategoryProgress> mastery) {
         Map<String, Integer> progress = new HashMap<>();
-        progress.put("Projektmanagement", 45);
-        progress.put("PowerShell", 60);
-        progress.put("Netzwerktechnik", 30);
-        progress.put("IT-Sicherheit", 70);
+        mastery.forEach((category, p) -> progress.put(category, p.percent()));
         return progress;
     }
     
@@ -228,14 +380,6 @@ public class StrategyService {
             .sum();
     }
     
-    private double calculateOverallRate(Map<String, Integer> progress) {
-        if (progress.isEmpty()) return 0.0;
-        return progress.values().stream()
-            .mapToInt(Integer::intValue)
-            .average()
-            .orElse(0.0);
-    }
-    
     // Hilfsklassen
     public static class LearningRecommendation {
         private List<FocusArea> focusAreas = new ArrayList<>();
@@ -5,6 +5,7 @@ import de.lernapp.model.Role;
 import de.lernapp.model.Role.RoleName;
 import de.lernapp.repository.UserRepository;
 import de.lernapp.repository.RoleRepository;
+import de.lernapp.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import de.lernapp.dto.RegisterRequest;
 
@@ -32,6 +34,7 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -135,6 +138,30 @@ public class UserService implements UserDetailsService {
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        
+        // Gecachte Principals nach dem Commit verwerfen, falls sich Rollen, Status oder Passwort geändert haben;
+        // vorher würde ein paralleler Request den alten Stand erneut in den Cache laden
+        Set<String> roleNames = saved.getRoles().stream()
+                .map(role -> role.getName().name())
+                .collect(Collectors.toSet());
+        String username = saved.getUsername();
+        boolean enabled = saved.isEnabled();
+        String passwordHash = saved.getPassword();
+        AfterCommit.run(() -> principalCache.invalidateIfChanged(username, enabled, passwordHash, roleNames));
+        
+        return saved;
+    }
+    
+    /**
+     * Setzt ein neues Passwort und verwirft gecachte Principals des Users nach dem Commit
+     */
+    public User updatePassword(String username, String newPassword) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        user.setPassword(passwordEncoder.encode(newPassword));
+        User saved = userRepository.save(user);
+        AfterCommit.run(() -> principalCache.invalidate(username));
+        return saved;
     }
 }
\ No newline at end of file
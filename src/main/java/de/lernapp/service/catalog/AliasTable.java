@@ -0,0 +1,92 @@
+package de.lernapp.service.catalog;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Alias-Tabelle nach Walker/Vose für gewichtetes Ziehen in O(1)
+ * 
+ * Der Aufbau kostet O(n) für n Gewichte; danach wird je Zug ein Fach gleichverteilt
+ * gewählt und mit dessen Schwelle zwischen Fach und Alias entschieden.
+ * Die Tabelle ist unveränderlich und kann von mehreren Threads geteilt werden.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class AliasTable {
+    
+    private final double[] threshold;
+    private final int[] alias;
+    
+    private AliasTable(double[] threshold, int[] alias) {
+        this.threshold = threshold;
+        this.alias = alias;
+    }
+    
+    /**
+     * Baut die Tabelle; negative Gewichte zählen als 0
+     * 
+     * @return null, wenn kein Gewicht größer 0 ist
+     */
+    public static AliasTable of(double[] weights) {
+        int n = weights.length;
+        double sum = 0;
+        for (double weight : weights) {
+            sum += Math.max(0, weight);
+        }
+        if (n == 0 || sum <= 0) {
+            return null;
+        }
+        
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.max(0, weights[i]) * n / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        
+        double[] threshold = new double[n];
+        int[] alias = new int[n];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            threshold[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Reste (Rundungsfehler) sind volle Fächer
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            threshold[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            threshold[index] = 1.0;
+            alias[index] = index;
+        }
+        return new AliasTable(threshold, alias);
+    }
+    
+    /**
+     * Zieht einen Index proportional zu seinem Gewicht
+     */
+    public int sample(RandomGenerator random) {
+        int column = random.nextInt(threshold.length);
+        return random.nextDouble() < threshold[column] ? column : alias[column];
+    }
+    
+    public int size() {
+        return threshold.length;
+    }
+}
@@ -0,0 +1,49 @@
+package de.lernapp.service.catalog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Schreibt Katalogeinträge direkt mit dem Jackson-Streaming-Generator
+ *
+ * Ausgegeben werden nur die Felder von QuestionDTO (ohne Lösung, Erklärung, Tipps,
+ * Zeitstempel und Zähler). Es entstehen weder Entities noch DTO-Objekte; der
+ * Speicherbedarf ist unabhängig von der Anzahl der Fragen.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class CatalogJsonWriter {
+
+    private CatalogJsonWriter() {
+    }
+
+    /**
+     * Schreibt die Fragen positions[from..to) als JSON-Array
+     */
+    public static void writeArray(JsonGenerator generator, QuestionCatalog catalog,
+                                  int[] positions, int from, int to) throws IOException {
+        generator.writeStartArray();
+        for (int i = from; i < to; i++) {
+            writeQuestion(generator, catalog.get(positions[i]));
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Eine Frage in der Form von QuestionDTO
+     */
+    public static void writeQuestion(JsonGenerator generator, CatalogQuestion question) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", question.id());
+        generator.writeStringField("questionText", question.questionText());
+        generator.writeStringField("optionA", question.optionA());
+        generator.writeStringField("optionB", question.optionB());
+        generator.writeStringField("optionC", question.optionC());
+        generator.writeStringField("optionD", question.optionD());
+        generator.writeStringField("category", question.category());
+        generator.writeNumberField("difficulty", question.difficulty());
+        generator.writeNumberField("points", question.points());
+        generator.writeEndObject();
+    }
+}
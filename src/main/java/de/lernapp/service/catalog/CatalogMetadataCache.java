@@ -0,0 +1,113 @@
+package de.lernapp.service.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.lernapp.service.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeMap;
+
+/**
+ * Fertig serialisierte Katalog-Metadaten (Kategorien, Anzahl je Kategorie bzw. Tag) mit starkem ETag
+ * 
+ * Die Antworten werden je Katalogversion einmal als kompaktes JSON erzeugt. Die Version
+ * dient als Änderungszähler: Importe und Änderungen über den QuestionController lösen
+ * einen Neuaufbau des Katalogs und damit eine neue Version aus. Wiederholte Abfragen
+ * (z.B. Dashboards) liefern dieselben Bytes bzw. 304 bei passendem If-None-Match.
+ * Ein Neuaufbau zählt als Fehlgriff in lernapp.cache.requests{cache=catalog-metadata}.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Component
+public class CatalogMetadataCache {
+    
+    private final QuestionCatalogService catalogService;
+    private final ObjectWriter writer;
+    private final CacheStats cacheStats;
+    
+    private volatile Snapshot snapshot;
+    
+    public CatalogMetadataCache(QuestionCatalogService catalogService, ObjectMapper objectMapper,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.catalogService = catalogService;
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.cacheStats = CacheStats.register(
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new), "catalog-metadata");
+    }
+    
+    /**
+     * Serialisierte Antwort mit ETag (in Anführungszeichen, wie im Header)
+     */
+    public record Entry(byte[] body, String etag, int size) {
+    }
+    
+    private record Snapshot(long version, Entry categories, Entry categoriesWithCount, Entry tagsWithCount) {
+    }
+    
+    /**
+     * Alle Kategorien (alphabetisch) als JSON-Array
+     */
+    public Entry categories() {
+        return snapshot().categories();
+    }
+    
+    /**
+     * Kategorien mit Anzahl der Fragen als JSON-Objekt (alphabetisch)
+     */
+    public Entry categoriesWithCount() {
+        return snapshot().categoriesWithCount();
+    }
+    
+    /**
+     * Tags mit Anzahl der Fragen als JSON-Objekt (alphabetisch)
+     */
+    public Entry tagsWithCount() {
+        return snapshot().tagsWithCount();
+    }
+    
+    private Snapshot snapshot() {
+        QuestionCatalog catalog = catalogService.current();
+        Snapshot current = snapshot;
+        if (current == null || current.version() != catalog.getVersion()) {
+            cacheStats.miss();
+            // Gleichzeitige Neuberechnungen liefern identische Bytes; die letzte gewinnt
+            current = new Snapshot(catalog.getVersion(),
+                    entry(catalog.getCategories(), catalog.getCategories().size()),
+                    entry(new TreeMap<>(catalog.getCategoryCounts()), catalog.getCategoryCounts().size()),
+                    entry(catalog.getTags().getTagCounts(), catalog.getTags().getTagCounts().size()));
+            snapshot = current;
+        } else {
+            cacheStats.hit();
+        }
+        return current;
+    }
+    
+    private Entry entry(Object value, int size) {
+        try {
+            byte[] body = writer.writeValueAsBytes(value);
+            return new Entry(body, etag(body), size);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Katalog-Metadaten konnten nicht serialisiert werden", e);
+        }
+    }
+    
+    /**
+     * Starker ETag aus dem Inhalt, damit er auch über Neustarts hinweg stabil bleibt
+     */
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.lernapp.service.catalog;
+
+import de.lernapp.model.Question;
+
+/**
+ * Unveränderlicher, kompakter Eintrag einer Frage im In-Memory-Katalog
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public record CatalogQuestion(
+        long id,
+        String questionText,
+        String optionA,
+        String optionB,
+        String optionC,
+        String optionD,
+        String correctAnswer,
+        String category,
+        String topic,
+        String subtopic,
+        int difficulty,
+        String explanation,
+        String tags,
+        String tips,
+        String correction,
+        String source,
+        int points,
+        boolean active) {
+    
+    /**
+     * Erzeugt einen Katalogeintrag aus einer (geladenen) Entity
+     */
+    public static CatalogQuestion fromQuestion(Question question) {
+        return new CatalogQuestion(
+                question.getId(),
+                question.getQuestionText(),
+                question.getOptionA(),
+                question.getOptionB(),
+                question.getOptionC(),
+                question.getOptionD(),
+                question.getCorrectAnswer(),
+                question.getCategory(),
+                question.getTopic(),
+                question.getSubtopic(),
+                question.getDifficulty() != null ? question.getDifficulty() : 0,
+                question.getExplanation(),
+                question.getTags(),
+                question.getTips(),
+                question.getCorrection(),
+                question.getSource(),
+                question.getPoints() != null ? question.getPoints() : 10,
+                !Boolean.FALSE.equals(question.getActive()));
+    }
+    
+    /**
+     * Erzeugt eine losgelöste (nicht verwaltete) Question-Entity.
+     * Jeder Aufruf liefert eine neue Instanz, damit Aufrufer den Katalog nicht verändern können.
+     */
+    public Question toQuestion() {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText(questionText);
+        question.setOptionA(optionA);
+        question.setOptionB(optionB);
+        question.setOptionC(optionC);
+        question.setOptionD(optionD);
+        question.setCorrectAnswer(correctAnswer);
+        question.setCategory(category);
+        question.setTopic(topic);
+        question.setSubtopic(subtopic);
+        question.setDifficulty(difficulty);
+        question.setExplanation(explanation);
+        question.setTags(tags);
+        question.setTips(tips);
+        question.setCorrection(correction);
+        question.setSource(source);
+        question.setPoints(points);
+        question.setActive(active);
+        return question;
+    }
+    
+    /**
+     * Prüft ob eine gegebene Antwort korrekt ist
+     */
+    public boolean isCorrect(String answer) {
+        return correctAnswer != null && correctAnswer.equalsIgnoreCase(answer);
+    }
+}
@@ -0,0 +1,310 @@
+package de.lernapp.service.catalog;
+
+import java.util.*;
+
+/**
+ * Unveränderlicher, versionierter Schnappschuss aller Fragen.
+ * 
+ * Die Fragen liegen nach ID sortiert in einem Array; Kategorie-, Schwierigkeits-
+ * und Kategorie×Schwierigkeits-Indizes verweisen als int-Arrays auf Positionen
+ * in diesem Array. Ein Schnappschuss wird nie verändert, sondern bei Änderungen
+ * komplett ersetzt.
+ * 
+ * Zusätzlich liegt ein Antwortschlüssel (A-D als 0-3) positionsgleich als byte-Array
+ * vor, damit Prüfungen ohne Objektzugriffe je Frage bewertet werden können.
+ * 
+ * Die Tags der Fragen sind als TagIndex (Tag-ID → sortierte Positionen) hinterlegt.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class QuestionCatalog {
+    
+    public static final String UNKNOWN_CATEGORY = "Unbekannt";
+    
+    private static final int[] NO_INDICES = new int[0];
+    
+    /** Kein gültiger Antwortschlüssel (weder A, B, C noch D) */
+    public static final byte NO_ANSWER = -1;
+    
+    private final long version;
+    private final CatalogQuestion[] questions;
+    private final long[] ids;
+    private final byte[] answerKeys;
+    private final int[] allIndices;
+    private final Map<String, int[]> byCategory;
+    private final int[][] byDifficulty;
+    private final Map<String, int[][]> byCategoryAndDifficulty;
+    private final List<String> categories;
+    private final Map<String, Long> categoryCounts;
+    private final TagIndex tags;
+    
+    private QuestionCatalog(long version, CatalogQuestion[] questions) {
+        this.version = version;
+        this.questions = questions;
+        this.ids = new long[questions.length];
+        this.answerKeys = new byte[questions.length];
+        this.allIndices = new int[questions.length];
+        
+        int maxDifficulty = 0;
+        for (int i = 0; i < questions.length; i++) {
+            ids[i] = questions[i].id();
+            answerKeys[i] = encodeAnswer(questions[i].correctAnswer());
+            allIndices[i] = i;
+            maxDifficulty = Math.max(maxDifficulty, questions[i].difficulty());
+        }
+        
+        final int difficultySlots = maxDifficulty + 1;
+        
+        // Positionen sammeln
+        Map<String, List<Integer>> categoryLists = new TreeMap<>();
+        List<List<Integer>> difficultyLists = new ArrayList<>();
+        for (int d = 0; d < difficultySlots; d++) {
+            difficultyLists.add(new ArrayList<>());
+        }
+        Map<String, List<List<Integer>>> categoryDifficultyLists = new HashMap<>();
+        
+        for (int i = 0; i < questions.length; i++) {
+            String category = categoryKey(questions[i].category());
+            int difficulty = Math.max(0, questions[i].difficulty());
+            
+            categoryLists.computeIfAbsent(category, c -> new ArrayList<>()).add(i);
+            difficultyLists.get(difficulty).add(i);
+            
+            List<List<Integer>> perDifficulty = categoryDifficultyLists.computeIfAbsent(category, c -> {
+                List<List<Integer>> lists = new ArrayList<>(difficultySlots);
+                for (int d = 0; d < difficultySlots; d++) {
+                    lists.add(new ArrayList<>());
+                }
+                return lists;
+            });
+            perDifficulty.get(difficulty).add(i);
+        }
+        
+        // In kompakte Arrays überführen
+        Map<String, int[]> categoryIndex = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        categoryLists.forEach((category, positions) -> {
+            categoryIndex.put(category, toArray(positions));
+            counts.put(category, (long) positions.size());
+        });
+        this.byCategory = Collections.unmodifiableMap(categoryIndex);
+        this.categoryCounts = Collections.unmodifiableMap(counts);
+        this.categories = List.copyOf(categoryLists.keySet());
+        
+        this.byDifficulty = new int[difficultySlots][];
+        for (int d = 0; d < difficultySlots; d++) {
+            byDifficulty[d] = toArray(difficultyLists.get(d));
+        }
+        
+        Map<String, int[][]> categoryDifficultyIndex = new HashMap<>();
+        categoryDifficultyLists.forEach((category, lists) -> {
+            int[][] arrays = new int[lists.size()][];
+            for (int d = 0; d < lists.size(); d++) {
+                arrays[d] = toArray(lists.get(d));
+            }
+            categoryDifficultyIndex.put(category, arrays);
+        });
+        this.byCategoryAndDifficulty = Collections.unmodifiableMap(categoryDifficultyIndex);
+        this.tags = TagIndex.build(questions);
+    }
+    
+    /**
+     * Baut einen neuen Katalog. Die Fragen werden nach ID sortiert übernommen.
+     */
+    public static QuestionCatalog of(long version, Collection<CatalogQuestion> questions) {
+        CatalogQuestion[] sorted = questions.toArray(new CatalogQuestion[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(CatalogQuestion::id));
+        return new QuestionCatalog(version, sorted);
+    }
+    
+    /**
+     * Leerer Katalog (vor dem ersten Laden)
+     */
+    public static QuestionCatalog empty() {
+        return new QuestionCatalog(0, new CatalogQuestion[0]);
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public int size() {
+        return questions.length;
+    }
+    
+    public boolean isEmpty() {
+        return questions.length == 0;
+    }
+    
+    /**
+     * Frage an einer Position des Katalogs
+     */
+    public CatalogQuestion get(int index) {
+        return questions[index];
+    }
+    
+    /**
+     * Sucht eine Frage per Binärsuche über die sortierten IDs
+     */
+    public Optional<CatalogQuestion> findById(long id) {
+        int index = indexOf(id);
+        return index >= 0 ? Optional.of(questions[index]) : Optional.empty();
+    }
+    
+    /**
+     * Position einer Frage im Katalog oder -1
+     */
+    public int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+    
+    /**
+     * Keyset-Suche: erster Index in positions (aufsteigend, wie von indices geliefert),
+     * dessen Frage eine ID größer afterId hat; positions.length, wenn keine folgt
+     */
+    public int seekAfter(int[] positions, long afterId) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[positions[mid]] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Löst mehrere IDs in einem Durchgang auf; unbekannte IDs ergeben -1
+     */
+    public int[] positionsOf(long[] questionIds) {
+        int[] positions = new int[questionIds.length];
+        for (int i = 0; i < questionIds.length; i++) {
+            positions[i] = indexOf(questionIds[i]);
+        }
+        return positions;
+    }
+    
+    /**
+     * Antwortschlüssel (0-3 für A-D) der Frage an einer Position oder NO_ANSWER
+     */
+    public byte answerKey(int index) {
+        return answerKeys[index];
+    }
+    
+    /**
+     * Kodiert eine Antwort (A-D, Groß-/Kleinschreibung egal) als 0-3, sonst NO_ANSWER
+     */
+    public static byte encodeAnswer(String answer) {
+        if (answer == null) {
+            return NO_ANSWER;
+        }
+        String trimmed = answer.trim();
+        if (trimmed.length() != 1) {
+            return NO_ANSWER;
+        }
+        char letter = Character.toUpperCase(trimmed.charAt(0));
+        return letter >= 'A' && letter <= 'D' ? (byte) (letter - 'A') : NO_ANSWER;
+    }
+    
+    /**
+     * Positionen aller Fragen, die zu den (optionalen) Filtern passen.
+     * Das zurückgegebene Array ist intern und darf nicht verändert werden.
+     */
+    public int[] indices(String category, Integer difficulty) {
+        if (category != null && difficulty != null) {
+            int[][] perDifficulty = byCategoryAndDifficulty.get(category);
+            if (perDifficulty == null || difficulty < 0 || difficulty >= perDifficulty.length) {
+                return NO_INDICES;
+            }
+            return perDifficulty[difficulty];
+        }
+        if (category != null) {
+            return byCategory.getOrDefault(category, NO_INDICES);
+        }
+        if (difficulty != null) {
+            if (difficulty < 0 || difficulty >= byDifficulty.length) {
+                return NO_INDICES;
+            }
+            return byDifficulty[difficulty];
+        }
+        return allIndices;
+    }
+    
+    /**
+     * Positionen aller Fragen mit sämtlichen Tags, optional eingeschränkt auf eine Kategorie
+     * und eine Höchstschwierigkeit (einschließlich). Ohne Tags wirken nur die übrigen Filter.
+     * Das zurückgegebene Array kann intern sein und darf nicht verändert werden.
+     */
+    public int[] taggedIndices(Collection<String> tagFilter, String category, Integer maxDifficulty) {
+        int[] positions = tags.intersect(tagFilter);
+        if (positions == null) {
+            positions = indices(category, null);
+        } else if (category != null) {
+            int[] inCategory = byCategory.getOrDefault(category, NO_INDICES);
+            positions = positions.length <= inCategory.length
+                ? TagIndex.intersect(positions, inCategory)
+                : TagIndex.intersect(inCategory, positions);
+        }
+        if (maxDifficulty == null || positions.length == 0) {
+            return positions;
+        }
+        
+        int[] filtered = new int[positions.length];
+        int count = 0;
+        for (int position : positions) {
+            if (questions[position].difficulty() <= maxDifficulty) {
+                filtered[count++] = position;
+            }
+        }
+        return count == positions.length ? positions : Arrays.copyOf(filtered, count);
+    }
+    
+    /**
+     * Tag-Wörterbuch dieses Katalogs
+     */
+    public TagIndex getTags() {
+        return tags;
+    }
+    
+    /**
+     * Liefert die Fragen zu den Filtern als Liste
+     */
+    public List<CatalogQuestion> list(String category, Integer difficulty) {
+        int[] positions = indices(category, difficulty);
+        List<CatalogQuestion> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(questions[position]);
+        }
+        return result;
+    }
+    
+    /**
+     * Alle Kategorien (alphabetisch sortiert)
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Anzahl Fragen je Kategorie
+     */
+    public Map<String, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+    
+    public static String categoryKey(String category) {
+        return category != null ? category : UNKNOWN_CATEGORY;
+    }
+    
+    private static int[] toArray(List<Integer> positions) {
+        int[] result = new int[positions.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = positions.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package de.lernapp.service.catalog;
+
+/**
+ * Wird veröffentlicht, wenn sich der Fragenbestand geändert hat
+ * (Import, Anlegen, Bearbeiten oder Löschen einer Frage).
+ * Der Katalog wird nach dem Commit der auslösenden Transaktion neu aufgebaut.
+ * 
+ * @param source kurze Beschreibung der Änderung (nur für Logging)
+ */
+public record QuestionCatalogChangedEvent(String source) {
+}
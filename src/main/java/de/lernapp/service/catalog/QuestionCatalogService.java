@@ -0,0 +1,114 @@
+package de.lernapp.service.catalog;
+
+import de.lernapp.model.CatalogVersion;
+import de.lernapp.model.Question;
+import de.lernapp.repository.CatalogVersionRepository;
+import de.lernapp.repository.QuestionRepository;
+import de.lernapp.service.QuestionStatsCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hält den aktuellen In-Memory-Fragenkatalog.
+ * 
+ * Lesende Zugriffe arbeiten ausschließlich auf dem jeweils aktuellen, unveränderlichen
+ * Schnappschuss. Nach Importen und Änderungen über die API wird der Katalog einmal
+ * aus der Datenbank geladen und atomar ausgetauscht.
+ * 
+ * Gibt es eine aktive Version des Fragenbestands (Blue/Green-Import), enthält der
+ * Katalog nur deren Fragen; noch laufende Importe (STAGING) bleiben unsichtbar.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionCatalogService {
+    
+    private final QuestionRepository questionRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final QuestionStatsCounters questionStats;
+    
+    private final AtomicLong versionCounter = new AtomicLong();
+    
+    private volatile QuestionCatalog catalog;
+    
+    /**
+     * Aktueller Katalog; wird beim ersten Zugriff geladen
+     */
+    public QuestionCatalog current() {
+        QuestionCatalog snapshot = catalog;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = catalog;
+                if (snapshot == null) {
+                    snapshot = rebuild();
+                }
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Aktive Version des Fragenbestands; null, solange noch kein versionierter Import lief
+     */
+    @Transactional(readOnly = true)
+    public Long activeVersion() {
+        return catalogVersionRepository.findFirstByStatusOrderByIdDesc(CatalogVersion.Status.ACTIVE)
+            .map(CatalogVersion::getId)
+            .orElse(null);
+    }
+    
+    /**
+     * Lädt die Fragen der aktiven Version und tauscht den Katalog atomar aus
+     */
+    @Transactional(readOnly = true)
+    public synchronized QuestionCatalog rebuild() {
+        long start = System.currentTimeMillis();
+        
+        Long activeVersion = activeVersion();
+        // Gespeicherte Zähler dienen als Basis für die Live-Werte der Fragenstatistik.
+        // Ohne aktive Version gilt nur der Altbestand - Zeilen eines laufenden Imports bleiben unsichtbar.
+        List<Question> questions = questionStats.reseed(() -> activeVersion != null
+            ? questionRepository.findByCatalogVersion(activeVersion)
+            : questionRepository.findByCatalogVersionIsNull());
+        List<CatalogQuestion> entries = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            entries.add(CatalogQuestion.fromQuestion(question));
+        }
+        
+        QuestionCatalog snapshot = QuestionCatalog.of(versionCounter.incrementAndGet(), entries);
+        catalog = snapshot;
+        
+        log.info("Fragenkatalog v{} aufgebaut: {} Fragen in {} Kategorien ({} ms)",
+                snapshot.getVersion(), snapshot.size(), snapshot.getCategories().size(),
+                System.currentTimeMillis() - start);
+        return snapshot;
+    }
+    
+    /**
+     * Wärmt den Katalog nach dem Start (und nach den Import-Runnern) auf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+    
+    /**
+     * Baut den Katalog nach Commit der ändernden Transaktion neu auf
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(QuestionCatalogChangedEvent event) {
+        log.debug("Fragenbestand geändert ({}), baue Katalog neu auf", event.source());
+        rebuild();
+    }
+}
@@ -0,0 +1,64 @@
+package de.lernapp.service.catalog;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zieht k verschiedene Positionen aus einem dichten Index-Array ohne Zurücklegen.
+ * 
+ * Verwendet einen "sparse" Fisher-Yates-Shuffle: nur die tatsächlich vertauschten
+ * Plätze werden in einer Map gemerkt. Laufzeit und Speicher sind damit O(k),
+ * unabhängig von der Größe des Katalogs; das Quell-Array wird nicht verändert.
+ * 
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class QuestionSampler {
+    
+    private QuestionSampler() {
+    }
+    
+    /**
+     * Zufallsgenerator für eine Anfrage: mit Seed reproduzierbar, sonst thread-lokal
+     */
+    public static RandomGenerator random(Long seed) {
+        return seed != null ? new SplittableRandom(seed) : ThreadLocalRandom.current();
+    }
+    
+    /**
+     * Zieht bis zu k verschiedene Einträge aus positions
+     * 
+     * @return die gezogenen Einträge in Ziehungsreihenfolge (Länge min(k, positions.length))
+     */
+    public static int[] sample(int[] positions, int k, RandomGenerator random) {
+        int n = positions.length;
+        int count = Math.max(0, Math.min(k, n));
+        int[] result = new int[count];
+        if (count == 0) {
+            return result;
+        }
+        
+        // Virtuelle Vertauschungen: Platz -> aktueller Inhalt (Platz i enthält sonst i)
+        Map<Integer, Integer> swapped = new HashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int atI = swapped.getOrDefault(i, i);
+            int atJ = swapped.getOrDefault(j, j);
+            swapped.put(j, atI);
+            result[i] = positions[atJ];
+        }
+        return result;
+    }
+    
+    /**
+     * Zieht eine einzelne Position oder -1 bei leerem Array
+     */
+    public static int sampleOne(int[] positions, RandomGenerator random) {
+        if (positions.length == 0) {
+            return -1;
+        }
+        return positions[random.nextInt(positions.length)];
+    }
+}
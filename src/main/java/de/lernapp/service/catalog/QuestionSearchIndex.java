@@ -0,0 +1,383 @@
+package de.lernapp.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Invertierter Volltextindex über Fragetext, Antwortoptionen, Thema, Tags und Erklärung
+ *
+ * Je Begriff liegt eine nach Frage-ID sortierte Postingliste mit feldgewichteter
+ * Häufigkeit. Eine Suche schneidet die Listen der Anfragebegriffe (der letzte Begriff
+ * gilt als Präfix) und bewertet die Treffer mit Gewicht x IDF; es wird keine Frage
+ * geladen und kein LIKE ausgeführt.
+ *
+ * Der Index folgt dem Fragenkatalog: Nach einem Neuaufbau werden alter und neuer
+ * Katalog nach ID abgeglichen und nur geänderte Fragen neu zerlegt. Bei großen
+ * Änderungen (z.B. Import) wird der Index komplett neu aufgebaut.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+@Component
+@Slf4j
+public class QuestionSearchIndex {
+
+    private static final float WEIGHT_TEXT = 3f;
+    private static final float WEIGHT_TOPIC = 2f;
+    private static final float WEIGHT_OPTION = 1f;
+    private static final float WEIGHT_EXPLANATION = 1f;
+
+    /** Maximal ausgewertete Begriffe je Präfix (die häufigsten) */
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    /** Kürzere Präfixe werden nur exakt gesucht, statt große Teile des Wörterbuchs zu durchlaufen */
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    /** Ab diesem Anteil geänderter Fragen wird komplett neu aufgebaut */
+    private static final double FULL_REBUILD_RATIO = 0.1;
+
+    private final QuestionCatalogService catalogService;
+
+    // Nach der Veröffentlichung unverändert; Abgleich und Neuaufbau tauschen das ganze Wörterbuch
+    private volatile NavigableMap<String, Postings> terms = new TreeMap<>();
+    private volatile QuestionCatalog indexed;
+    private volatile int documentCount;
+
+    public QuestionSearchIndex(QuestionCatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * Treffer mit Relevanz (größer = besser)
+     */
+    public record SearchHit(long questionId, float score) {
+    }
+
+    /**
+     * Postingliste eines Begriffs (unveränderlich, nach ID sortiert)
+     */
+    private record Postings(long[] ids, float[] weights) {
+        static final Postings EMPTY = new Postings(new long[0], new float[0]);
+    }
+
+    /**
+     * Sucht Fragen, die alle Begriffe der Anfrage enthalten; der letzte Begriff
+     * wird als Präfix behandelt, solange die Anfrage nicht mit einem Leerzeichen endet
+     */
+    public List<SearchHit> search(String query, int limit) {
+        ensureCurrent();
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+        int n = Math.max(1, documentCount);
+        NavigableMap<String, Postings> dictionary = terms;
+
+        List<Postings> lists = new ArrayList<>(tokens.size());
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            Postings postings = (prefixLast && t == tokens.size() - 1)
+                ? prefix(dictionary, token, n)
+                : exact(dictionary, token, n);
+            if (postings.ids().length == 0) {
+                return List.of();
+            }
+            lists.add(postings);
+        }
+
+        // Kürzeste Liste zuerst schneiden
+        lists.sort(Comparator.comparingInt(p -> p.ids().length));
+        long[] ids = lists.get(0).ids();
+        float[] scores = lists.get(0).weights().clone();
+        int size = ids.length;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            Postings other = lists.get(l);
+            long[] keptIds = new long[size];
+            float[] keptScores = new float[size];
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < size && from < other.ids().length; i++) {
+                int found = Arrays.binarySearch(other.ids(), from, other.ids().length, ids[i]);
+                if (found >= 0) {
+                    keptIds[kept] = ids[i];
+                    keptScores[kept] = scores[i] + other.weights()[found];
+                    kept++;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            ids = keptIds;
+            scores = keptScores;
+            size = kept;
+        }
+
+        // Top-k über einen Min-Heap
+        Comparator<SearchHit> byRank = Comparator.comparingDouble(SearchHit::score)
+            .thenComparing(Comparator.comparingLong(SearchHit::questionId).reversed());
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.min(limit, size) + 1, byRank);
+        for (int i = 0; i < size; i++) {
+            top.add(new SearchHit(ids[i], scores[i]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(byRank.reversed());
+        return hits;
+    }
+
+    /**
+     * Anzahl Begriffe im Index (für Statistiken)
+     */
+    public int getTermCount() {
+        ensureCurrent();
+        return terms.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady() {
+        ensureCurrent();
+    }
+
+    /**
+     * Nach Änderungen nachziehen; läuft dieser Listener vor dem Katalog-Neuaufbau,
+     * holt die nächste Suche den Abgleich nach
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogChanged(QuestionCatalogChangedEvent event) {
+        ensureCurrent();
+    }
+
+    private static Postings exact(NavigableMap<String, Postings> dictionary, String term, int n) {
+        Postings postings = dictionary.get(term);
+        return postings != null ? scaled(postings, idf(n, postings.ids().length)) : Postings.EMPTY;
+    }
+
+    /**
+     * Vereinigung der häufigsten Begriffe mit dem Präfix; je Frage zählt der beste Begriff
+     */
+    private static Postings prefix(NavigableMap<String, Postings> dictionary, String prefix, int n) {
+        if (prefix.length() < MIN_PREFIX_LENGTH) {
+            return exact(dictionary, prefix, n);
+        }
+        // Min-Heap nach Dokumentfrequenz, bei Gleichstand verliert der alphabetisch spätere Begriff
+        Comparator<Map.Entry<String, Postings>> byFrequency = Comparator
+            .comparingInt((Map.Entry<String, Postings> entry) -> entry.getValue().ids().length)
+            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<String, Postings>> frequent = new PriorityQueue<>(MAX_PREFIX_TERMS + 1, byFrequency);
+        for (Map.Entry<String, Postings> entry
+                : dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            frequent.add(entry);
+            if (frequent.size() > MAX_PREFIX_TERMS) {
+                frequent.poll();
+            }
+        }
+        if (frequent.size() <= 1) {
+            return frequent.isEmpty() ? Postings.EMPTY : exact(dictionary, frequent.peek().getKey(), n);
+        }
+        Map<Long, Float> best = new HashMap<>();
+        for (Map.Entry<String, Postings> entry : frequent) {
+            Postings postings = entry.getValue();
+            float idf = idf(n, postings.ids().length);
+            for (int i = 0; i < postings.ids().length; i++) {
+                best.merge(postings.ids()[i], postings.weights()[i] * idf, Math::max);
+            }
+        }
+        long[] ids = best.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        float[] weights = new float[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            weights[i] = best.get(ids[i]);
+        }
+        return new Postings(ids, weights);
+    }
+
+    private static Postings scaled(Postings postings, float factor) {
+        float[] weights = new float[postings.weights().length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = postings.weights()[i] * factor;
+        }
+        return new Postings(postings.ids(), weights);
+    }
+
+    private static float idf(int documents, int frequency) {
+        return (float) Math.log(1.0 + (double) documents / Math.max(1, frequency));
+    }
+
+    /**
+     * Gleicht den Index mit dem aktuellen Katalog ab
+     */
+    private void ensureCurrent() {
+        QuestionCatalog catalog = catalogService.current();
+        if (indexed == catalog) {
+            return;
+        }
+        synchronized (this) {
+            if (indexed == catalog) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            QuestionCatalog previous = indexed;
+            int changed = previous == null ? -1 : applyChanges(previous, catalog);
+            if (changed < 0) {
+                rebuild(catalog);
+                changed = catalog.size();
+            }
+            indexed = catalog;
+            documentCount = catalog.size();
+            log.info("Suchindex für Katalog v{} aktualisiert: {} Fragen neu zerlegt, {} Begriffe ({} ms)",
+                    catalog.getVersion(), changed, terms.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Baut den Index vollständig aus dem Katalog (IDs kommen aufsteigend)
+     */
+    private void rebuild(QuestionCatalog catalog) {
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        for (int i = 0; i < catalog.size(); i++) {
+            CatalogQuestion question = catalog.get(i);
+            termWeights(question).forEach((term, weight) ->
+                builders.computeIfAbsent(term, t -> new PostingsBuilder()).add(question.id(), weight));
+        }
+        NavigableMap<String, Postings> dictionary = new TreeMap<>();
+        builders.forEach((term, builder) -> dictionary.put(term, builder.build()));
+        terms = dictionary;
+    }
+
+    /**
+     * Übernimmt nur geänderte Fragen; die Änderungen werden auf einer Kopie des Wörterbuchs
+     * gesammelt und mit einer Zuweisung sichtbar, sodass keine Suche einen halben Stand sieht
+     *
+     * @return Anzahl neu zerlegter Fragen oder -1, wenn ein kompletter Neuaufbau günstiger ist
+     */
+    private int applyChanges(QuestionCatalog previous, QuestionCatalog current) {
+        List<CatalogQuestion> removed = new ArrayList<>();
+        List<CatalogQuestion> added = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < previous.size() || j < current.size()) {
+            CatalogQuestion before = i < previous.size() ? previous.get(i) : null;
+            CatalogQuestion after = j < current.size() ? current.get(j) : null;
+            if (after == null || (before != null && before.id() < after.id())) {
+                removed.add(before);
+                i++;
+            } else if (before == null || after.id() < before.id()) {
+                added.add(after);
+                j++;
+            } else {
+                if (!before.equals(after)) {
+                    removed.add(before);
+                    added.add(after);
+                }
+                i++;
+                j++;
+            }
+        }
+        int touched = Math.max(removed.size(), added.size());
+        if (touched > Math.max(16, current.size() * FULL_REBUILD_RATIO)) {
+            return -1;
+        }
+
+        // Änderungen je Begriff sammeln, damit jede Postingliste nur einmal kopiert wird
+        Map<String, TreeMap<Long, Float>> changes = new HashMap<>();
+        for (CatalogQuestion question : removed) {
+            for (String term : termWeights(question).keySet()) {
+                changes.computeIfAbsent(term, t -> new TreeMap<>()).put(question.id(), null);
+            }
+        }
+        for (CatalogQuestion question : added) {
+            termWeights(question).forEach((term, weight) ->
+                changes.computeIfAbsent(term, t -> new TreeMap<>()).put(question.id(), weight));
+        }
+        NavigableMap<String, Postings> dictionary = new TreeMap<>(terms);
+        changes.forEach((term, delta) -> {
+            Postings old = dictionary.getOrDefault(term, Postings.EMPTY);
+            TreeMap<Long, Float> merged = new TreeMap<>();
+            for (int k = 0; k < old.ids().length; k++) {
+                merged.put(old.ids()[k], old.weights()[k]);
+            }
+            delta.forEach((id, weight) -> {
+                if (weight == null) {
+                    merged.remove(id);
+                } else {
+                    merged.put(id, weight);
+                }
+            });
+            if (merged.isEmpty()) {
+                dictionary.remove(term);
+            } else {
+                PostingsBuilder builder = new PostingsBuilder();
+                merged.forEach(builder::add);
+                dictionary.put(term, builder.build());
+            }
+        });
+        terms = dictionary;
+        return touched;
+    }
+
+    /**
+     * Feldgewichtete, gedämpfte Häufigkeit je Begriff einer Frage
+     */
+    static Map<String, Float> termWeights(CatalogQuestion question) {
+        Map<String, Float> raw = new HashMap<>();
+        addField(raw, question.questionText(), WEIGHT_TEXT);
+        addField(raw, question.category(), WEIGHT_TOPIC);
+        addField(raw, question.topic(), WEIGHT_TOPIC);
+        addField(raw, question.subtopic(), WEIGHT_TOPIC);
+        addField(raw, question.tags(), WEIGHT_TOPIC);
+        addField(raw, question.optionA(), WEIGHT_OPTION);
+        addField(raw, question.optionB(), WEIGHT_OPTION);
+        addField(raw, question.optionC(), WEIGHT_OPTION);
+        addField(raw, question.optionD(), WEIGHT_OPTION);
+        addField(raw, question.explanation(), WEIGHT_EXPLANATION);
+        raw.replaceAll((term, sum) -> (float) (1.0 + Math.log(sum)));
+        return raw;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Wachsende Postingliste; IDs müssen aufsteigend hinzugefügt werden
+     */
+    private static final class PostingsBuilder {
+        long[] ids = new long[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(ids, size), Arrays.copyOf(weights, size));
+        }
+    }
+}
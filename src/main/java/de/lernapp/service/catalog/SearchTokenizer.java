@@ -0,0 +1,83 @@
+package de.lernapp.service.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Zerlegt Texte in Suchbegriffe für den Volltextindex
+ *
+ * Kleinschreibung, deutsche Faltung (ä→ae, ö→oe, ü→ue, ß→ss), übrige Akzente werden
+ * entfernt. Getrennt wird an allem, was kein Buchstabe oder keine Ziffer ist; sehr kurze
+ * Wörter und häufige Füllwörter entfallen. Index und Suchanfrage nutzen dieselbe Faltung,
+ * sodass "Prüfung", "PRUEFUNG" und "pruefung" denselben Begriff ergeben.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class SearchTokenizer {
+
+    private static final int MIN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "der", "die", "das", "den", "dem", "des", "ein", "eine", "einer", "eines", "einem", "einen",
+        "und", "oder", "ist", "sind", "zu", "zum", "zur", "von", "mit", "fuer", "im", "in", "an",
+        "am", "auf", "bei", "aus", "als", "wie", "was", "welche", "welcher", "welches", "nicht",
+        "es", "sich", "the", "of", "and", "to"
+    );
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Gefaltete Begriffe in Textreihenfolge (mit Wiederholungen)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i);
+                if (token.length() >= MIN_LENGTH && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Kleinschreibung und deutsche Faltung eines Textes
+     */
+    public static String fold(String text) {
+        String lower = text.toLowerCase(Locale.GERMAN);
+        StringBuilder folded = new StringBuilder(lower.length() + 8);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ä' -> folded.append("ae");
+                case 'ö' -> folded.append("oe");
+                case 'ü' -> folded.append("ue");
+                case 'ß' -> folded.append("ss");
+                default -> folded.append(c);
+            }
+        }
+        String result = folded.toString();
+        // Sonstige Akzente (é, à, ...) nur bei Bedarf entfernen
+        for (int i = 0; i < result.length(); i++) {
+            if (result.charAt(i) > 0x7f) {
+                return Normalizer.normalize(result, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return result;
+    }
+}
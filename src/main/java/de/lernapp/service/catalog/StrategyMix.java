@@ -0,0 +1,179 @@
+package de.lernapp.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Vorberechnete Fragenmischung einer Lernstrategie über einem Katalog
+ *
+ * Je Prioritätsstufe liegt eine Alias-Tabelle über den Kategorien (gewichtet mit
+ * CategoryPriority.weight). Ein Zug wählt in O(1) eine Kategorie und darin per
+ * "sparse" Fisher-Yates eine noch nicht gezogene Frage; count Fragen kosten so O(count),
+ * ohne Listen zu kopieren oder zu mischen. Die Mischung ist unveränderlich und wird nur
+ * neu gebaut, wenn sich Katalog oder Prioritäten ändern.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class StrategyMix {
+
+    /**
+     * Gewichtung einer Kategorie (Schlüssel für den Cache der Mischungen)
+     */
+    public record Weight(String category, int priority, double weight) {
+    }
+
+    /**
+     * Eine Prioritätsstufe: Kategorien mit ihren Fragenpositionen und Gewichten
+     */
+    private record Tier(int priority, int[][] positions, double[] weights, AliasTable table, int available) {
+    }
+
+    private final QuestionCatalog catalog;
+    private final List<Tier> tiers;
+
+    private StrategyMix(QuestionCatalog catalog, List<Tier> tiers) {
+        this.catalog = catalog;
+        this.tiers = tiers;
+    }
+
+    /**
+     * Baut die Mischung; Kategorien ohne Fragen oder ohne Gewicht entfallen.
+     * Kategorien werden wie in LearningStrategy.getPriorityIndex ohne Beachtung der
+     * Groß-/Kleinschreibung zugeordnet; kommt eine Kategorie mehrfach vor, gilt ihr erster Eintrag.
+     */
+    public static StrategyMix build(QuestionCatalog catalog, List<Weight> weights) {
+        Map<String, List<String>> catalogCategories = new HashMap<>();
+        for (String category : catalog.getCategories()) {
+            catalogCategories.computeIfAbsent(key(category), k -> new ArrayList<>()).add(category);
+        }
+
+        Map<Integer, List<Weight>> byPriority = new LinkedHashMap<>();
+        Map<String, Boolean> seen = new HashMap<>();
+        for (Weight weight : weights) {
+            if (seen.putIfAbsent(key(weight.category()), Boolean.TRUE) == null) {
+                byPriority.computeIfAbsent(weight.priority(), p -> new ArrayList<>()).add(weight);
+            }
+        }
+
+        List<Tier> tiers = new ArrayList<>();
+        byPriority.keySet().stream().sorted().forEach(priority -> {
+            List<int[]> positions = new ArrayList<>();
+            List<Double> tierWeights = new ArrayList<>();
+            int available = 0;
+            for (Weight weight : byPriority.get(priority)) {
+                int[] indices = indices(catalog, catalogCategories.getOrDefault(key(weight.category()), List.of()));
+                if (indices.length > 0 && weight.weight() > 0) {
+                    positions.add(indices);
+                    tierWeights.add(weight.weight());
+                    available += indices.length;
+                }
+            }
+            double[] w = tierWeights.stream().mapToDouble(Double::doubleValue).toArray();
+            tiers.add(new Tier(priority, positions.toArray(new int[0][]), w, AliasTable.of(w), available));
+        });
+        return new StrategyMix(catalog, tiers);
+    }
+
+    private static String key(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Positionen aller Katalogkategorien, die sich nur in der Schreibweise unterscheiden
+     */
+    private static int[] indices(QuestionCatalog catalog, List<String> categories) {
+        if (categories.size() == 1) {
+            return catalog.indices(categories.get(0), null);
+        }
+        int[] merged = new int[0];
+        for (String category : categories) {
+            int[] positions = catalog.indices(category, null);
+            int from = merged.length;
+            merged = Arrays.copyOf(merged, from + positions.length);
+            System.arraycopy(positions, 0, merged, from, positions.length);
+        }
+        return merged;
+    }
+
+    public QuestionCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Zieht Fragen je Stufe ohne Duplikate. Reicht eine Stufe nicht aus, geht der
+     * Rest auf die nächste Stufe über.
+     *
+     * @param perPriority gewünschte Anzahl je Priorität (1, 2, 3, ...)
+     * @return Katalogpositionen in Ziehungsreihenfolge
+     */
+    public int[] draw(Map<Integer, Integer> perPriority, RandomGenerator random) {
+        int requested = perPriority.values().stream().mapToInt(Integer::intValue).sum();
+        int[] result = new int[requested];
+        int filled = 0;
+        int carry = 0;
+        for (Tier tier : tiers) {
+            int wanted = perPriority.getOrDefault(tier.priority(), 0) + carry;
+            int drawn = drawFromTier(tier, Math.min(wanted, requested - filled), result, filled, random);
+            filled += drawn;
+            carry = wanted - drawn;
+        }
+        return filled == result.length ? result : Arrays.copyOf(result, filled);
+    }
+
+    private static int drawFromTier(Tier tier, int wanted, int[] result, int offset, RandomGenerator random) {
+        if (tier.table() == null || wanted <= 0) {
+            return 0;
+        }
+        if (wanted >= tier.available()) {
+            // Ganze Stufe: alle Fragen übernehmen
+            int filled = offset;
+            for (int[] positions : tier.positions()) {
+                System.arraycopy(positions, 0, result, filled, positions.length);
+                filled += positions.length;
+            }
+            return tier.available();
+        }
+
+        int categories = tier.positions().length;
+        int[] drawnPerCategory = new int[categories];
+        @SuppressWarnings("unchecked")
+        Map<Integer, Integer>[] swapped = new Map[categories];
+        AliasTable table = tier.table();
+        double[] weights = null; // Kopie erst, wenn eine Kategorie erschöpft ist
+
+        for (int i = 0; i < wanted; i++) {
+            int category = table.sample(random);
+            int[] positions = tier.positions()[category];
+            int n = positions.length;
+            int k = drawnPerCategory[category]++;
+
+            // Sparse Fisher-Yates innerhalb der Kategorie (wie QuestionSampler)
+            Map<Integer, Integer> slots = swapped[category];
+            if (slots == null) {
+                slots = new HashMap<>();
+                swapped[category] = slots;
+            }
+            int j = k + random.nextInt(n - k);
+            int atK = slots.getOrDefault(k, k);
+            int atJ = slots.getOrDefault(j, j);
+            slots.put(j, atK);
+            result[offset + i] = positions[atJ];
+
+            if (k + 1 == n) {
+                // Kategorie erschöpft: Tabelle ohne sie neu aufbauen (selten, O(Kategorien))
+                if (weights == null) {
+                    weights = tier.weights().clone();
+                }
+                weights[category] = 0;
+                table = AliasTable.of(weights);
+            }
+        }
+        return wanted;
+    }
+}
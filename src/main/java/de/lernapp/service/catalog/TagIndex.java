@@ -0,0 +1,191 @@
+package de.lernapp.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Normalisiertes Tag-Wörterbuch eines Katalogs
+ *
+ * Question.tags ist eine Freitextliste ("scrum,agile,sprint"). Jedes Tag erhält beim Aufbau
+ * eine int-ID; je Tag liegt eine aufsteigend sortierte Liste der Katalogpositionen vor
+ * (Positionen folgen der ID-Reihenfolge). "Tags X UND Y" wird so zu einer Schnittmenge
+ * sortierter int-Arrays, beginnend mit der kürzesten Liste. Tags werden wie Suchbegriffe
+ * gefaltet (Groß-/Kleinschreibung, Umlaute), angezeigt wird die erste Schreibweise.
+ *
+ * Erstellt von Hans Hahn - Alle Rechte vorbehalten
+ */
+public final class TagIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Map<String, Integer> tagIds;
+    private final String[] tagNames;
+    private final int[][] postings;
+    private final Map<String, Integer> tagCounts;
+
+    private TagIndex(Map<String, Integer> tagIds, String[] tagNames, int[][] postings) {
+        this.tagIds = tagIds;
+        this.tagNames = tagNames;
+        this.postings = postings;
+
+        Map<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int tag = 0; tag < tagNames.length; tag++) {
+            counts.merge(tagNames[tag], postings[tag].length, Integer::sum);
+        }
+        this.tagCounts = Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Baut das Wörterbuch über die (nach ID sortierten) Fragen eines Katalogs
+     */
+    static TagIndex build(CatalogQuestion[] questions) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<List<Integer>> lists = new ArrayList<>();
+
+        for (int position = 0; position < questions.length; position++) {
+            for (String tag : split(questions[position].tags())) {
+                String key = key(tag);
+                Integer id = ids.get(key);
+                if (id == null) {
+                    id = names.size();
+                    ids.put(key, id);
+                    names.add(tag);
+                    lists.add(new ArrayList<>());
+                }
+                List<Integer> list = lists.get(id);
+                // Doppelte Tags in einer Frage nur einmal zählen
+                if (list.isEmpty() || list.get(list.size() - 1) != position) {
+                    list.add(position);
+                }
+            }
+        }
+
+        int[][] postings = new int[lists.size()][];
+        for (int tag = 0; tag < postings.length; tag++) {
+            List<Integer> list = lists.get(tag);
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            postings[tag] = array;
+        }
+        return new TagIndex(Collections.unmodifiableMap(ids), names.toArray(new String[0]), postings);
+    }
+
+    /**
+     * Zerlegt eine Tag-Liste (Komma, Semikolon oder senkrechter Strich) in getrimmte Tags
+     */
+    public static List<String> split(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (String tag : tags.split("[,;|]")) {
+            String trimmed = tag.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    private static String key(String tag) {
+        return SearchTokenizer.fold(tag.trim());
+    }
+
+    public int size() {
+        return tagNames.length;
+    }
+
+    /**
+     * ID eines Tags (Schreibweise egal) oder -1
+     */
+    public int tagId(String tag) {
+        if (tag == null) {
+            return -1;
+        }
+        return tagIds.getOrDefault(key(tag), -1);
+    }
+
+    public String tagName(int tagId) {
+        return tagNames[tagId];
+    }
+
+    /**
+     * Sortierte Katalogpositionen eines Tags. Das Array ist intern und darf nicht verändert werden.
+     */
+    public int[] positions(int tagId) {
+        return tagId >= 0 && tagId < postings.length ? postings[tagId] : NO_POSITIONS;
+    }
+
+    /**
+     * Anzahl Fragen je Tag (alphabetisch)
+     */
+    public Map<String, Integer> getTagCounts() {
+        return tagCounts;
+    }
+
+    /**
+     * Positionen aller Fragen, die sämtliche Tags tragen. Unbekannte Tags ergeben eine leere
+     * Menge; ohne Tags wird null geliefert (kein Filter).
+     */
+    public int[] intersect(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        Map<Integer, int[]> lists = new LinkedHashMap<>();
+        for (String tag : tags) {
+            int id = tagId(tag);
+            if (id < 0) {
+                return NO_POSITIONS;
+            }
+            lists.put(id, postings[id]);
+        }
+        int[][] sorted = lists.values().toArray(new int[0][]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = sorted[0];
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = intersect(result, sorted[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Schnittmenge zweier sortierter Listen; die kürzere wird per Galopp-Suche in der längeren gesucht
+     */
+    static int[] intersect(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int from = 0;
+        for (int value : small) {
+            // Exponentiell vortasten, dann binär suchen
+            int step = 1;
+            int high = from;
+            while (high < large.length && large[high] < value) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(large, from, Math.min(high + 1, large.length), value);
+            if (index >= 0) {
+                result[count++] = value;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,203 @@
+-- Ausgangsschema der Lernapp (Profil "prod"), entspricht den JPA-Entitäten in de.lernapp.model.
+-- Nur Standard-SQL bzw. Syntax, die PostgreSQL und H2 im PostgreSQL-Modus gleichermaßen verstehen.
+-- Änderungen am Modell immer als neue Version V<n>__... anlegen, bestehende Dateien nie ändern.
+
+-- Benutzer, Rollen, Berechtigungen
+
+CREATE TABLE users (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username                 VARCHAR(50)  NOT NULL,
+    email                    VARCHAR(100) NOT NULL,
+    password                 VARCHAR(255) NOT NULL,
+    first_name               VARCHAR(50),
+    last_name                VARCHAR(50),
+    enabled                  BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at               TIMESTAMP(6) NOT NULL,
+    updated_at               TIMESTAMP(6),
+    last_login               TIMESTAMP(6),
+    total_questions_answered INTEGER      NOT NULL DEFAULT 0,
+    correct_answers          INTEGER      NOT NULL DEFAULT 0,
+    current_streak           INTEGER      NOT NULL DEFAULT 0,
+    best_streak              INTEGER      NOT NULL DEFAULT 0,
+    experience_points        INTEGER      NOT NULL DEFAULT 0,
+    level                    INTEGER      NOT NULL DEFAULT 1,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE roles (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(50)  NOT NULL,
+    description VARCHAR(100),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE permissions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL,
+    description VARCHAR(200),
+    CONSTRAINT uk_permissions_name UNIQUE (name)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE role_permissions (
+    role_id       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, permission_id),
+    CONSTRAINT fk_role_permissions_role FOREIGN KEY (role_id) REFERENCES roles (id),
+    CONSTRAINT fk_role_permissions_permission FOREIGN KEY (permission_id) REFERENCES permissions (id)
+);
+
+-- Fragenkatalog (Indizes der Fragen siehe V2)
+
+CREATE TABLE catalog_versions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status         VARCHAR(20)  NOT NULL,
+    source         VARCHAR(100),
+    question_count BIGINT,
+    created_at     TIMESTAMP(6),
+    activated_at   TIMESTAMP(6),
+    retired_at     TIMESTAMP(6)
+);
+
+CREATE TABLE questions (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    question_text   VARCHAR(2000) NOT NULL,
+    option_a        VARCHAR(500)  NOT NULL,
+    option_b        VARCHAR(500)  NOT NULL,
+    option_c        VARCHAR(500)  NOT NULL,
+    option_d        VARCHAR(500)  NOT NULL,
+    correct_answer  VARCHAR(1)    NOT NULL,
+    category        VARCHAR(100)  NOT NULL,
+    topic           VARCHAR(100),
+    subtopic        VARCHAR(100),
+    difficulty      INTEGER       NOT NULL,
+    explanation     VARCHAR(2000),
+    tags            VARCHAR(500),
+    tips            VARCHAR(1000),
+    correction      VARCHAR(1000),
+    source          VARCHAR(200),
+    points          INTEGER       NOT NULL DEFAULT 10,
+    active          BOOLEAN       NOT NULL DEFAULT TRUE,
+    catalog_version BIGINT,
+    times_answered  INTEGER       DEFAULT 0,
+    times_correct   INTEGER       DEFAULT 0,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+-- Lernstrategien
+
+CREATE TABLE learning_strategies (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255) NOT NULL,
+    active         BOOLEAN      NOT NULL,
+    user_id        BIGINT,
+    created_at     TIMESTAMP(6),
+    activated_at   TIMESTAMP(6),
+    phase1_minutes INTEGER,
+    phase2_minutes INTEGER,
+    phase3_minutes INTEGER,
+    phase4_minutes INTEGER,
+    phase5_minutes INTEGER,
+    CONSTRAINT fk_learning_strategies_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE strategy_priorities (
+    learning_strategy_id BIGINT NOT NULL,
+    category             VARCHAR(255),
+    priority             INTEGER,
+    target_points        INTEGER,
+    recommended_hours    INTEGER,
+    weight               DOUBLE PRECISION,
+    CONSTRAINT fk_strategy_priorities_strategy FOREIGN KEY (learning_strategy_id) REFERENCES learning_strategies (id)
+);
+
+-- Prüfungen
+
+CREATE TABLE exam_results (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username           VARCHAR(50)      NOT NULL,
+    exam_id            VARCHAR(100),
+    total_questions    INTEGER          NOT NULL,
+    correct_answers    INTEGER          NOT NULL,
+    unanswered         INTEGER          NOT NULL,
+    score_percent      DOUBLE PRECISION NOT NULL,
+    xp_gained          INTEGER          NOT NULL,
+    time_spent_seconds INTEGER          NOT NULL,
+    submitted_at       TIMESTAMP(6)     NOT NULL
+);
+
+CREATE INDEX idx_exam_result_user ON exam_results (username, submitted_at);
+
+CREATE TABLE exam_result_categories (
+    exam_result_id BIGINT NOT NULL,
+    category       VARCHAR(255),
+    total          INTEGER,
+    correct        INTEGER,
+    CONSTRAINT fk_exam_result_categories_result FOREIGN KEY (exam_result_id) REFERENCES exam_results (id)
+);
+
+CREATE TABLE exam_sessions (
+    id                 VARCHAR(36)  NOT NULL PRIMARY KEY,
+    username           VARCHAR(50)  NOT NULL,
+    status             VARCHAR(20)  NOT NULL,
+    question_ids       BYTEA        NOT NULL,
+    answers            BYTEA        NOT NULL,
+    time_limit_seconds INTEGER      NOT NULL,
+    started_at         TIMESTAMP(6) NOT NULL,
+    last_activity_at   TIMESTAMP(6),
+    submitted_at       TIMESTAMP(6),
+    exam_result_id     BIGINT
+);
+
+CREATE INDEX idx_exam_session_user ON exam_sessions (username, status);
+
+CREATE TABLE exam_user_stats (
+    username           VARCHAR(50)      NOT NULL PRIMARY KEY,
+    exams_total        INTEGER          NOT NULL,
+    best_score         DOUBLE PRECISION NOT NULL,
+    total_time_seconds BIGINT           NOT NULL,
+    month_key          INTEGER          NOT NULL,
+    exams_this_month   INTEGER          NOT NULL,
+    last_exam_at       TIMESTAMP(6),
+    version            BIGINT
+);
+
+-- Lernstand (Spaced Repetition, Kategorien)
+
+CREATE TABLE review_cards (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username         VARCHAR(50)      NOT NULL,
+    question_id      BIGINT           NOT NULL,
+    box              INTEGER          NOT NULL,
+    repetitions      INTEGER          NOT NULL,
+    ease_factor      DOUBLE PRECISION NOT NULL,
+    interval_days    INTEGER          NOT NULL,
+    due_at           TIMESTAMP(6)     NOT NULL,
+    last_reviewed_at TIMESTAMP(6),
+    attempts         INTEGER          NOT NULL,
+    correct_attempts INTEGER          NOT NULL,
+    CONSTRAINT uk_review_card_user_question UNIQUE (username, question_id)
+);
+
+CREATE INDEX idx_review_card_user ON review_cards (username);
+
+CREATE TABLE user_category_stats (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username         VARCHAR(50)  NOT NULL,
+    category         VARCHAR(255) NOT NULL,
+    attempts         BIGINT       NOT NULL,
+    correct_answers  BIGINT       NOT NULL,
+    last_answered_at TIMESTAMP(6),
+    CONSTRAINT uk_user_category UNIQUE (username, category)
+);
+
+CREATE INDEX idx_user_category_user ON user_category_stats (username);
@@ -0,0 +1,9 @@
+-- Indizes der Fragentabelle, entsprechen @Table(indexes = ...) in Question.
+-- idx_category_id dient dem seitenweisen Lesen je Kategorie (WHERE category = ? AND id > ? ORDER BY id),
+-- idx_catalog_version dem Umschalten und Aufräumen von Katalogversionen beim CSV-Import.
+
+CREATE INDEX idx_category ON questions (category);
+CREATE INDEX idx_category_id ON questions (category, id);
+CREATE INDEX idx_difficulty ON questions (difficulty);
+CREATE INDEX idx_active ON questions (active);
+CREATE INDEX idx_catalog_version ON questions (catalog_version);
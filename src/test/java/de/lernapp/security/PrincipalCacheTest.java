@@ -0,0 +1,107 @@
+package de.lernapp.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests für PrincipalCache
+ * Testet Treffer, Invalidierung je User, Ladevorgänge während einer Invalidierung und die Größengrenze
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("PrincipalCache Tests")
+class PrincipalCacheTest {
+
+    private static final int MAX_ENTRIES = 10;
+
+    private PrincipalCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrincipalCache(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 300, MAX_ENTRIES);
+    }
+
+    private Supplier<UserDetails> loader(String username, String role) {
+        return () -> {
+            loads.incrementAndGet();
+            return User.withUsername(username).password("hash").roles(role).build();
+        };
+    }
+
+    @Test
+    @DisplayName("Ein geladener Principal wird je Token wiederverwendet")
+    void cachesPerToken() {
+        UserDetails first = cache.get("anna", "t1", loader("anna", "USER"));
+        UserDetails second = cache.get("anna", "t1", loader("anna", "USER"));
+        cache.get("anna", "t2", loader("anna", "USER"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Invalidierung entfernt alle Einträge des Users und nur diese")
+    void invalidateRemovesOnlyThatUser() {
+        cache.get("anna", "t1", loader("anna", "USER"));
+        cache.get("anna", "t2", loader("anna", "USER"));
+        cache.get("bert", "t3", loader("bert", "USER"));
+
+        cache.invalidate("anna");
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get("bert", "t3", loader("bert", "USER"));
+        assertThat(loads).hasValue(3);
+        cache.get("anna", "t1", loader("anna", "USER"));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("Ein Ergebnis, während dessen Laden invalidiert wurde, wird nicht abgelegt")
+    void loadDuringInvalidationIsNotCached() {
+        cache.get("anna", "t1", () -> {
+            cache.invalidate("anna");
+            return loader("anna", "USER").get();
+        });
+
+        assertThat(cache.size()).isZero();
+        cache.get("anna", "t1", loader("anna", "ADMIN"));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Nur geänderte Rollen, Status oder Passwörter invalidieren")
+    void invalidateIfChangedComparesSecurityData() {
+        cache.get("anna", "t1", loader("anna", "USER"));
+
+        cache.invalidateIfChanged("anna", true, "hash", Set.of("ROLE_USER"));
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.invalidateIfChanged("anna", true, "hash", Set.of("ROLE_USER", "ROLE_ADMIN"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Überlauf verdrängt Einträge bis unter die Maximalgröße")
+    void overflowEvictsUsers() {
+        for (int i = 0; i <= MAX_ENTRIES * 2; i++) {
+            cache.get("user" + i, "t", loader("user" + i, "USER"));
+            assertThat(cache.size()).isLessThanOrEqualTo(MAX_ENTRIES);
+        }
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,134 @@
+package de.lernapp.service;
+
+import de.lernapp.repository.AnswerStatsWriter;
+import de.lernapp.repository.AnswerStatsWriter.UserRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für AnswerStatsBuffer
+ * Testet das Zusammenfassen je Benutzer, den Flush, das Zurücklegen nach Fehlern und das Verketten der Streaks
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("AnswerStatsBuffer Tests")
+class AnswerStatsBufferTest {
+
+    private static final String USER = "testuser";
+    private static final int XP = 10;
+
+    private QuestionStatsCounters questionStats;
+    private CategoryMasteryService categoryMastery;
+    private AnswerStatsBuffer buffer;
+
+    private final List<List<UserRow>> written = new ArrayList<>();
+    private int failuresLeft;
+
+    @BeforeEach
+    void setUp() {
+        AnswerStatsWriter writer = mock(AnswerStatsWriter.class);
+        doAnswer(invocation -> {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new QueryTimeoutException("Datenbank nicht erreichbar");
+            }
+            written.add(List.copyOf(invocation.<List<UserRow>>getArgument(0)));
+            return null;
+        }).when(writer).updateUsers(anyList(), anyInt());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        questionStats = mock(QuestionStatsCounters.class);
+        categoryMastery = mock(CategoryMasteryService.class);
+
+        buffer = new AnswerStatsBuffer(writer, questionStats, categoryMastery, transactionManager,
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 100, 50_000);
+    }
+
+    private void answer(boolean... results) {
+        for (boolean correct : results) {
+            buffer.record(USER, 1L, correct, XP);
+        }
+    }
+
+    @Test
+    @DisplayName("Antworten eines Benutzers werden zu einer Zeile zusammengefasst")
+    void flushWritesOneRowPerUser() {
+        answer(true, true, false, true);
+        buffer.record(null, 2L, true, XP);
+
+        buffer.flush();
+
+        assertThat(written).containsExactly(List.of(new UserRow(USER, 4, 3, 3 * XP, 2, true, 1, 1)));
+        assertThat(buffer.getPendingAnswers()).isZero();
+        verify(questionStats).increment(2L, true);
+        verify(categoryMastery).record(USER, 1L, false);
+    }
+
+    @Test
+    @DisplayName("Nach einem fehlgeschlagenen Flush werden frühere und neue Antworten in Reihenfolge verkettet")
+    void failedFlushMergesWithLaterAnswers() {
+        answer(true, true, false, true);
+        failuresLeft = 1;
+
+        buffer.flush();
+        assertThat(written).isEmpty();
+        assertThat(buffer.getPendingAnswers()).isEqualTo(4);
+
+        answer(true, true);
+        buffer.flush();
+
+        // Der Lauf nach der falschen Antwort setzt sich über beide Deltas fort: 1 + 2
+        assertThat(written).containsExactly(List.of(new UserRow(USER, 6, 5, 5 * XP, 2, true, 3, 3)));
+        assertThat(buffer.getPendingAnswers()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ohne falsche Antwort im früheren Delta addieren sich die führenden Läufe")
+    void thenAddsLeadingRunsWithoutReset() {
+        AnswerStatsBuffer.UserDelta earlier = new AnswerStatsBuffer.UserDelta();
+        earlier.answer(true, XP);
+        earlier.answer(true, XP);
+        AnswerStatsBuffer.UserDelta later = new AnswerStatsBuffer.UserDelta();
+        later.answer(true, XP);
+        later.answer(false, XP);
+        later.answer(true, XP);
+
+        AnswerStatsBuffer.UserDelta merged = AnswerStatsBuffer.UserDelta.then(later, earlier);
+
+        assertThat(merged.answered).isEqualTo(5);
+        assertThat(merged.correct).isEqualTo(4);
+        assertThat(merged.leading).isEqualTo(3);
+        assertThat(merged.reset).isTrue();
+        assertThat(merged.trailing).isEqualTo(1);
+        assertThat(merged.maxInner).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Eine Prüfung zählt Antworten und XP, lässt den Streak aber unverändert")
+    void recordExamKeepsStreak() {
+        buffer.recordExam(USER, 30, 21, 210);
+        buffer.recordExam(USER, 0, 0, 50);
+
+        buffer.flush();
+
+        assertThat(written).containsExactly(List.of(new UserRow(USER, 30, 21, 210, 0, false, 0, 0)));
+    }
+}
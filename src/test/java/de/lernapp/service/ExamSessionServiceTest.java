@@ -0,0 +1,133 @@
+package de.lernapp.service;
+
+import de.lernapp.model.ExamSession;
+import de.lernapp.repository.ExamSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für ExamSessionService
+ * Testet das Zusammenspiel von Reservierung, Verdrängung und Abschluss einer Prüfungssitzung
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("ExamSessionService Tests")
+class ExamSessionServiceTest {
+
+    private static final String USER = "testuser";
+    private static final long[] QUESTIONS = {11L, 12L, 13L};
+
+    private ExamSessionRepository repository;
+    private ExamSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ExamSessionRepository.class);
+        // Negative Leerlaufzeit: jede Sitzung gilt sofort als inaktiv und wird verdrängt
+        service = new ExamSessionService(repository, 90, -1, 7);
+    }
+
+    private static ExamSession storedAs(ExamSessionService.LiveSession session, ExamSession.Status status) {
+        ExamSession entity = new ExamSession();
+        entity.setId(session.getId());
+        entity.setUsername(USER);
+        entity.setStatus(status);
+        entity.setQuestionIds(ExamSession.packIds(QUESTIONS));
+        entity.setAnswers(session.getAnswers());
+        entity.setTimeLimitSeconds(session.getTimeLimitSeconds());
+        entity.setStartedAt(session.getStartedAt());
+        return entity;
+    }
+
+    @Test
+    @DisplayName("Eine Sitzung lässt sich nur einmal reservieren")
+    void claimsOnlyOnce() {
+        ExamSessionService.LiveSession session = service.start(USER, QUESTIONS);
+
+        assertThat(service.claimForSubmit(session.getId(), USER).state()).isEqualTo(ExamSessionService.SessionState.ACTIVE);
+        assertThat(service.claimForSubmit(session.getId(), USER).state()).isEqualTo(ExamSessionService.SessionState.SUBMITTED);
+        assertThat(service.claimForSubmit(session.getId(), "andere").state()).isEqualTo(ExamSessionService.SessionState.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Reservierte Sitzungen werden nicht verdrängt; complete speichert SUBMITTED")
+    void evictorSkipsClaimedSession() {
+        ExamSessionService.LiveSession session = service.start(USER, QUESTIONS);
+        ExamSessionService.SessionLookup lookup = service.claimForSubmit(session.getId(), USER);
+
+        service.evictIdleSessions();
+
+        verify(repository, never()).updateUnlessSubmitted(anyString(), any(), any(), any(), any());
+        verify(repository, never()).save(any());
+        assertThat(service.getActiveSessionCount()).isEqualTo(1);
+
+        service.complete(lookup.session(), 42L);
+
+        ArgumentCaptor<ExamSession> saved = ArgumentCaptor.forClass(ExamSession.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(ExamSession.Status.SUBMITTED);
+        assertThat(saved.getValue().getExamResultId()).isEqualTo(42L);
+        assertThat(service.getActiveSessionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Nach einer freigegebenen Abgabe wird die Sitzung wieder verdrängt")
+    void releasedSessionIsEvicted() {
+        ExamSessionService.LiveSession session = service.start(USER, QUESTIONS);
+        service.release(service.claimForSubmit(session.getId(), USER).session());
+
+        service.evictIdleSessions();
+
+        verify(repository).updateUnlessSubmitted(eq(session.getId()), eq(ExamSession.Status.ACTIVE), any(), any(),
+                eq(ExamSession.Status.SUBMITTED));
+        verify(repository).save(any());
+        assertThat(service.getActiveSessionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Eine verdrängte Sitzung wird für die Abgabe neu geladen; die alte Instanz ist gesperrt")
+    void evictedSessionIsReloadedForSubmit() {
+        ExamSessionService.LiveSession session = service.start(USER, QUESTIONS);
+        service.evictIdleSessions();
+        when(repository.findByIdAndUsername(session.getId(), USER))
+            .thenReturn(Optional.of(storedAs(session, ExamSession.Status.ACTIVE)));
+
+        ExamSessionService.SessionLookup lookup = service.claimForSubmit(session.getId(), USER);
+
+        assertThat(lookup.state()).isEqualTo(ExamSessionService.SessionState.ACTIVE);
+        assertThat(lookup.session()).isNotSameAs(session);
+        assertThat(lookup.session().getQuestionIds()).containsExactly(QUESTIONS);
+        assertThat(session.isEvicted()).isTrue();
+        assertThat(session.claim()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Ein abgegebener Datensatz wird beim Verdrängen nicht überschrieben")
+    void evictionNeverDowngradesSubmittedRow() {
+        ExamSessionService.LiveSession session = service.start(USER, QUESTIONS);
+        when(repository.existsById(session.getId())).thenReturn(true);
+
+        service.evictIdleSessions();
+
+        verify(repository, never()).save(any());
+        assertThat(service.getActiveSessionCount()).isZero();
+
+        when(repository.findByIdAndUsername(session.getId(), USER))
+            .thenReturn(Optional.of(storedAs(session, ExamSession.Status.SUBMITTED)));
+        assertThat(service.claimForSubmit(session.getId(), USER).state())
+            .isEqualTo(ExamSessionService.SessionState.SUBMITTED);
+    }
+}
@@ -0,0 +1,175 @@
+package de.lernapp.service;
+
+import de.lernapp.model.CatalogVersion;
+import de.lernapp.model.Question;
+import de.lernapp.repository.CatalogVersionRepository;
+import de.lernapp.repository.QuestionBatchWriter;
+import de.lernapp.repository.QuestionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für MassiveCsvImportService
+ * Testet, dass nur vollständig gelesene Importe den aktiven Fragenbestand ablösen
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("MassiveCsvImportService Tests")
+class MassiveCsvImportServiceTest {
+
+    private static final String HEADER = "topic,subtopic,question,a,b,c,d,correct,difficulty,explanation,tags";
+
+    @TempDir
+    Path dataDir;
+
+    private QuestionRepository questionRepository;
+    private CatalogVersionRepository versionRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private SpacedRepetitionService spacedRepetitionService;
+    private MassiveCsvImportService importService;
+
+    private final Map<Long, CatalogVersion> versions = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> storedRows = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersionId = new AtomicLong(1);
+    private CatalogVersion previous;
+
+    @BeforeEach
+    void setUp() {
+        questionRepository = mock(QuestionRepository.class);
+        versionRepository = mock(CatalogVersionRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        spacedRepetitionService = mock(SpacedRepetitionService.class);
+        QuestionBatchWriter batchWriter = mock(QuestionBatchWriter.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(versionRepository.save(any(CatalogVersion.class))).thenAnswer(invocation -> {
+            CatalogVersion version = invocation.getArgument(0);
+            if (version.getId() == null) {
+                version.setId(nextVersionId.getAndIncrement());
+            }
+            versions.put(version.getId(), version);
+            return version;
+        });
+        when(versionRepository.findById(any())).thenAnswer(invocation ->
+            Optional.ofNullable(versions.get(invocation.<Long>getArgument(0))));
+        when(versionRepository.findByStatus(any())).thenAnswer(invocation -> versions.values().stream()
+            .filter(version -> version.getStatus() == invocation.getArgument(0))
+            .toList());
+        when(batchWriter.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<Question> batch = invocation.getArgument(0);
+            storedRows.computeIfAbsent(batch.get(0).getCatalogVersion(), v -> new AtomicLong()).addAndGet(batch.size());
+            return batch.size();
+        });
+        when(questionRepository.countByCatalogVersion(any())).thenAnswer(invocation ->
+            storedRows.getOrDefault(invocation.<Long>getArgument(0), new AtomicLong()).get());
+
+        previous = versionRepository.save(CatalogVersion.staging("Vorheriger Import"));
+        previous.activate(100);
+
+        importService = new MassiveCsvImportService(transactionManager,
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(importService, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(importService, "catalogVersionRepository", versionRepository);
+        ReflectionTestUtils.setField(importService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(importService, "batchWriter", batchWriter);
+        ReflectionTestUtils.setField(importService, "spacedRepetitionService", spacedRepetitionService);
+        ReflectionTestUtils.setField(importService, "parserThreads", 2);
+        ReflectionTestUtils.setField(importService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(importService, "batchSize", 10);
+        ReflectionTestUtils.setField(importService, "charset", StandardCharsets.UTF_8);
+        ReflectionTestUtils.setField(importService, "possibleDirs", new String[]{dataDir.toString()});
+    }
+
+    private void writeCsv(String name, Charset charset, int rows, String lastText) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < rows; i++) {
+            csv.append("Netzwerk,LAN,Frage ").append(name).append(' ').append(i)
+               .append(",A,B,C,D,A,leicht,Erklärung,lan\n");
+        }
+        if (lastText != null) {
+            csv.append("Netzwerk,LAN,").append(lastText).append(",A,B,C,D,B,mittel,Erklärung,lan\n");
+        }
+        Files.write(dataDir.resolve(name), csv.toString().getBytes(charset));
+    }
+
+    @Test
+    @DisplayName("Eine nicht lesbare Datei bricht den Import ab; die bisherige Version bleibt aktiv")
+    void unreadableFileKeepsPreviousVersionActive() throws IOException {
+        writeCsv("gut.csv", StandardCharsets.UTF_8, 25, null);
+        writeCsv("windows.csv", Charset.forName("windows-1252"), 5, "Welche Prüfung folgt?");
+
+        assertThatThrownBy(() -> importService.importAllCsvFiles())
+            .hasMessageContaining("windows.csv");
+
+        CatalogVersion staged = versions.get(2L);
+        assertThat(previous.getStatus()).isEqualTo(CatalogVersion.Status.ACTIVE);
+        assertThat(staged.getStatus()).isEqualTo(CatalogVersion.Status.FAILED);
+        verify(questionRepository).deleteAllByCatalogVersion(2L);
+        verify(questionRepository, never()).deleteAllExceptCatalogVersion(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(spacedRepetitionService, never()).remapToCatalogVersion(any());
+        assertThat(importService.getProgress().getState()).isEqualTo(ImportProgress.State.FAILED);
+        assertThat(importService.getProgress().getFilesFailed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Fehlen gespeicherte Zeilen gegenüber den geparsten, wird nicht umgeschaltet")
+    void missingStoredRowsKeepPreviousVersionActive() throws IOException {
+        writeCsv("gut.csv", StandardCharsets.UTF_8, 25, null);
+        when(questionRepository.countByCatalogVersion(2L)).thenReturn(24L);
+
+        assertThatThrownBy(() -> importService.importAllCsvFiles())
+            .hasMessageContaining("25 Fragen geparst");
+
+        assertThat(previous.getStatus()).isEqualTo(CatalogVersion.Status.ACTIVE);
+        assertThat(versions.get(2L).getStatus()).isEqualTo(CatalogVersion.Status.FAILED);
+        verify(questionRepository, never()).deleteAllExceptCatalogVersion(any());
+    }
+
+    @Test
+    @DisplayName("Mit passendem Zeichensatz wird die Datei vollständig importiert und aktiviert")
+    void configuredCharsetImportsAndActivates() throws IOException {
+        ReflectionTestUtils.setField(importService, "charset", Charset.forName("windows-1252"));
+        writeCsv("windows.csv", Charset.forName("windows-1252"), 25, "Welche Prüfung folgt?");
+
+        importService.importAllCsvFiles();
+
+        CatalogVersion staged = versions.get(2L);
+        assertThat(staged.getStatus()).isEqualTo(CatalogVersion.Status.ACTIVE);
+        assertThat(staged.getQuestionCount()).isEqualTo(26);
+        assertThat(previous.getStatus()).isEqualTo(CatalogVersion.Status.RETIRED);
+        verify(spacedRepetitionService).remapToCatalogVersion(2L);
+        verify(questionRepository).deleteAllExceptCatalogVersion(2L);
+        assertThat(importService.getProgress().getState()).isEqualTo(ImportProgress.State.COMPLETED);
+    }
+}
@@ -0,0 +1,138 @@
+package de.lernapp.service;
+
+import de.lernapp.model.Question;
+import de.lernapp.repository.AnswerStatsWriter;
+import de.lernapp.repository.AnswerStatsWriter.QuestionRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für QuestionStatsCounters
+ * Testet Live-Werte, das Übernehmen der Deltas, Zurücklegen nach Fehlern und das Aufräumen beim Neuladen
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("QuestionStatsCounters Tests")
+class QuestionStatsCountersTest {
+
+    private AnswerStatsWriter writer;
+    private SimpleMeterRegistry registry;
+    private QuestionStatsCounters counters;
+
+    private final List<List<QuestionRow>> written = new ArrayList<>();
+    private int failuresLeft;
+
+    @BeforeEach
+    void setUp() {
+        writer = mock(AnswerStatsWriter.class);
+        doAnswer(invocation -> {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new QueryTimeoutException("Datenbank nicht erreichbar");
+            }
+            written.add(List.copyOf(invocation.<List<QuestionRow>>getArgument(0)));
+            return null;
+        }).when(writer).updateQuestions(anyList(), anyInt());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        registry = new SimpleMeterRegistry();
+        counters = new QuestionStatsCounters(writer, transactionManager,
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class), 100);
+    }
+
+    private static Question question(long id, int answered, int correct) {
+        Question question = new Question();
+        question.setId(id);
+        question.setTimesAnswered(answered);
+        question.setTimesCorrect(correct);
+        return question;
+    }
+
+    private double tracked() {
+        return registry.get("lernapp.question.stats.tracked").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Live-Werte sind gespeicherter Stand plus offene Deltas, auch nach dem Flush")
+    void flushMovesDeltasIntoBase() {
+        counters.reseed(() -> List.of(question(1, 10, 4)));
+        counters.increment(1, true);
+        counters.increment(1, false);
+
+        assertThat(counters.answered(1, 0)).isEqualTo(12);
+        assertThat(counters.correct(1, 0)).isEqualTo(5);
+
+        counters.flush();
+
+        assertThat(written).containsExactly(List.of(new QuestionRow(1, 2, 1)));
+        assertThat(counters.answered(1, 0)).isEqualTo(12);
+        assertThat(counters.correct(1, 0)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Nach einem fehlgeschlagenen Flush werden die Deltas mit den neuen zusammen geschrieben")
+    void failedFlushRequeuesDeltas() {
+        counters.increment(7, true);
+        failuresLeft = 1;
+
+        counters.flush();
+        counters.increment(7, false);
+        counters.flush();
+
+        assertThat(written).containsExactly(List.of(new QuestionRow(7, 2, 1)));
+        assertThat(registry.get("lernapp.question.stats.merge.failures").counter().count()).isEqualTo(1);
+        assertThat(registry.get("lernapp.question.stats.merged").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Neuladen schreibt offene Deltas und verwirft Zähler von Fragen außerhalb des Katalogs")
+    void reseedFlushesAndDropsRemovedQuestions() {
+        counters.reseed(() -> List.of(question(1, 0, 0), question(2, 0, 0)));
+        counters.increment(1, true);
+        counters.increment(2, true);
+
+        List<Question> loaded = counters.reseed(() -> List.of(question(101, 0, 0)));
+
+        assertThat(loaded).hasSize(1);
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0)).containsExactlyInAnyOrder(new QuestionRow(1, 1, 1), new QuestionRow(2, 1, 1));
+        assertThat(tracked()).isEqualTo(1);
+        assertThat(counters.answered(1, 5)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Scheitert der Flush beim Neuladen, bleiben offene Deltas bis zum nächsten Flush erhalten")
+    void reseedKeepsPendingDeltasWhenFlushFails() {
+        counters.increment(1, true);
+        failuresLeft = 1;
+
+        counters.reseed(() -> List.of(question(101, 0, 0)));
+        assertThat(tracked()).isEqualTo(2);
+
+        counters.flush();
+        counters.reseed(() -> List.of(question(101, 0, 0)));
+
+        assertThat(written).containsExactly(List.of(new QuestionRow(1, 1, 1)));
+        assertThat(tracked()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,130 @@
+package de.lernapp.service;
+
+import de.lernapp.model.ReviewCard;
+import de.lernapp.repository.ReviewCardRepository;
+import de.lernapp.service.catalog.QuestionCatalogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für die SM-2-Terminierung des SpacedRepetitionService
+ * Testet Intervalle, Leitner-Boxen als Obergrenze und den Leichtigkeitsfaktor
+ * sowie das Speichern und Verdrängen der Kartenstapel
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("SpacedRepetitionService SM-2 Tests")
+class SpacedRepetitionServiceTest {
+
+    private static final int CORRECT = 4;
+    private static final int WRONG = 1;
+
+    private LocalDateTime now;
+    private ReviewCard card;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        card = new ReviewCard();
+        card.setUsername("testuser");
+        card.setQuestionId(1L);
+        card.setDueAt(now);
+    }
+
+    @Test
+    @DisplayName("Richtige Antworten: 1 und 6 Tage, danach Intervall x Leichtigkeit bis zur Box-Grenze")
+    void correctAnswersGrowIntervalUpToBoxLimit() {
+        int[] expectedIntervals = {1, 6, 14, 30, 30};
+        int[] expectedBoxes = {2, 3, 4, 5, 5};
+
+        for (int i = 0; i < expectedIntervals.length; i++) {
+            SpacedRepetitionService.applySm2(card, CORRECT, now);
+
+            assertThat(card.getIntervalDays()).as("Intervall nach %d richtigen", i + 1).isEqualTo(expectedIntervals[i]);
+            assertThat(card.getBox()).as("Box nach %d richtigen", i + 1).isEqualTo(expectedBoxes[i]);
+            assertThat(card.getDueAt()).isEqualTo(now.plusDays(expectedIntervals[i]));
+        }
+        assertThat(card.getRepetitions()).isEqualTo(5);
+        assertThat(card.getEaseFactor()).isCloseTo(2.5, within(1e-9));
+        assertThat(card.getAttempts()).isEqualTo(5);
+        assertThat(card.getCorrectAttempts()).isEqualTo(5);
+        assertThat(card.getLastReviewedAt()).isEqualTo(now);
+    }
+
+    @Test
+    @DisplayName("Falsche Antwort setzt Wiederholungen, Box und Intervall zurück und senkt die Leichtigkeit")
+    void wrongAnswerResetsCard() {
+        SpacedRepetitionService.applySm2(card, CORRECT, now);
+        SpacedRepetitionService.applySm2(card, CORRECT, now);
+        SpacedRepetitionService.applySm2(card, WRONG, now);
+
+        assertThat(card.getRepetitions()).isZero();
+        assertThat(card.getBox()).isEqualTo(1);
+        assertThat(card.getIntervalDays()).isEqualTo(1);
+        assertThat(card.getDueAt()).isEqualTo(now.plusDays(1));
+        assertThat(card.getEaseFactor()).isCloseTo(1.96, within(1e-9));
+        assertThat(card.getAttempts()).isEqualTo(3);
+        assertThat(card.getCorrectAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Leichtigkeitsfaktor fällt nicht unter 1.3")
+    void easeFactorHasLowerBound() {
+        for (int i = 0; i < 5; i++) {
+            SpacedRepetitionService.applySm2(card, WRONG, now);
+        }
+
+        assertThat(card.getEaseFactor()).isCloseTo(1.3, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Intervall wächst mit dem gesenkten Leichtigkeitsfaktor langsamer")
+    void lowEaseSlowsIntervalGrowth() {
+        card.setRepetitions(2);
+        card.setBox(3);
+        card.setIntervalDays(6);
+        card.setEaseFactor(1.3);
+
+        SpacedRepetitionService.applySm2(card, CORRECT, now);
+
+        assertThat(card.getIntervalDays()).isEqualTo(8);
+        assertThat(card.getBox()).isEqualTo(4);
+        assertThat(card.getDueAt()).isEqualTo(now.plusDays(8));
+    }
+
+    @Test
+    @DisplayName("Ein verdrängter Stapel wird neu geladen und setzt die gespeicherte Karte fort")
+    void evictedDeckIsReloadedWithSavedCards() {
+        ReviewCardRepository repository = mock(ReviewCardRepository.class);
+        List<ReviewCard> stored = new ArrayList<>();
+        when(repository.findByUsername("testuser")).thenAnswer(invocation -> List.copyOf(stored));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ReviewCard> cards = invocation.getArgument(0);
+            stored.addAll(cards);
+            return cards;
+        });
+        // Negative Leerlaufzeit: jeder gespeicherte Stapel wird sofort verdrängt
+        SpacedRepetitionService service = new SpacedRepetitionService(repository, mock(QuestionCatalogService.class), 120, -1);
+
+        service.review("testuser", 1L, true);
+        service.flush();
+        ReviewCard reloaded = service.review("testuser", 1L, true);
+
+        verify(repository, times(2)).findByUsername("testuser");
+        assertThat(reloaded.getRepetitions()).isEqualTo(2);
+        assertThat(reloaded.getIntervalDays()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,91 @@
+package de.lernapp.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit Tests für AliasTable
+ * Testet Sonderfälle beim Aufbau und die Verteilung der Züge
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("AliasTable Tests")
+class AliasTableTest {
+
+    private static final int DRAWS = 200_000;
+
+    private static double[] frequencies(AliasTable table, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] counts = new double[table.size()];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[table.sample(random)]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] /= DRAWS;
+        }
+        return counts;
+    }
+
+    @Test
+    @DisplayName("Ohne positives Gewicht wird keine Tabelle gebaut")
+    void returnsNullWithoutPositiveWeight() {
+        assertThat(AliasTable.of(new double[0])).isNull();
+        assertThat(AliasTable.of(new double[]{0, 0})).isNull();
+        assertThat(AliasTable.of(new double[]{-1, 0})).isNull();
+    }
+
+    @Test
+    @DisplayName("Fächer mit Gewicht 0 oder negativem Gewicht werden nie gezogen")
+    void neverDrawsZeroOrNegativeWeights() {
+        AliasTable table = AliasTable.of(new double[]{0, 3, -2, 1, 0});
+
+        double[] frequencies = frequencies(table, 7);
+
+        assertThat(table.size()).isEqualTo(5);
+        assertThat(frequencies[0]).isZero();
+        assertThat(frequencies[2]).isZero();
+        assertThat(frequencies[4]).isZero();
+        assertThat(frequencies[1]).isCloseTo(0.75, within(0.01));
+        assertThat(frequencies[3]).isCloseTo(0.25, within(0.01));
+    }
+
+    @Test
+    @DisplayName("Ein einzelnes Gewicht wird immer gezogen")
+    void singleWeightAlwaysDrawn() {
+        AliasTable table = AliasTable.of(new double[]{0.2});
+
+        assertThat(frequencies(table, 1)[0]).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Züge sind proportional zu den Gewichten")
+    void drawsProportionallyToWeights() {
+        double[] weights = {1, 2, 3, 4, 10, 0.5, 0.5, 9};
+        double sum = 30;
+
+        double[] frequencies = frequencies(AliasTable.of(weights), 42);
+
+        for (int i = 0; i < weights.length; i++) {
+            assertThat(frequencies[i]).as("Index %d", i).isCloseTo(weights[i] / sum, within(0.01));
+        }
+    }
+
+    @Test
+    @DisplayName("Gleiche Gewichte ergeben eine Gleichverteilung")
+    void equalWeightsAreUniform() {
+        double[] weights = new double[10];
+        Arrays.fill(weights, 2.5);
+
+        double[] frequencies = frequencies(AliasTable.of(weights), 3);
+
+        for (double frequency : frequencies) {
+            assertThat(frequency).isCloseTo(0.1, within(0.01));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package de.lernapp.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit Tests für QuestionSampler
+ * Testet Ziehen ohne Zurücklegen, Reproduzierbarkeit und Gleichverteilung
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("QuestionSampler Tests")
+class QuestionSamplerTest {
+
+    private static int[] positions(int n) {
+        return IntStream.range(0, n).map(i -> i * 10 + 3).toArray();
+    }
+
+    @Test
+    @DisplayName("Gezogene Einträge sind verschieden und stammen aus dem Quell-Array, das unverändert bleibt")
+    void drawsDistinctEntriesWithoutModifyingSource() {
+        int[] positions = positions(1000);
+        int[] copy = positions.clone();
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int round = 0; round < 100; round++) {
+            int[] drawn = QuestionSampler.sample(positions, 30, random);
+
+            assertThat(drawn).hasSize(30).doesNotHaveDuplicates();
+            assertThat(positions).contains(drawn);
+        }
+        assertThat(positions).isEqualTo(copy);
+    }
+
+    @Test
+    @DisplayName("Mehr angeforderte als vorhandene Einträge liefern eine Permutation aller Einträge")
+    void drawsAllEntriesWhenKExceedsSize() {
+        int[] positions = positions(25);
+
+        int[] drawn = QuestionSampler.sample(positions, 40, new SplittableRandom(2));
+
+        assertThat(drawn).hasSize(25).containsExactlyInAnyOrder(positions);
+    }
+
+    @Test
+    @DisplayName("Leere Quelle oder k <= 0 ergeben ein leeres Ergebnis")
+    void emptyResultForEmptySourceOrNonPositiveK() {
+        assertThat(QuestionSampler.sample(new int[0], 5, new SplittableRandom(3))).isEmpty();
+        assertThat(QuestionSampler.sample(positions(10), 0, new SplittableRandom(3))).isEmpty();
+        assertThat(QuestionSampler.sample(positions(10), -4, new SplittableRandom(3))).isEmpty();
+        assertThat(QuestionSampler.sampleOne(new int[0], new SplittableRandom(3))).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Gleicher Seed ergibt dieselbe Auswahl")
+    void seedIsReproducible() {
+        int[] positions = positions(500);
+
+        int[] first = QuestionSampler.sample(positions, 20, QuestionSampler.random(99L));
+        int[] second = QuestionSampler.sample(positions, 20, QuestionSampler.random(99L));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(QuestionSampler.sampleOne(positions, QuestionSampler.random(5L)))
+            .isEqualTo(QuestionSampler.sampleOne(positions, QuestionSampler.random(5L)));
+    }
+
+    @Test
+    @DisplayName("Jeder Eintrag wird mit Wahrscheinlichkeit k/n gezogen, an jeder Stelle gleich oft")
+    void drawsUniformly() {
+        int n = 20;
+        int k = 5;
+        int rounds = 100_000;
+        int[] positions = IntStream.range(0, n).toArray();
+        int[] picked = new int[n];
+        int[] first = new int[n];
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int round = 0; round < rounds; round++) {
+            int[] drawn = QuestionSampler.sample(positions, k, random);
+            first[drawn[0]]++;
+            for (int position : drawn) {
+                picked[position]++;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            assertThat((double) picked[i] / rounds).as("Eintrag %d", i).isCloseTo((double) k / n, within(0.01));
+            assertThat((double) first[i] / rounds).as("Erste Stelle %d", i).isCloseTo(1.0 / n, within(0.005));
+        }
+        assertThat(Arrays.stream(picked).sum()).isEqualTo(rounds * k);
+    }
+}
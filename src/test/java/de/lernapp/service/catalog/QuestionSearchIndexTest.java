@@ -0,0 +1,179 @@
+package de.lernapp.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests für QuestionSearchIndex
+ * Testet Schnittmenge der Postinglisten, Präfixsuche, Gewichtung und den inkrementellen Abgleich
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("QuestionSearchIndex Tests")
+class QuestionSearchIndexTest {
+
+    private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "theta", "kappa"};
+
+    private static final List<String> QUERIES = List.of(
+        "alpha", "alpha beta", "gamma delta ", "nummer1", "nummer1 ", "num", "eps", "neu", "geaendert kappa", "fehlt");
+
+    private QuestionCatalog catalog;
+    private QuestionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = indexOn();
+    }
+
+    private QuestionSearchIndex indexOn() {
+        QuestionCatalogService catalogService = mock(QuestionCatalogService.class);
+        when(catalogService.current()).thenAnswer(invocation -> catalog);
+        return new QuestionSearchIndex(catalogService);
+    }
+
+    private static CatalogQuestion question(long id, String text, String optionA) {
+        return new CatalogQuestion(id, text, optionA, null, null, null, "A", "Netzwerk",
+                null, null, 1, null, null, null, null, null, 10, true);
+    }
+
+    private static List<CatalogQuestion> generated(int count) {
+        List<CatalogQuestion> questions = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            questions.add(question(i, WORDS[i % 8] + " " + WORDS[(i / 8) % 8] + " nummer" + i, null));
+        }
+        return questions;
+    }
+
+    private static List<Long> ids(List<QuestionSearchIndex.SearchHit> hits) {
+        return hits.stream().map(QuestionSearchIndex.SearchHit::questionId).toList();
+    }
+
+    private void useSampleCatalog() {
+        catalog = QuestionCatalog.of(1, List.of(
+            question(1, "Welches Protokoll arbeitet auf der Vermittlungsschicht?", "IP"),
+            question(2, "Welcher Port gehört zu HTTP?", "80"),
+            question(3, "Was macht ein Router?", "Routing zwischen Netzen"),
+            question(4, "Routing-Protokolle im Überblick", "OSPF")));
+    }
+
+    @Test
+    @DisplayName("Treffer enthalten alle Begriffe; der letzte Begriff gilt als Präfix")
+    void matchesAllTermsWithPrefixOnLastTerm() {
+        useSampleCatalog();
+
+        assertThat(ids(index.search("protokoll vermittlung", 10))).containsExactly(1L);
+        assertThat(ids(index.search("rout", 10))).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids(index.search("protokoll http", 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Endet die Anfrage mit einem Leerzeichen, zählen nur ganze Begriffe")
+    void trailingWhitespaceDisablesPrefix() {
+        useSampleCatalog();
+
+        assertThat(index.search("rout ", 10)).isEmpty();
+        assertThat(ids(index.search("router ", 10))).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Fragetext wiegt schwerer als Antwortoptionen")
+    void ranksQuestionTextAboveOptions() {
+        useSampleCatalog();
+
+        List<QuestionSearchIndex.SearchHit> hits = index.search("routing ", 10);
+
+        assertThat(ids(hits)).containsExactly(4L, 3L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    @DisplayName("Anfrage wird wie der Index gefaltet; Füllwörter und leere Anfragen liefern nichts")
+    void foldsQueryAndIgnoresStopWords() {
+        useSampleCatalog();
+
+        assertThat(ids(index.search("ÜBERBLICK", 10))).containsExactly(4L);
+        assertThat(ids(index.search("gehoert", 10))).containsExactly(2L);
+        assertThat(index.search("der die das", 10)).isEmpty();
+        assertThat(index.search("   ", 10)).isEmpty();
+        assertThat(index.search("router", 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Präfixe werten die häufigsten Begriffe aus; sehr kurze Präfixe gelten nur exakt")
+    void prefixExpandsMostFrequentTerms() {
+        List<CatalogQuestion> questions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            questions.add(question(i, "seltenwort" + (1000 + i), null));
+        }
+        for (int i = 101; i <= 105; i++) {
+            questions.add(question(i, "seltenwortzz", null));
+        }
+        catalog = QuestionCatalog.of(1, questions);
+
+        assertThat(ids(index.search("seltenwort", 200))).hasSize(64).contains(101L, 102L, 103L, 104L, 105L);
+        assertThat(index.search("se", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Limit liefert die besten Treffer, bei gleicher Relevanz die kleinsten IDs")
+    void limitKeepsBestHits() {
+        catalog = QuestionCatalog.of(1, generated(40));
+
+        List<QuestionSearchIndex.SearchHit> hits = index.search("netzwerk ", 3);
+
+        assertThat(ids(hits)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Kleine Änderungen werden übernommen und ergeben denselben Index wie ein Neuaufbau")
+    void incrementalUpdateMatchesRebuild() {
+        List<CatalogQuestion> questions = generated(200);
+        catalog = QuestionCatalog.of(1, questions);
+        assertThat(ids(index.search("nummer10 ", 10))).containsExactly(10L);
+
+        List<CatalogQuestion> changed = new ArrayList<>(questions);
+        changed.set(4, question(5, "geaendert kappa", null));
+        changed.remove(9); // ID 10
+        changed.add(question(1000, "neu hinzugefuegt", "epsilon"));
+        catalog = QuestionCatalog.of(2, changed);
+
+        assertThat(index.search("nummer10 ", 10)).isEmpty();
+        assertThat(index.search("nummer5 ", 10)).isEmpty();
+        assertThat(ids(index.search("geaendert", 10))).containsExactly(5L);
+        assertThat(ids(index.search("neu", 10))).containsExactly(1000L);
+        assertSameAsRebuild();
+    }
+
+    @Test
+    @DisplayName("Große Änderungen führen zum Neuaufbau mit gleichem Ergebnis")
+    void largeChangeRebuildsIndex() {
+        List<CatalogQuestion> questions = generated(100);
+        catalog = QuestionCatalog.of(1, questions);
+        index.search("alpha", 10);
+
+        List<CatalogQuestion> changed = new ArrayList<>();
+        for (CatalogQuestion question : questions) {
+            changed.add(question.id() % 2 == 0 ? question(question.id(), "geaendert kappa", null) : question);
+        }
+        catalog = QuestionCatalog.of(2, changed);
+
+        assertThat(ids(index.search("geaendert", 100))).hasSize(50);
+        assertSameAsRebuild();
+    }
+
+    private void assertSameAsRebuild() {
+        QuestionSearchIndex rebuilt = indexOn();
+        for (String query : QUERIES) {
+            assertThat(index.search(query, 500)).as(query).isEqualTo(rebuilt.search(query, 500));
+        }
+        assertThat(index.getTermCount()).isEqualTo(rebuilt.getTermCount());
+    }
+}
@@ -0,0 +1,74 @@
+package de.lernapp.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests für StrategyMix
+ * Testet die Zuordnung der Kategorien, das Ziehen ohne Duplikate und den Übergang auf die nächste Stufe
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("StrategyMix Tests")
+class StrategyMixTest {
+
+    private static CatalogQuestion question(long id, String category) {
+        return new CatalogQuestion(id, "Frage " + id, "A", "B", "C", "D", "A", category,
+                null, null, 1, null, null, null, null, null, 10, true);
+    }
+
+    private static QuestionCatalog catalog(Map<String, Integer> questionsPerCategory) {
+        List<CatalogQuestion> questions = new ArrayList<>();
+        long id = 1;
+        for (Map.Entry<String, Integer> entry : questionsPerCategory.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                questions.add(question(id++, entry.getKey()));
+            }
+        }
+        return QuestionCatalog.of(1, questions);
+    }
+
+    private static List<String> categories(QuestionCatalog catalog, int[] positions) {
+        return Arrays.stream(positions).mapToObj(p -> catalog.get(p).category()).toList();
+    }
+
+    @Test
+    @DisplayName("Kategorien werden ohne Beachtung der Groß-/Kleinschreibung zugeordnet, der erste Eintrag gilt")
+    void matchesCategoriesIgnoringCase() {
+        QuestionCatalog catalog = catalog(Map.of("Hardware", 5, "hardware", 3, "Malware", 4));
+
+        StrategyMix mix = StrategyMix.build(catalog, List.of(
+            new StrategyMix.Weight("HARDWARE", 1, 1.0),
+            new StrategyMix.Weight("Hardware", 3, 1.0),
+            new StrategyMix.Weight("malware", 2, 1.0)));
+        int[] drawn = mix.draw(Map.of(1, 20), new SplittableRandom(1));
+
+        assertThat(categories(catalog, drawn)).hasSize(12)
+            .containsOnly("Hardware", "hardware", "Malware");
+        assertThat(categories(catalog, drawn).subList(0, 8)).containsOnly("Hardware", "hardware");
+    }
+
+    @Test
+    @DisplayName("Gezogene Positionen sind verschieden; fehlende Fragen einer Stufe gehen auf die nächste über")
+    void drawsDistinctAndCarriesOver() {
+        QuestionCatalog catalog = catalog(Map.of("Projektmanagement", 3, "PowerShell", 40, "Datenbanken", 40));
+
+        StrategyMix mix = StrategyMix.build(catalog, List.of(
+            new StrategyMix.Weight("Projektmanagement", 1, 2.0),
+            new StrategyMix.Weight("PowerShell", 2, 1.0),
+            new StrategyMix.Weight("Datenbanken", 3, 0.0)));
+        int[] drawn = mix.draw(Map.of(1, 10, 2, 10), new SplittableRandom(7));
+
+        assertThat(drawn).hasSize(20).doesNotHaveDuplicates();
+        assertThat(categories(catalog, drawn)).filteredOn("Projektmanagement"::equals).hasSize(3);
+        assertThat(categories(catalog, drawn)).filteredOn("PowerShell"::equals).hasSize(17);
+    }
+}
@@ -0,0 +1,112 @@
+package de.lernapp.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests für TagIndex
+ * Testet Aufbau der Postinglisten, Faltung der Tags und die Galopp-Schnittmenge
+ *
+ * @author Hans Hahn
+ */
+@DisplayName("TagIndex Tests")
+class TagIndexTest {
+
+    private static CatalogQuestion question(long id, String tags) {
+        return new CatalogQuestion(id, "Frage " + id, "A", "B", "C", "D", "A", "Netzwerk",
+                null, null, 1, null, tags, null, null, null, 10, true);
+    }
+
+    private static TagIndex index(String... tags) {
+        CatalogQuestion[] questions = new CatalogQuestion[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            questions[i] = question(i + 1, tags[i]);
+        }
+        return TagIndex.build(questions);
+    }
+
+    @Test
+    @DisplayName("Tag-Listen werden an Komma, Semikolon und senkrechtem Strich getrennt")
+    void splitTrimsAndDropsEmptyTags() {
+        assertThat(TagIndex.split(" scrum, agile ;; sprint |kanban ")).containsExactly("scrum", "agile", "sprint", "kanban");
+        assertThat(TagIndex.split(null)).isEmpty();
+        assertThat(TagIndex.split("  ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Positionen je Tag sind aufsteigend und enthalten doppelte Tags nur einmal")
+    void buildsSortedPositionsWithoutDuplicates() {
+        TagIndex index = index("scrum,agile", "agile", "scrum,scrum,Scrum", null, "sprint");
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.positions(index.tagId("scrum"))).containsExactly(0, 2);
+        assertThat(index.positions(index.tagId("agile"))).containsExactly(0, 1);
+        assertThat(index.positions(index.tagId("sprint"))).containsExactly(4);
+        assertThat(index.positions(-1)).isEmpty();
+        assertThat(index.positions(99)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Tags werden wie Suchbegriffe gefaltet, angezeigt wird die erste Schreibweise")
+    void foldsTagsAndKeepsFirstSpelling() {
+        TagIndex index = index("Prüfung", "PRUEFUNG", "pruefung");
+
+        int id = index.tagId("prüfung");
+        assertThat(id).isGreaterThanOrEqualTo(0);
+        assertThat(index.tagId("Pruefung")).isEqualTo(id);
+        assertThat(index.tagName(id)).isEqualTo("Prüfung");
+        assertThat(index.positions(id)).containsExactly(0, 1, 2);
+        assertThat(index.getTagCounts()).containsEntry("Prüfung", 3);
+        assertThat(index.tagId("unbekannt")).isEqualTo(-1);
+        assertThat(index.tagId(null)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Schnittmenge mehrerer Tags; unbekannte Tags ergeben eine leere Menge, keine Tags keinen Filter")
+    void intersectsTags() {
+        TagIndex index = index("a,b,c", "a,c", "b,c", "a,b,c", "c");
+
+        assertThat(index.intersect(List.of("a", "c"))).containsExactly(0, 1, 3);
+        assertThat(index.intersect(List.of("A", "b", "C"))).containsExactly(0, 3);
+        assertThat(index.intersect(List.of("c", "c"))).containsExactly(0, 1, 2, 3, 4);
+        assertThat(index.intersect(List.of("a", "fehlt"))).isEmpty();
+        assertThat(index.intersect(List.of())).isNull();
+        assertThat(index.intersect(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Galopp-Suche findet Treffer am Anfang, in der Mitte und am Ende der langen Liste")
+    void gallopingIntersectionHandlesEdges() {
+        int[] large = IntStream.range(0, 1000).map(i -> i * 2).toArray();
+
+        assertThat(TagIndex.intersect(new int[]{0, 1, 998, 1998, 2000}, large)).containsExactly(0, 998, 1998);
+        assertThat(TagIndex.intersect(new int[]{3, 5, 7}, large)).isEmpty();
+        assertThat(TagIndex.intersect(new int[0], large)).isEmpty();
+        assertThat(TagIndex.intersect(new int[]{4}, new int[0])).isEmpty();
+        assertThat(TagIndex.intersect(new int[]{-1, 5000}, large)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Galopp-Schnittmenge entspricht der naiven Schnittmenge")
+    void gallopingIntersectionMatchesNaiveIntersection() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int[] small = randomSortedSet(random, random.nextInt(20), 500);
+            int[] large = randomSortedSet(random, random.nextInt(400), 500);
+
+            int[] expected = Arrays.stream(small).filter(v -> Arrays.binarySearch(large, v) >= 0).toArray();
+            assertThat(TagIndex.intersect(small, large)).as("Runde %d", round).containsExactly(expected);
+        }
+    }
+
+    private static int[] randomSortedSet(Random random, int size, int bound) {
+        return random.ints(size, 0, bound).distinct().sorted().toArray();
+    }
+}